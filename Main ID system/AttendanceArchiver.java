@@ -0,0 +1,268 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * AttendanceArchiver - Moves closed school years out of the live attendance table
+ * Features: attendance_archive table, small-batch online mover, off-hours window, transparent UNION for old ranges
+ *
+ * The kiosk only ever touches today's rows, so it keeps using the (small) live table.
+ * Reports and logs build their FROM clause with source(), which adds the archive
+ * only when the requested range reaches back before the current school year (the
+ * only dates any kiosk's archiver moves), so archival elsewhere is never missed.
+ * Columns added to attendance later are added to the archive too, and both the
+ * UNION and the mover name their columns, so column order never has to match.
+ */
+public class AttendanceArchiver {
+    
+    private Connection conn;
+    private static Timer archiveTimer;
+    
+    // Dates before this may live in attendance_archive; null = nothing archived yet
+    private static volatile LocalDate liveFrom;
+    
+    // Column list of attendance, e.g. "`id`, `user_id`, ..." (set by syncColumns)
+    private static volatile String columns;
+    
+    public AttendanceArchiver(Connection conn) {
+        this.conn = conn;
+    }
+    
+    /**
+     * Create the archive table and read the archived boundary
+     */
+    public void initialize() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM information_schema.tables " +
+                "WHERE table_schema = DATABASE() AND table_name = 'attendance_archive'");
+            rs.next();
+            boolean exists = rs.getInt(1) > 0;
+            rs.close();
+            
+            if (exists) {
+                rs = stmt.executeQuery("SELECT MAX(date) FROM attendance_archive");
+                rs.next();
+                Date maxDate = rs.getDate(1);
+                rs.close();
+                if (maxDate == null) {
+                    // Still empty - recreate so it picks up any columns added to attendance since
+                    stmt.executeUpdate("DROP TABLE attendance_archive");
+                    exists = false;
+                } else {
+                    liveFrom = maxDate.toLocalDate().plusDays(1);
+                }
+            }
+            if (!exists) {
+                // Same columns and indexes as the live table (LIKE does not copy foreign keys)
+                stmt.executeUpdate("CREATE TABLE attendance_archive LIKE attendance");
+            }
+        }
+        syncColumns();
+        
+        if (liveFrom != null) {
+            System.out.println("✓ Attendance archive holds records before " + liveFrom);
+        }
+    }
+    
+    /**
+     * Add attendance columns the archive is missing (nullable; archived rows read NULL)
+     * and remember the live column list for the UNION and the mover
+     */
+    private void syncColumns() throws SQLException {
+        String sql = "SELECT c.COLUMN_NAME, c.COLUMN_TYPE, " +
+                     "EXISTS(SELECT 1 FROM information_schema.columns x WHERE x.table_schema = c.table_schema " +
+                     "       AND x.table_name = 'attendance_archive' AND x.column_name = c.column_name) AS archived " +
+                     "FROM information_schema.columns c " +
+                     "WHERE c.table_schema = DATABASE() AND c.table_name = 'attendance' ORDER BY c.ORDINAL_POSITION";
+        StringBuilder list = new StringBuilder();
+        List<String> missing = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                String column = "`" + rs.getString(1) + "`";
+                list.append(list.length() > 0 ? ", " : "").append(column);
+                if (!rs.getBoolean("archived")) {
+                    missing.add("ADD COLUMN " + column + " " + rs.getString(2) + " NULL");
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("ALTER TABLE attendance_archive " + String.join(", ", missing));
+            }
+            System.out.println("✓ Added " + missing.size() + " new attendance column(s) to attendance_archive");
+        }
+        columns = list.toString();
+    }
+    
+    /**
+     * FROM-clause source covering dates from the given day onward (null = whole history).
+     * Returns the live table unless the range reaches into closed school years, which
+     * another process may have archived since this one last looked.
+     */
+    public static String source(LocalDate from, String alias) {
+        LocalDate boundary = currentSchoolYearStart(LocalDate.now());
+        if (liveFrom != null && liveFrom.isAfter(boundary)) {
+            boundary = liveFrom;
+        }
+        boolean needsArchive = columns != null && (from == null || from.isBefore(boundary));
+        return (needsArchive
+            ? "(SELECT " + columns + " FROM attendance UNION ALL SELECT " + columns + " FROM attendance_archive)"
+            : "attendance") + " " + alias;
+    }
+    
+    /**
+     * First day of the current school year (archive.school.year.start, MM-dd)
+     */
+    public static LocalDate currentSchoolYearStart(LocalDate today) {
+        MonthDay start = MonthDay.parse("--" + ConfigManager.getInstance().getProperty("archive.school.year.start", "06-01"));
+        LocalDate thisYear = start.atYear(today.getYear());
+        return thisYear.isAfter(today) ? thisYear.minusYears(1) : thisYear;
+    }
+    
+    /**
+     * Move every record dated before the cutoff into the archive, one small
+     * transaction at a time. Stops early when the off-hours window closes.
+     * Returns the number of rows moved.
+     */
+    public int archiveBefore(LocalDate cutoff) throws SQLException {
+        ConfigManager config = ConfigManager.getInstance();
+        int batchSize = Integer.parseInt(config.getProperty("archive.batch.size", "500"));
+        long pauseMillis = Long.parseLong(config.getProperty("archive.batch.pause.ms", "200"));
+        
+        long started = System.currentTimeMillis();
+        int moved = 0;
+        syncColumns();
+        boolean autoCommit = conn.getAutoCommit();
+        try {
+            while (isWithinWindow(LocalTime.now())) {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement select = conn.prepareStatement(
+                        "SELECT id FROM attendance WHERE date < ? ORDER BY id LIMIT ?")) {
+                    select.setDate(1, Date.valueOf(cutoff));
+                    select.setInt(2, batchSize);
+                    ResultSet rs = select.executeQuery();
+                    while (rs.next()) {
+                        ids.add(rs.getInt(1));
+                    }
+                    rs.close();
+                }
+                if (ids.isEmpty()) break;
+                
+                // Ranges before the cutoff read both tables from now on (set before rows move)
+                if (liveFrom == null || liveFrom.isBefore(cutoff)) {
+                    liveFrom = cutoff;
+                }
+                
+                String idList = placeholders(ids.size());
+                conn.setAutoCommit(false);
+                try (PreparedStatement copy = conn.prepareStatement(
+                         "INSERT INTO attendance_archive (" + columns + ") " +
+                         "SELECT " + columns + " FROM attendance WHERE id IN (" + idList + ")");
+                     PreparedStatement delete = conn.prepareStatement(
+                         "DELETE FROM attendance WHERE id IN (" + idList + ")")) {
+                    for (int i = 0; i < ids.size(); i++) {
+                        copy.setInt(i + 1, ids.get(i));
+                        delete.setInt(i + 1, ids.get(i));
+                    }
+                    copy.executeUpdate();
+                    moved += delete.executeUpdate();
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback();
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(autoCommit);
+                }
+                
+                try {
+                    Thread.sleep(pauseMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        
+        System.out.println("✓ Archived " + moved + " attendance record(s) before " + cutoff +
+            " (" + (System.currentTimeMillis() - started) + " ms)");
+        return moved;
+    }
+    
+    /**
+     * Start the nightly archival of closed school years
+     */
+    public static void startNightlyArchival() {
+        ConfigManager config = ConfigManager.getInstance();
+        String archiveTime = config.getProperty("archive.window.start", "21:00");
+        
+        archiveTimer = new Timer("AttendanceArchiveTimer", true);
+        
+        long delay = calculateInitialDelay(archiveTime);
+        long period = 24 * 60 * 60 * 1000; // 24 hours in milliseconds
+        
+        archiveTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+                try (Connection conn = DriverManager.getConnection(
+                        config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                        config.getDatabaseUser(),
+                        config.getDatabasePassword())) {
+                    new AttendanceArchiver(conn).archiveBefore(currentSchoolYearStart(LocalDate.now()));
+                } catch (SQLException e) {
+                    System.err.println("❌ Attendance archival failed: " + e.getMessage());
+                }
+            }
+        }, delay, period);
+        
+        System.out.println("✓ Attendance archival scheduled for " + archiveTime + " daily");
+    }
+    
+    public static void stopNightlyArchival() {
+        if (archiveTimer != null) {
+            archiveTimer.cancel();
+        }
+    }
+    
+    /**
+     * Helper: Off-hours window (archive.window.start to archive.window.end, may wrap midnight)
+     */
+    private static boolean isWithinWindow(LocalTime now) {
+        ConfigManager config = ConfigManager.getInstance();
+        LocalTime start = LocalTime.parse(config.getProperty("archive.window.start", "21:00"));
+        LocalTime end = LocalTime.parse(config.getProperty("archive.window.end", "05:00"));
+        if (start.isBefore(end)) {
+            return !now.isBefore(start) && now.isBefore(end);
+        }
+        return !now.isBefore(start) || now.isBefore(end);
+    }
+    
+    private static String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("?");
+        }
+        return sb.toString();
+    }
+    
+    private static long calculateInitialDelay(String time) {
+        String[] parts = time.split(":");
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.withHour(Integer.parseInt(parts[0]))
+                                .withMinute(Integer.parseInt(parts[1])).withSecond(0);
+        if (next.isBefore(now)) {
+            next = next.plusDays(1);
+        }
+        return java.time.Duration.between(now, next).toMillis();
+    }
+}
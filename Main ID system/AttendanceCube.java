@@ -0,0 +1,280 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * AttendanceCube - In-memory attendance bitmaps for analytics
+ * Features: Present/late bitmap per user per year, per-section rollups, range counts without SQL,
+ *           change-stamp check before reports, nightly reload
+ *
+ * Each user-year is two 366-bit bitmaps (six longs each, bit n = day of year n+1).
+ * Range counts are a handful of masked bitCount() calls, so rates for thousands
+ * of students take microseconds. The kiosk records its own committed time-ins;
+ * scans at other kiosks and corrections are picked up by refreshIfChanged(), which
+ * compares cheap change stamps (attendance count and last id, last daily_summary
+ * update, roster checksum) with those of the last load. A reload is built off to
+ * the side and swapped in, so readers never see a half-filled cube.
+ */
+public class AttendanceCube {
+    
+    private static AttendanceCube instance;
+    
+    private static final int WORDS_PER_YEAR = 6; // 6 * 64 = 384 bits >= 366 days
+    
+    private volatile Map<Integer, Map<Integer, YearBits>> users = new ConcurrentHashMap<>();
+    private volatile Map<String, int[]> sections = Collections.emptyMap();
+    private volatile boolean sectionsStale = true;
+    private volatile boolean loaded = false;
+    private volatile String stamp;          // attendance changes
+    private volatile String rosterStamp;    // users/students changes
+    
+    private AttendanceCube() {
+    }
+    
+    public static synchronized AttendanceCube getInstance() {
+        if (instance == null) {
+            instance = new AttendanceCube();
+        }
+        return instance;
+    }
+    
+    /**
+     * Load every present day from attendance (streamed) and the section roster
+     */
+    public synchronized void load(Connection conn) throws SQLException {
+        long started = System.currentTimeMillis();
+        // Stamp first: a change landing during the load is seen by the next check
+        stamp = readStamp(conn);
+        Map<Integer, Map<Integer, YearBits>> loading = new ConcurrentHashMap<>();
+        
+        int rows = 0;
+        try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(Integer.MIN_VALUE);
+            ResultSet rs;
+            try {
+                rs = stmt.executeQuery("SELECT user_id, date, late_minutes FROM " +
+                    AttendanceArchiver.source(null, "src") + " WHERE time_in IS NOT NULL");
+            } catch (SQLException e) {
+                // late_minutes not added yet - presence only
+                rs = stmt.executeQuery("SELECT user_id, date, 0 AS late_minutes FROM " +
+                    AttendanceArchiver.source(null, "src") + " WHERE time_in IS NOT NULL");
+            }
+            while (rs.next()) {
+                record(loading, rs.getInt(1), rs.getDate(2).toLocalDate(), rs.getInt(3) > 0);
+                rows++;
+            }
+            rs.close();
+        }
+        
+        users = loading;
+        rosterStamp = readRosterStamp(conn);
+        sectionsStale = true;
+        reloadSections(conn);
+        loaded = true;
+        System.out.println("✓ Attendance cube loaded: " + rows + " days for " + loading.size() +
+            " users (" + (System.currentTimeMillis() - started) + " ms)");
+    }
+    
+    public boolean isLoaded() {
+        return loaded;
+    }
+    
+    /**
+     * Load, or reload if attendance changed outside this kiosk since the last load;
+     * re-read the section roster if users or students changed
+     */
+    public synchronized void refreshIfChanged(Connection conn) throws SQLException {
+        if (!loaded || !readStamp(conn).equals(stamp)) {
+            load(conn);
+            return;
+        }
+        String roster = readRosterStamp(conn);
+        if (!roster.equals(rosterStamp)) {
+            rosterStamp = roster;
+            sectionsStale = true;
+        }
+    }
+    
+    /**
+     * Helper: Attendance row count and last id, plus the last daily_summary update, which
+     * every scan and every repair of a corrected day touches. Archiving moves rows out
+     * of attendance, so the live table alone is enough.
+     */
+    private static String readStamp(Connection conn) throws SQLException {
+        String summary;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MAX(updated_at) FROM daily_summary")) {
+            rs.next();
+            summary = String.valueOf(rs.getTimestamp(1));
+        } catch (SQLException e) {
+            summary = "-"; // daily_summary not created yet
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), MAX(id) FROM attendance")) {
+            rs.next();
+            return rs.getLong(1) + "/" + rs.getLong(2) + "/" + summary;
+        }
+    }
+    
+    /**
+     * Helper: Checksum of the roster tables (as SchoolCalendar does for holidays/shifts)
+     */
+    private static String readRosterStamp(Connection conn) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("CHECKSUM TABLE users, students")) {
+            while (rs.next()) {
+                sb.append(rs.getString(1)).append('=').append(rs.getString(2)).append(';');
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Record a committed time-in
+     */
+    public void recordTimeIn(int userId, LocalDate date, boolean late) {
+        record(users, userId, date, late);
+    }
+    
+    /**
+     * Mark the grade/section roster as changed; it is re-read on next section query
+     */
+    public void rosterChanged() {
+        sectionsStale = true;
+    }
+    
+    public boolean isPresent(int userId, LocalDate date) {
+        YearBits bits = bitsFor(userId, date.getYear());
+        return bits != null && (bits.present.get(word(date)) & (1L << bitIndex(date))) != 0;
+    }
+    
+    public int countPresent(int userId, LocalDate from, LocalDate to) {
+        return count(userId, from, to, false);
+    }
+    
+    public int countLate(int userId, LocalDate from, LocalDate to) {
+        return count(userId, from, to, true);
+    }
+    
+    /**
+     * "grade|section" keys of the current roster (null parts shown as "N/A")
+     */
+    public Set<String> getSections(Connection conn) throws SQLException {
+        return sections(conn).keySet();
+    }
+    
+    /**
+     * Per-section rollup over the range.
+     * Returns {students, present on the last day, present days, late days}.
+     */
+    public int[] sectionTotals(Connection conn, String sectionKey, LocalDate from, LocalDate to) throws SQLException {
+        int[] members = sections(conn).getOrDefault(sectionKey, new int[0]);
+        int presentOnLastDay = 0;
+        int presentDays = 0;
+        int lateDays = 0;
+        for (int userId : members) {
+            if (isPresent(userId, to)) presentOnLastDay++;
+            presentDays += countPresent(userId, from, to);
+            lateDays += countLate(userId, from, to);
+        }
+        return new int[]{members.length, presentOnLastDay, presentDays, lateDays};
+    }
+    
+    /**
+     * Helper: Section membership, re-read from students when the roster changed
+     */
+    private Map<String, int[]> sections(Connection conn) throws SQLException {
+        if (sectionsStale) {
+            reloadSections(conn);
+        }
+        return sections;
+    }
+    
+    private synchronized void reloadSections(Connection conn) throws SQLException {
+        if (!sectionsStale) return;
+        sectionsStale = false;
+        
+        Map<String, List<Integer>> grouped = new TreeMap<>();
+        String sql = "SELECT u.user_id, s.grade, s.section FROM users u " +
+                     "JOIN students s ON u.user_id = s.user_id " +
+                     "WHERE u.role = 'student' AND u.status = 'active'";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                String key = sectionKey(rs.getString("grade"), rs.getString("section"));
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(rs.getInt("user_id"));
+            }
+        } catch (SQLException e) {
+            sectionsStale = true;
+            throw e;
+        }
+        
+        Map<String, int[]> compiled = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> e : grouped.entrySet()) {
+            compiled.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+        }
+        sections = compiled;
+    }
+    
+    public static String sectionKey(String grade, String section) {
+        return (grade != null ? grade : "N/A") + "|" + (section != null ? section : "N/A");
+    }
+    
+    private static void record(Map<Integer, Map<Integer, YearBits>> target, int userId, LocalDate date, boolean late) {
+        YearBits bits = target.computeIfAbsent(userId, id -> new ConcurrentHashMap<>())
+            .computeIfAbsent(date.getYear(), y -> new YearBits());
+        long mask = 1L << bitIndex(date);
+        int word = word(date);
+        bits.present.getAndAccumulate(word, mask, (a, b) -> a | b);
+        if (late) {
+            bits.late.getAndAccumulate(word, mask, (a, b) -> a | b);
+        }
+    }
+    
+    /**
+     * Helper: Count set bits in [from, to] across year boundaries
+     */
+    private int count(int userId, LocalDate from, LocalDate to, boolean late) {
+        if (to.isBefore(from)) return 0;
+        Map<Integer, YearBits> years = users.get(userId);
+        if (years == null) return 0;
+        
+        int total = 0;
+        for (int year = from.getYear(); year <= to.getYear(); year++) {
+            YearBits bits = years.get(year);
+            if (bits == null) continue;
+            AtomicLongArray words = late ? bits.late : bits.present;
+            int first = year == from.getYear() ? from.getDayOfYear() - 1 : 0;
+            int last = year == to.getYear() ? to.getDayOfYear() - 1 : WORDS_PER_YEAR * 64 - 1;
+            
+            for (int w = first >>> 6; w <= last >>> 6; w++) {
+                long value = words.get(w);
+                if (w == first >>> 6) value &= -1L << (first & 63);
+                if (w == last >>> 6) value &= -1L >>> (63 - (last & 63));
+                total += Long.bitCount(value);
+            }
+        }
+        return total;
+    }
+    
+    private YearBits bitsFor(int userId, int year) {
+        Map<Integer, YearBits> years = users.get(userId);
+        return years != null ? years.get(year) : null;
+    }
+    
+    private static int word(LocalDate date) {
+        return (date.getDayOfYear() - 1) >>> 6;
+    }
+    
+    private static int bitIndex(LocalDate date) {
+        return (date.getDayOfYear() - 1) & 63;
+    }
+    
+    private static class YearBits {
+        private final AtomicLongArray present = new AtomicLongArray(WORDS_PER_YEAR);
+        private final AtomicLongArray late = new AtomicLongArray(WORDS_PER_YEAR);
+    }
+}
@@ -0,0 +1,296 @@
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * AttendanceStatistics - Keeps the attendance_statistics table up to date
+ * Features: Per-scan daily/weekly/monthly counters, nightly reconciliation (plus attendance cube reload),
+ *           one-time backfill
+ *
+ * Counters are written in the same transaction as the attendance row, so reports
+ * can read precomputed totals instead of scanning attendance history.
+ * absent_days is only refreshed by reconciliation (it depends on elapsed school days).
+ */
+public class AttendanceStatistics {
+    
+    private Connection conn;
+    private static Timer reconcileTimer;
+    
+    public AttendanceStatistics(Connection conn) {
+        this.conn = conn;
+    }
+    
+    /**
+     * Create the statistics table if missing and backfill it once from attendance history
+     */
+    public void initialize() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS attendance_statistics (" +
+                "id INT PRIMARY KEY AUTO_INCREMENT," +
+                "user_id INT NOT NULL," +
+                "period_type VARCHAR(20) NOT NULL," +
+                "period_start DATE NOT NULL," +
+                "period_end DATE NOT NULL," +
+                "total_days INT DEFAULT 0," +
+                "present_days INT DEFAULT 0," +
+                "absent_days INT DEFAULT 0," +
+                "late_days INT DEFAULT 0," +
+                "early_departure_days INT DEFAULT 0," +
+                "attendance_rate DECIMAL(5,2)," +
+                "computed_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP," +
+                "UNIQUE KEY unique_stat (user_id, period_type, period_start, period_end)," +
+                "INDEX idx_period (period_type, period_start)," +
+                "FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE" +
+                ")");
+            
+            ResultSet rs = stmt.executeQuery("SELECT EXISTS(SELECT 1 FROM attendance_statistics) AS has_rows, " +
+                                             "(SELECT MIN(date) FROM " + AttendanceArchiver.source(null, "src") + ") AS first_date");
+            if (rs.next() && !rs.getBoolean("has_rows") && rs.getDate("first_date") != null) {
+                LocalDate firstDate = rs.getDate("first_date").toLocalDate();
+                System.out.println("  Backfilling attendance statistics from " + firstDate + "...");
+                reconcile(firstDate, LocalDate.now());
+            }
+            rs.close();
+        }
+    }
+    
+    /**
+     * Count a time-in for the day, week and month containing the date.
+     * Call inside the transaction that inserts the attendance row.
+     */
+    public void recordTimeIn(int userId, LocalDate date, int lateMinutes) throws SQLException {
+        String sql = "INSERT INTO attendance_statistics " +
+                     "(user_id, period_type, period_start, period_end, total_days, present_days, late_days, attendance_rate) " +
+                     "VALUES (?, 'daily', ?, ?, ?, 1, ?, ROUND(100 / NULLIF(?, 0), 2)), " +
+                     "(?, 'weekly', ?, ?, ?, 1, ?, ROUND(100 / NULLIF(?, 0), 2)), " +
+                     "(?, 'monthly', ?, ?, ?, 1, ?, ROUND(100 / NULLIF(?, 0), 2)) " +
+                     "ON DUPLICATE KEY UPDATE " +
+                     "present_days = present_days + 1, " +
+                     "late_days = late_days + VALUES(late_days), " +
+                     "total_days = VALUES(total_days), " +
+                     "attendance_rate = ROUND(present_days / NULLIF(total_days, 0) * 100, 2), " +
+                     "computed_at = CURRENT_TIMESTAMP";
+        
+        int late = lateMinutes > 0 ? 1 : 0;
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            int index = 1;
+            for (LocalDate[] period : periodsContaining(date)) {
+                int totalDays = ReportGenerator.calculateWorkingDays(period[0], period[1]);
+                stmt.setInt(index++, userId);
+                stmt.setDate(index++, Date.valueOf(period[0]));
+                stmt.setDate(index++, Date.valueOf(period[1]));
+                stmt.setInt(index++, totalDays);
+                stmt.setInt(index++, late);
+                stmt.setInt(index++, totalDays);
+            }
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Count an early departure for the day, week and month containing the date
+     */
+    public void recordTimeOut(int userId, LocalDate date, int earlyOutMinutes) throws SQLException {
+        if (earlyOutMinutes <= 0) return;
+        
+        String sql = "UPDATE attendance_statistics SET early_departure_days = early_departure_days + 1, " +
+                     "computed_at = CURRENT_TIMESTAMP " +
+                     "WHERE user_id = ? AND ((period_type = 'daily' AND period_start = ?) " +
+                     "OR (period_type = 'weekly' AND period_start = ?) " +
+                     "OR (period_type = 'monthly' AND period_start = ?))";
+        
+        List<LocalDate[]> periods = periodsContaining(date);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setDate(2, Date.valueOf(periods.get(0)[0]));
+            stmt.setDate(3, Date.valueOf(periods.get(1)[0]));
+            stmt.setDate(4, Date.valueOf(periods.get(2)[0]));
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Rebuild all statistics rows for periods touching the date range from raw attendance
+     */
+    public void reconcile(LocalDate from, LocalDate to) throws SQLException {
+        // Each period type is widened to whole periods so none is left half-counted
+        LocalDate weekStart = from.with(DayOfWeek.MONDAY);
+        LocalDate weekEnd = to.with(DayOfWeek.SUNDAY);
+        LocalDate monthStart = from.withDayOfMonth(1);
+        LocalDate monthEnd = to.withDayOfMonth(to.lengthOfMonth());
+        
+        Object[][] groupings = {
+            {"daily", "date", "date", from, to},
+            {"weekly", "DATE_SUB(date, INTERVAL WEEKDAY(date) DAY)",
+                "DATE_ADD(DATE_SUB(date, INTERVAL WEEKDAY(date) DAY), INTERVAL 6 DAY)", weekStart, weekEnd},
+            {"monthly", "DATE_FORMAT(date, '%Y-%m-01')", "LAST_DAY(date)", monthStart, monthEnd}
+        };
+        
+        long started = System.currentTimeMillis();
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            for (Object[] g : groupings) {
+                Date rangeStart = Date.valueOf((LocalDate) g[3]);
+                Date rangeEnd = Date.valueOf((LocalDate) g[4]);
+                
+                try (PreparedStatement delete = conn.prepareStatement(
+                        "DELETE FROM attendance_statistics WHERE period_type = ? AND period_start BETWEEN ? AND ?")) {
+                    delete.setString(1, (String) g[0]);
+                    delete.setDate(2, rangeStart);
+                    delete.setDate(3, rangeEnd);
+                    delete.executeUpdate();
+                }
+                
+                String sql = "INSERT INTO attendance_statistics " +
+                             "(user_id, period_type, period_start, period_end, present_days, late_days, early_departure_days) " +
+                             "SELECT user_id, ?, " + g[1] + ", " + g[2] + ", " +
+                             "COUNT(DISTINCT date), " +
+                             "SUM(CASE WHEN late_minutes > 0 THEN 1 ELSE 0 END), " +
+                             "SUM(CASE WHEN early_out_minutes > 0 THEN 1 ELSE 0 END) " +
+                             "FROM " + AttendanceArchiver.source((LocalDate) g[3], "src") + " " +
+                             "WHERE time_in IS NOT NULL AND date BETWEEN ? AND ? " +
+                             "GROUP BY user_id, " + g[1] + ", " + g[2];
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    stmt.setString(1, (String) g[0]);
+                    stmt.setDate(2, rangeStart);
+                    stmt.setDate(3, rangeEnd);
+                    stmt.executeUpdate();
+                }
+            }
+            
+            LocalDate start = weekStart.isBefore(monthStart) ? weekStart : monthStart;
+            LocalDate end = weekEnd.isAfter(monthEnd) ? weekEnd : monthEnd;
+            refreshDerivedColumns(start, end);
+            conn.commit();
+            ReportCache.getInstance().invalidate(start, end);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+        
+        System.out.println("✓ Attendance statistics reconciled for " + from + " to " + to +
+            " (" + (System.currentTimeMillis() - started) + " ms)");
+    }
+    
+    /**
+     * Helper: Fill total_days, absent_days and attendance_rate for every period in the range
+     */
+    private void refreshDerivedColumns(LocalDate start, LocalDate end) throws SQLException {
+        String periodsSql = "SELECT DISTINCT period_type, period_start, period_end FROM attendance_statistics " +
+                            "WHERE period_start >= ? AND period_end <= ?";
+        String updateSql = "UPDATE attendance_statistics SET total_days = ?, " +
+                           "absent_days = GREATEST(? - present_days, 0), " +
+                           "attendance_rate = ROUND(present_days / NULLIF(?, 0) * 100, 2), " +
+                           "computed_at = CURRENT_TIMESTAMP " +
+                           "WHERE period_type = ? AND period_start = ? AND period_end = ?";
+        
+        LocalDate today = LocalDate.now();
+        try (PreparedStatement periods = conn.prepareStatement(periodsSql);
+             PreparedStatement update = conn.prepareStatement(updateSql)) {
+            periods.setDate(1, Date.valueOf(start));
+            periods.setDate(2, Date.valueOf(end));
+            ResultSet rs = periods.executeQuery();
+            
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                rows.add(new Object[]{rs.getString(1), rs.getDate(2).toLocalDate(), rs.getDate(3).toLocalDate()});
+            }
+            rs.close();
+            
+            for (Object[] row : rows) {
+                LocalDate periodStart = (LocalDate) row[1];
+                LocalDate periodEnd = (LocalDate) row[2];
+                int totalDays = ReportGenerator.calculateWorkingDays(periodStart, periodEnd);
+                LocalDate elapsedEnd = periodEnd.isAfter(today) ? today : periodEnd;
+                int elapsedDays = elapsedEnd.isBefore(periodStart) ? 0
+                    : ReportGenerator.calculateWorkingDays(periodStart, elapsedEnd);
+                
+                update.setInt(1, totalDays);
+                update.setInt(2, elapsedDays);
+                update.setInt(3, totalDays);
+                update.setString(4, (String) row[0]);
+                update.setDate(5, Date.valueOf(periodStart));
+                update.setDate(6, Date.valueOf(periodEnd));
+                update.addBatch();
+            }
+            update.executeBatch();
+        }
+    }
+    
+    /**
+     * Helper: {start, end} of the day, ISO week and month containing the date
+     */
+    private static List<LocalDate[]> periodsContaining(LocalDate date) {
+        List<LocalDate[]> periods = new ArrayList<>(3);
+        periods.add(new LocalDate[]{date, date});
+        periods.add(new LocalDate[]{date.with(DayOfWeek.MONDAY), date.with(DayOfWeek.SUNDAY)});
+        periods.add(new LocalDate[]{date.withDayOfMonth(1), date.withDayOfMonth(date.lengthOfMonth())});
+        return periods;
+    }
+    
+    /**
+     * Start the nightly reconciliation pass (covers the previous and current month,
+     * and repairs yesterday's daily summary row)
+     */
+    public static void startNightlyReconciliation() {
+        ConfigManager config = ConfigManager.getInstance();
+        String reconcileTime = config.getProperty("statistics.reconcile.time", "01:00");
+        
+        reconcileTimer = new Timer("StatisticsReconcileTimer", true);
+        
+        long delay = calculateInitialDelay(reconcileTime);
+        long period = 24 * 60 * 60 * 1000; // 24 hours in milliseconds
+        
+        reconcileTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                LocalDate today = LocalDate.now();
+                try (Connection conn = DriverManager.getConnection(
+                        config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                        config.getDatabaseUser(),
+                        config.getDatabasePassword())) {
+                    new AttendanceStatistics(conn).reconcile(today.minusMonths(1).withDayOfMonth(1), today);
+                    new DailySummary(conn).repair(today.minusDays(1));
+                    if (AttendanceCube.getInstance().isLoaded()) {
+                        AttendanceCube.getInstance().load(conn);
+                    }
+                } catch (SQLException e) {
+                    System.err.println("❌ Statistics reconciliation failed: " + e.getMessage());
+                }
+            }
+        }, delay, period);
+        
+        System.out.println("✓ Statistics reconciliation scheduled for " + reconcileTime + " daily");
+    }
+    
+    /**
+     * Stop the nightly reconciliation pass
+     */
+    public static void stopNightlyReconciliation() {
+        if (reconcileTimer != null) {
+            reconcileTimer.cancel();
+        }
+    }
+    
+    /**
+     * Calculate initial delay until the next HH:mm
+     */
+    private static long calculateInitialDelay(String time) {
+        String[] parts = time.split(":");
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.withHour(Integer.parseInt(parts[0]))
+                                .withMinute(Integer.parseInt(parts[1])).withSecond(0);
+        if (next.isBefore(now)) {
+            next = next.plusDays(1);
+        }
+        return java.time.Duration.between(now, next).toMillis();
+    }
+}
@@ -0,0 +1,131 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * BackupManifest - Contents list of one backup archive
+ * Features: Per-part SHA-256 and row counts, per-table row counts and checksums, schema version
+ *
+ * Stored as the last entry of zip backups (manifest.properties) and next to gzip
+ * backups (<file>.manifest). Parts are listed in archive order; a part's SHA-256
+ * is of its uncompressed SQL, and its size is the compressed bytes on disk.
+ */
+public class BackupManifest {
+    
+    public static final String ENTRY_NAME = "manifest.properties";
+    public static final String SIDECAR_SUFFIX = ".manifest";
+    
+    private final Properties values = new Properties();
+    
+    public BackupManifest() {
+        values.setProperty("format", "1");
+    }
+    
+    public static BackupManifest load(InputStream in) throws IOException {
+        BackupManifest manifest = new BackupManifest();
+        manifest.values.load(in);
+        return manifest;
+    }
+    
+    public void store(OutputStream out) throws IOException {
+        values.store(out, "RFID Attendance System backup manifest");
+    }
+    
+    public void set(String key, String value) {
+        values.setProperty(key, value);
+    }
+    
+    public String get(String key) {
+        return values.getProperty(key);
+    }
+    
+    /**
+     * Append a part; rows is -1 when unknown (mysqldump output)
+     */
+    public void addPart(String name, String table, long rows, String sha256, long size) {
+        int index = getPartCount();
+        values.setProperty("part." + index + ".name", name);
+        if (table != null) {
+            values.setProperty("part." + index + ".table", table);
+        }
+        values.setProperty("part." + index + ".rows", String.valueOf(rows));
+        values.setProperty("part." + index + ".sha256", sha256);
+        values.setProperty("part." + index + ".size", String.valueOf(size));
+        values.setProperty("parts", String.valueOf(index + 1));
+    }
+    
+    public int getPartCount() {
+        return Integer.parseInt(values.getProperty("parts", "0"));
+    }
+    
+    public String getPart(int index, String field) {
+        return values.getProperty("part." + index + "." + field);
+    }
+    
+    public void setTable(String table, String field, String value) {
+        values.setProperty("table." + table + "." + field, value);
+    }
+    
+    public String getTable(String table, String field) {
+        return values.getProperty("table." + table + "." + field);
+    }
+    
+    public Set<String> getTables() {
+        Set<String> tables = new TreeSet<>();
+        for (String key : values.stringPropertyNames()) {
+            if (key.startsWith("table.") && key.endsWith(".rows")) {
+                tables.add(key.substring(6, key.length() - 5));
+            }
+        }
+        return tables;
+    }
+    
+    /**
+     * Fingerprint of the live schema (tables, columns and their types)
+     */
+    public static String schemaVersion(Connection conn) throws SQLException {
+        String sql = "SELECT table_name, column_name, column_type FROM information_schema.columns " +
+                     "WHERE table_schema = DATABASE() ORDER BY table_name, ordinal_position";
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            while (rs.next()) {
+                digest.update((rs.getString(1) + "." + rs.getString(2) + " " + rs.getString(3) + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            }
+            return toHex(digest.digest()).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    /**
+     * Live CHECKSUM TABLE values for the given tables (null where unavailable)
+     */
+    public static List<String> tableChecksums(Connection conn, List<String> tables) throws SQLException {
+        List<String> checksums = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            for (String table : tables) {
+                try (ResultSet rs = stmt.executeQuery("CHECKSUM TABLE `" + table + "`")) {
+                    checksums.add(rs.next() ? rs.getString(2) : null);
+                }
+            }
+        }
+        return checksums;
+    }
+    
+    public static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,236 @@
+import java.io.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BackupThrottle - Rate limits for one backup run, backing off while kiosk scans slow down
+ * Features: MB/s cap on backup data, rows/s cap on database reads, adaptive backoff on
+ *           scan p95 latency, progress and throttle metrics
+ *
+ * Backup data is counted uncompressed (SQL produced, photo bytes copied, archive bytes
+ * verified), so the cap bounds the database read and the disk write together. Every
+ * second the last-minute scan p95 (ScanMetrics) is checked: above the target each rate
+ * is halved, down to 1/16 of where it started; once scans recover it grows back by 25%
+ * per second until it reaches the configured cap again (or the unthrottled rate).
+ */
+public class BackupThrottle {
+    
+    private static final long ADJUST_NANOS = 1_000_000_000L;
+    private static final long PROGRESS_NANOS = 10_000_000_000L;
+    private static final int MIN_SCAN_SAMPLES = 5;
+    
+    private static volatile BackupThrottle current;
+    
+    private final Limiter bytes;
+    private final Limiter rows;
+    private final long scanP95TargetMicros;
+    private final long startedNanos = System.nanoTime();
+    private final AtomicLong waitedNanos = new AtomicLong();
+    
+    private volatile String stage = "starting";
+    private volatile boolean backingOff = false;
+    private volatile long scanP95Micros = 0;
+    private volatile int backoffCount = 0;
+    private volatile long lastAdjustNanos = startedNanos;
+    private long lastProgressNanos = startedNanos;
+    
+    public BackupThrottle(ConfigManager config) {
+        this.bytes = new Limiter(config.getBackupThrottleMBPerSec() * 1024 * 1024);
+        this.rows = new Limiter(config.getBackupThrottleRowsPerSec());
+        this.scanP95TargetMicros = config.getBackupThrottleScanP95Millis() * 1000L;
+        current = this;
+    }
+    
+    /**
+     * Throttle of the running (or last) backup, null if none has run
+     */
+    public static BackupThrottle current() {
+        return current;
+    }
+    
+    public void setStage(String stage) {
+        this.stage = stage;
+    }
+    
+    public void acquireBytes(long count) {
+        pause(bytes.reserve(count, now()));
+    }
+    
+    public void acquireRows(long count) {
+        pause(rows.reserve(count, now()));
+    }
+    
+    /**
+     * Stream whose writes are paced by the MB/s limit
+     */
+    public OutputStream wrap(OutputStream out) {
+        return new FilterOutputStream(out) {
+            @Override
+            public void write(int b) throws IOException {
+                acquireBytes(1);
+                out.write(b);
+            }
+            
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                acquireBytes(len);
+                out.write(b, off, len);
+            }
+        };
+    }
+    
+    /**
+     * Stream whose reads are paced by the MB/s limit
+     */
+    public InputStream wrap(InputStream in) {
+        return new FilterInputStream(in) {
+            @Override
+            public int read() throws IOException {
+                int b = in.read();
+                if (b >= 0) acquireBytes(1);
+                return b;
+            }
+            
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                int n = in.read(b, off, len);
+                if (n > 0) acquireBytes(n);
+                return n;
+            }
+        };
+    }
+    
+    /**
+     * Backup progress and throttle state, for display or logging
+     */
+    public Map<String, String> getMetrics() {
+        double seconds = Math.max(0.001, (System.nanoTime() - startedNanos) / 1e9);
+        Map<String, String> metrics = new LinkedHashMap<>();
+        metrics.put("backup.stage", stage);
+        metrics.put("backup.elapsed.ms", String.valueOf((long) (seconds * 1000)));
+        metrics.put("backup.bytes", String.valueOf(bytes.total.get()));
+        metrics.put("backup.rows", String.valueOf(rows.total.get()));
+        metrics.put("backup.mb.per.sec", String.format("%.2f", bytes.total.get() / seconds / (1024 * 1024)));
+        metrics.put("backup.rows.per.sec", String.valueOf((long) (rows.total.get() / seconds)));
+        metrics.put("throttle.mb.per.sec", bytes.limit > 0 ? String.format("%.2f", bytes.limit / (1024 * 1024)) : "unlimited");
+        metrics.put("throttle.rows.per.sec", rows.limit > 0 ? String.valueOf((long) rows.limit) : "unlimited");
+        metrics.put("throttle.backing.off", String.valueOf(backingOff));
+        metrics.put("throttle.backoffs", String.valueOf(backoffCount));
+        metrics.put("throttle.waited.ms", String.valueOf(waitedNanos.get() / 1_000_000));
+        metrics.put("throttle.scan.p95.ms", String.format("%.1f", scanP95Micros / 1000.0));
+        return metrics;
+    }
+    
+    /**
+     * Mark the run finished and print its I/O summary
+     */
+    public void finish(boolean success) {
+        stage = success ? "done" : "failed";
+        Map<String, String> metrics = getMetrics();
+        System.out.println("✓ Backup I/O: " + (bytes.total.get() / 1024) + " KB, " + rows.total.get() + " rows in " +
+            metrics.get("backup.elapsed.ms") + " ms, " + metrics.get("throttle.waited.ms") + " ms throttled" +
+            (backoffCount > 0 ? ", backed off " + backoffCount + " time(s) for scan latency" : ""));
+    }
+    
+    private long now() {
+        long now = System.nanoTime();
+        if (now - lastAdjustNanos >= ADJUST_NANOS) {
+            adjust(now);
+        }
+        return now;
+    }
+    
+    /**
+     * Helper: Once a second, halve the rates while scans are slow and grow them back afterwards
+     */
+    private synchronized void adjust(long now) {
+        long elapsed = now - lastAdjustNanos;
+        if (elapsed < ADJUST_NANOS) return;
+        lastAdjustNanos = now;
+        
+        LatencyHistogram recent = ScanMetrics.getInstance().getRecentScans();
+        scanP95Micros = recent.getPercentileMicros(95);
+        boolean slow = scanP95TargetMicros > 0 && recent.getCount() >= MIN_SCAN_SAMPLES
+            && scanP95Micros > scanP95TargetMicros;
+        if (slow && !backingOff) {
+            backoffCount++;
+            System.out.println("⚠ Scan latency p95 " + (scanP95Micros / 1000) + " ms - slowing the backup down");
+        } else if (!slow && backingOff) {
+            System.out.println("✓ Scan latency back to normal - backup speeding up again");
+        }
+        backingOff = slow;
+        bytes.adjust(elapsed, slow);
+        rows.adjust(elapsed, slow);
+        
+        if (now - lastProgressNanos >= PROGRESS_NANOS) {
+            lastProgressNanos = now;
+            Map<String, String> metrics = getMetrics();
+            System.out.println("  Backup progress (" + stage + "): " + (bytes.total.get() / (1024 * 1024)) + " MB, " +
+                rows.total.get() + " rows, " + metrics.get("backup.mb.per.sec") + " MB/s, limit " +
+                metrics.get("throttle.mb.per.sec") + " MB/s / " + metrics.get("throttle.rows.per.sec") + " rows/s");
+        }
+    }
+    
+    private void pause(long nanos) {
+        if (nanos <= 0) return;
+        waitedNanos.addAndGet(nanos);
+        try {
+            Thread.sleep(nanos / 1_000_000, (int) (nanos % 1_000_000));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Pacing for one unit (bytes or rows): each reservation books its share of time
+     */
+    private static class Limiter {
+        private final double cap;             // units/sec, 0 = unlimited
+        private volatile double limit;        // current rate, 0 = unlimited
+        private double recoverTo;             // rate to grow back to after a backoff
+        private long nextFreeNanos;
+        private long windowUnits;
+        private final AtomicLong total = new AtomicLong();
+        
+        Limiter(double cap) {
+            this.cap = Math.max(0, cap);
+            this.limit = this.cap;
+        }
+        
+        /**
+         * Book count units; returns how long the caller must wait first
+         */
+        synchronized long reserve(long count, long now) {
+            total.addAndGet(count);
+            windowUnits += count;
+            if (limit <= 0) return 0;
+            if (nextFreeNanos < now) {
+                nextFreeNanos = now;
+            }
+            long wait = nextFreeNanos - now;
+            nextFreeNanos += (long) (count * 1e9 / limit);
+            return wait;
+        }
+        
+        synchronized void adjust(long elapsedNanos, boolean slow) {
+            double observed = windowUnits * 1e9 / elapsedNanos;
+            windowUnits = 0;
+            
+            if (slow) {
+                if (limit <= 0 && observed <= 0) return;   // Not in use right now
+                if (recoverTo <= 0) {
+                    recoverTo = cap > 0 ? cap : observed;
+                }
+                double base = limit > 0 ? limit : observed;
+                limit = Math.max(base / 2, recoverTo / 16);
+            } else if (recoverTo > 0) {
+                limit = limit * 1.25;
+                if (limit >= recoverTo) {
+                    limit = cap;                            // Back to the configured cap (0 = unlimited)
+                    recoverTo = 0;
+                }
+            }
+        }
+    }
+}
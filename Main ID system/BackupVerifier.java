@@ -0,0 +1,373 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * BackupVerifier - Checks a backup archive without restoring it
+ * Features: Single streaming pass, per-part SHA-256 and row counts against the manifest,
+ *           per-table totals, optional comparison with live row counts and table checksums
+ *
+ * Every part is decompressed and parsed with the restore's statement reader, so a
+ * backup that verifies is one the restore can read. Zip CRCs are checked by the
+ * zip reader on the way; gzip backups are split into parts using the sidecar manifest.
+ * A chunked backup is read as one stream, each chunk checked against its hash, so
+ * only its row totals are compared with the manifest.
+ */
+public class BackupVerifier {
+    
+    private ConfigManager config;
+    private BackupThrottle throttle;     // null = read at full speed
+    
+    public BackupVerifier() {
+        this(null);
+    }
+    
+    /**
+     * Verifier whose reads count against a running backup's throttle
+     */
+    public BackupVerifier(BackupThrottle throttle) {
+        this.config = ConfigManager.getInstance();
+        this.throttle = throttle;
+    }
+    
+    /**
+     * Verify one backup file; with live, also compare its tables against the database
+     */
+    public boolean verify(File backupFile, boolean live) {
+        System.out.println("\n=== Verifying " + backupFile.getName() + " ===");
+        long started = System.currentTimeMillis();
+        List<String> problems = new ArrayList<>();
+        List<PartResult> parts = new ArrayList<>();
+        int liveDifferences = 0;
+        
+        try {
+            String name = backupFile.getName();
+            boolean chunked = name.endsWith(ChunkStore.SUFFIX);
+            BackupManifest manifest = name.endsWith(".gz") ? readGzip(backupFile, parts)
+                : chunked ? readChunks(backupFile, parts)
+                : readZip(backupFile, parts);
+            
+            if (manifest == null) {
+                System.out.println("⚠ No manifest - checked only that the archive decompresses and parses");
+            } else if (!chunked) {
+                checkParts(manifest, parts, problems);
+            }
+            Map<String, Long> tableRows = countTables(parts);
+            if (manifest != null && !manifest.getTables().isEmpty()) {
+                checkTables(manifest, tableRows, problems);
+            }
+            File photoList = new File(backupFile.getPath() + PhotoBackup.SUFFIX);
+            if (photoList.exists()) {
+                problems.addAll(new PhotoBackup(backupFile.getAbsoluteFile().getParentFile()).verify(photoList));
+            }
+            
+            if (live && problems.isEmpty()) {
+                liveDifferences = compareLive(manifest, tableRows);
+            }
+        } catch (Exception e) {
+            // Includes zip CRC mismatches and truncated or corrupt compressed data
+            problems.add("Archive unreadable: " + e.getMessage());
+        }
+        
+        long rows = 0;
+        for (PartResult part : parts) {
+            rows += part.rows;
+        }
+        long millis = System.currentTimeMillis() - started;
+        boolean success = problems.isEmpty();
+        
+        if (success) {
+            System.out.println("✓ Backup verified: " + parts.size() + " part(s), " + rows + " rows (" + millis + " ms)");
+            if (liveDifferences > 0) {
+                System.out.println("⚠ " + liveDifferences + " table(s) differ from the live database (changed since the backup?)");
+            }
+        } else {
+            for (String problem : problems) {
+                System.out.println("  ❌ " + problem);
+            }
+            System.out.println("❌ Backup verification failed: " + backupFile.getName());
+        }
+        logVerify(backupFile, success, parts.size(), rows, millis, liveDifferences,
+            success ? null : problems.get(0));
+        return success;
+    }
+    
+    /**
+     * Helper: Scan every SQL entry of a zip backup; the manifest entry comes last
+     */
+    private BackupManifest readZip(File backupFile, List<PartResult> parts) throws Exception {
+        BackupManifest manifest = null;
+        try (ZipInputStream zis = new ZipInputStream(
+                new BufferedInputStream(new FileInputStream(backupFile), 64 * 1024))) {
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (BackupManifest.ENTRY_NAME.equals(name)) {
+                    manifest = BackupManifest.load(zis);
+                } else if (DatabaseRestore.isSqlEntry(name)) {
+                    // Entry streams end at the entry boundary; the zip stream is closed above
+                    parts.add(scanPart(name, name.endsWith(".gz") ? new GZIPInputStream(zis, 64 * 1024) : zis));
+                }
+            }
+        }
+        return manifest;
+    }
+    
+    /**
+     * Helper: Scan a gzip backup part by part, using the sizes in its sidecar manifest
+     */
+    private BackupManifest readGzip(File backupFile, List<PartResult> parts) throws Exception {
+        BackupManifest manifest = null;
+        File sidecar = new File(backupFile.getPath() + BackupManifest.SIDECAR_SUFFIX);
+        if (sidecar.exists()) {
+            try (InputStream in = new FileInputStream(sidecar)) {
+                manifest = BackupManifest.load(in);
+            }
+        }
+        
+        try (InputStream file = new BufferedInputStream(new FileInputStream(backupFile), 64 * 1024)) {
+            if (manifest == null) {
+                parts.add(scanPart(backupFile.getName(), new GZIPInputStream(file, 64 * 1024)));
+                return null;
+            }
+            
+            for (int i = 0; i < manifest.getPartCount(); i++) {
+                long size = Long.parseLong(manifest.getPart(i, "size"));
+                InputStream member = size < 0 ? file : new LimitedInputStream(file, size);
+                parts.add(scanPart(manifest.getPart(i, "name"), new GZIPInputStream(member, 64 * 1024)));
+            }
+            if (file.read() != -1) {
+                throw new IOException("data after the last part listed in the manifest");
+            }
+        }
+        return manifest;
+    }
+    
+    /**
+     * Helper: Scan a backup kept in the chunk store as a single stream
+     */
+    private BackupManifest readChunks(File backupFile, List<PartResult> parts) throws Exception {
+        try (InputStream sql = ChunkStore.open(backupFile)) {
+            parts.add(scanPart(backupFile.getName(), sql));
+        }
+        File sidecar = new File(backupFile.getPath() + BackupManifest.SIDECAR_SUFFIX);
+        if (!sidecar.exists()) {
+            return null;
+        }
+        try (InputStream in = new FileInputStream(sidecar)) {
+            return BackupManifest.load(in);
+        }
+    }
+    
+    /**
+     * Helper: Read one part to the end, hashing its SQL and counting the rows per table
+     */
+    private PartResult scanPart(String name, InputStream in) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        if (throttle != null) {
+            in = throttle.wrap(in);
+        }
+        DatabaseRestore.SqlStatementReader reader = new DatabaseRestore.SqlStatementReader(
+            new BufferedReader(new InputStreamReader(new DigestInputStream(in, digest), StandardCharsets.UTF_8), 64 * 1024));
+        
+        PartResult part = new PartResult(name);
+        DatabaseRestore.SqlStatement statement;
+        while ((statement = reader.next()) != null) {
+            if (statement.rows == 0) continue;
+            String table = DatabaseRestore.insertedTable(statement.sql);
+            if (table != null) {
+                part.tableRows.merge(table, (long) statement.rows, Long::sum);
+                part.rows += statement.rows;
+            }
+        }
+        part.sha256 = BackupManifest.toHex(digest.digest());
+        return part;
+    }
+    
+    private void checkParts(BackupManifest manifest, List<PartResult> parts, List<String> problems) {
+        if (manifest.getPartCount() != parts.size()) {
+            problems.add("Manifest lists " + manifest.getPartCount() + " part(s), archive has " + parts.size());
+            return;
+        }
+        for (int i = 0; i < parts.size(); i++) {
+            PartResult part = parts.get(i);
+            if (!part.name.equals(manifest.getPart(i, "name"))) {
+                problems.add("Part " + i + " is " + part.name + ", manifest expects " + manifest.getPart(i, "name"));
+            } else if (!part.sha256.equals(manifest.getPart(i, "sha256"))) {
+                problems.add("Checksum mismatch in " + part.name);
+            } else {
+                long expected = Long.parseLong(manifest.getPart(i, "rows"));
+                if (expected >= 0 && expected != part.rows) {
+                    problems.add(part.name + " has " + part.rows + " rows, manifest expects " + expected);
+                }
+            }
+        }
+    }
+    
+    private void checkTables(BackupManifest manifest, Map<String, Long> tableRows, List<String> problems) {
+        Set<String> tables = new TreeSet<>(manifest.getTables());
+        tables.addAll(tableRows.keySet());
+        for (String table : tables) {
+            String expected = manifest.getTable(table, "rows");
+            long actual = tableRows.getOrDefault(table, 0L);
+            if (expected == null || Long.parseLong(expected) != actual) {
+                problems.add("Table " + table + " has " + actual + " rows in the archive, manifest expects " +
+                    (expected != null ? expected : "none"));
+            }
+        }
+    }
+    
+    /**
+     * Compare a full backup's tables with the live database. Differences are reported,
+     * not failed: the live tables keep changing after the backup is taken.
+     * Returns the number of tables that differ.
+     */
+    private int compareLive(BackupManifest manifest, Map<String, Long> tableRows) throws SQLException {
+        if (manifest != null && "incremental".equals(manifest.get("type"))) {
+            System.out.println("⚠ Live comparison skipped: an incremental backup holds changed rows only");
+            return 0;
+        }
+        
+        Set<String> tables = new TreeSet<>(tableRows.keySet());
+        if (manifest != null) {
+            tables.addAll(manifest.getTables());
+        }
+        
+        int differences = 0;
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                config.getDatabaseUser(),
+                config.getDatabasePassword());
+             Statement stmt = conn.createStatement()) {
+            
+            String schemaVersion = BackupManifest.schemaVersion(conn);
+            if (manifest != null && manifest.get("schema.version") != null
+                    && !schemaVersion.equals(manifest.get("schema.version"))) {
+                System.out.println("⚠ Live schema differs from the backup (" + manifest.get("schema.version") +
+                    " -> " + schemaVersion + ")");
+            }
+            
+            List<String> names = new ArrayList<>(tables);
+            List<String> checksums = BackupManifest.tableChecksums(conn, names);
+            for (int i = 0; i < names.size(); i++) {
+                String table = names.get(i);
+                long backupRows = tableRows.getOrDefault(table, 0L);
+                long liveRows;
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM `" + table + "`")) {
+                    rs.next();
+                    liveRows = rs.getLong(1);
+                }
+                String backupChecksum = manifest != null ? manifest.getTable(table, "checksum") : null;
+                
+                if (liveRows != backupRows) {
+                    System.out.println("  ⚠ " + table + ": " + liveRows + " live rows, " + backupRows + " in backup");
+                    differences++;
+                } else if (backupChecksum != null && !backupChecksum.equals(checksums.get(i))) {
+                    System.out.println("  ⚠ " + table + ": live checksum differs");
+                    differences++;
+                }
+            }
+        }
+        System.out.println("✓ Compared " + tables.size() + " table(s) with the live database");
+        return differences;
+    }
+    
+    private static Map<String, Long> countTables(List<PartResult> parts) {
+        Map<String, Long> tableRows = new TreeMap<>();
+        for (PartResult part : parts) {
+            for (Map.Entry<String, Long> entry : part.tableRows.entrySet()) {
+                tableRows.merge(entry.getKey(), entry.getValue(), Long::sum);
+            }
+        }
+        return tableRows;
+    }
+    
+    /**
+     * Log verification to database
+     */
+    private void logVerify(File backupFile, boolean success, int parts, long rows, long millis,
+                           int liveDifferences, String error) {
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                config.getDatabaseUser(),
+                config.getDatabasePassword())) {
+            
+            String sql = "INSERT INTO audit_logs (user_id, action, details) VALUES (NULL, ?, ?)";
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            stmt.setString(1, "BACKUP_VERIFY");
+            stmt.setString(2, String.format("File: %s, Success: %s, Parts: %d, Rows: %d, Time: %d ms%s%s",
+                backupFile.getName(), success, parts, rows, millis,
+                liveDifferences > 0 ? ", Live differences: " + liveDifferences : "",
+                error != null ? ", Error: " + error : ""));
+            stmt.executeUpdate();
+            stmt.close();
+        
+        } catch (SQLException e) {
+            // Don't throw exception, just log to console
+            System.err.println("⚠ Could not log verification to database: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * What one part actually contains
+     */
+    private static class PartResult {
+        private final String name;
+        private final Map<String, Long> tableRows = new TreeMap<>();
+        private long rows;
+        private String sha256;
+        
+        PartResult(String name) {
+            this.name = name;
+        }
+    }
+    
+    /**
+     * Reads at most a fixed number of bytes (one gzip member) from the shared file stream
+     */
+    private static class LimitedInputStream extends FilterInputStream {
+        private long remaining;
+        
+        LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.remaining = limit;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) return -1;
+            int b = in.read();
+            if (b >= 0) remaining--;
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) return -1;
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) remaining -= n;
+            return n;
+        }
+        
+        @Override
+        public int available() throws IOException {
+            return (int) Math.min(in.available(), remaining);
+        }
+        
+        @Override
+        public void close() {
+            // The file stream is shared by every part
+        }
+    }
+}
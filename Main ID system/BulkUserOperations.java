@@ -0,0 +1,214 @@
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * BulkUserOperations - Set-based changes for many users at once
+ * Features: Bulk status/class updates, bulk delete, single audit record per operation
+ */
+public class BulkUserOperations {
+    
+    private Connection conn;
+    private static final int BATCH_SIZE = 500; // Max user IDs per IN (...) list
+    
+    public BulkUserOperations(Connection conn) {
+        this.conn = conn;
+    }
+    
+    /**
+     * Apply status and/or class changes to all given users in one transaction.
+     * Null or empty values mean "leave unchanged".
+     */
+    public int applyChanges(List<Integer> userIds, String status, String grade,
+                            String section, String classType) throws SQLException {
+        if (userIds.isEmpty()) return 0;
+        
+        List<String> studentColumns = new ArrayList<>();
+        List<String> studentValues = new ArrayList<>();
+        if (!isBlank(grade)) { studentColumns.add("grade = ?"); studentValues.add(grade); }
+        if (!isBlank(section)) { studentColumns.add("section = ?"); studentValues.add(section); }
+        if (!isBlank(classType)) { studentColumns.add("class_type = ?"); studentValues.add(classType); }
+        
+        if (isBlank(status) && studentColumns.isEmpty()) return 0;
+        
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            suppressRowAudit(true);
+            
+            int updated = 0;
+            for (List<Integer> batch : partition(userIds)) {
+                // A user touched by both updates counts once
+                int userRows = 0;
+                int studentRows = 0;
+                if (!isBlank(status)) {
+                    String sql = "UPDATE users SET status = ? WHERE user_id IN (" + placeholders(batch.size()) + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        stmt.setString(1, status);
+                        bindIds(stmt, 2, batch);
+                        userRows = stmt.executeUpdate();
+                    }
+                }
+                
+                if (!studentColumns.isEmpty()) {
+                    // Only students carry grade/section/class_type; teachers in the selection are skipped
+                    String sql = "UPDATE students SET " + String.join(", ", studentColumns) +
+                                 " WHERE user_id IN (" + placeholders(batch.size()) + ")";
+                    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                        int index = 1;
+                        for (String value : studentValues) {
+                            stmt.setString(index++, value);
+                        }
+                        bindIds(stmt, index, batch);
+                        studentRows = stmt.executeUpdate();
+                    }
+                }
+                updated += Math.max(userRows, studentRows);
+            }
+            
+            StringBuilder details = new StringBuilder();
+            details.append("Bulk update of ").append(updated).append(" user(s):");
+            if (!isBlank(status)) details.append(" status=").append(status);
+            if (!isBlank(grade)) details.append(" grade=").append(grade);
+            if (!isBlank(section)) details.append(" section=").append(section);
+            if (!isBlank(classType)) details.append(" class_type=").append(classType);
+            details.append(" (IDs: ").append(summarizeIds(userIds)).append(")");
+            writeAuditRecord("BULK_USER_UPDATE", details.toString());
+            
+            conn.commit();
+            ReportCache.getInstance().invalidateAll();
+            AttendanceCube.getInstance().rosterChanged();
+            return updated;
+        
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            resetRowAudit();
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Set status for all given users (e.g. deactivate a graduating class)
+     */
+    public int setStatus(List<Integer> userIds, String status) throws SQLException {
+        return applyChanges(userIds, status, null, null, null);
+    }
+    
+    /**
+     * Permanently delete all given users in one transaction
+     */
+    public int deleteUsers(List<Integer> userIds) throws SQLException {
+        if (userIds.isEmpty()) return 0;
+        
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            suppressRowAudit(true);
+            
+            int deleted = 0;
+            for (List<Integer> batch : partition(userIds)) {
+                String sql = "DELETE FROM users WHERE user_id IN (" + placeholders(batch.size()) + ")";
+                try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                    bindIds(stmt, 1, batch);
+                    deleted += stmt.executeUpdate();
+                }
+            }
+            
+            writeAuditRecord("BULK_USER_DELETE",
+                "Bulk delete of " + deleted + " user(s) (IDs: " + summarizeIds(userIds) + ")");
+            
+            conn.commit();
+            ReportCache.getInstance().invalidateAll();
+            AttendanceCube.getInstance().rosterChanged();
+            return deleted;
+        
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            resetRowAudit();
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Tell the per-row audit triggers (see database_enhancement.sql) to stay quiet
+     * for this session; the bulk operation writes one summary record instead.
+     */
+    private void suppressRowAudit(boolean suppress) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(suppress ? "SET @audit_suppress = 1" : "SET @audit_suppress = NULL");
+        }
+    }
+    
+    /**
+     * Helper: Turn the row audit back on from a finally block; a failure here (e.g. the
+     * connection already broke) is logged so it does not hide the original exception
+     */
+    private void resetRowAudit() {
+        try {
+            suppressRowAudit(false);
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not re-enable row audit for this session: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Write the summarized audit record (audit_logs may not exist on older schemas)
+     */
+    private void writeAuditRecord(String action, String details) {
+        String sql = "INSERT INTO audit_logs (user_id, action, details) VALUES (NULL, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, action);
+            stmt.setString(2, details);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not write bulk audit record: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Helper: Split IDs into IN-list sized batches
+     */
+    private List<List<Integer>> partition(List<Integer> userIds) {
+        List<List<Integer>> batches = new ArrayList<>();
+        for (int i = 0; i < userIds.size(); i += BATCH_SIZE) {
+            batches.add(userIds.subList(i, Math.min(i + BATCH_SIZE, userIds.size())));
+        }
+        return batches;
+    }
+    
+    private String placeholders(int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append("?");
+        }
+        return sb.toString();
+    }
+    
+    private void bindIds(PreparedStatement stmt, int startIndex, List<Integer> ids) throws SQLException {
+        for (int i = 0; i < ids.size(); i++) {
+            stmt.setInt(startIndex + i, ids.get(i));
+        }
+    }
+    
+    private String summarizeIds(List<Integer> userIds) {
+        int shown = Math.min(userIds.size(), 20);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) sb.append(",");
+            sb.append(userIds.get(i));
+        }
+        if (userIds.size() > shown) {
+            sb.append(",... +").append(userIds.size() - shown).append(" more");
+        }
+        return sb.toString();
+    }
+    
+    private boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+}
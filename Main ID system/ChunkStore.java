@@ -0,0 +1,311 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ChunkStore - Deduplicated backup storage (backups/chunks)
+ * Features: Content-defined chunking, one compressed file per distinct chunk, chunk lists
+ *           per backup, hash-checked reads, reference-counted garbage collection
+ *
+ * A backup is stored as a list file (<backup>.sql.chunks) naming the SHA-256 and
+ * length of each chunk of its uncompressed SQL. Chunk boundaries are chosen by a
+ * rolling hash over the content, so rows inserted or changed in one table only
+ * change the chunks around them; the rest of the dump maps to chunks already on
+ * disk. Each distinct chunk is kept once, gzip-compressed, under chunks/<2 hex>/.
+ */
+public class ChunkStore {
+    
+    public static final String SUFFIX = ".chunks";
+    public static final String CHUNK_DIR = "chunks";
+    
+    private static final int MIN_CHUNK = 16 * 1024;
+    private static final int MAX_CHUNK = 256 * 1024;
+    private static final long CUT_MASK = 0xFFFFL << 48;   // 16 bits -> ~64 KB average past the minimum
+    private static final long GC_GRACE_MILLIS = 24L * 60L * 60L * 1000L;
+    
+    // Gear table for the rolling hash. Fixed seed: changing it moves every chunk boundary
+    // and so stops new backups from sharing chunks with the ones already stored.
+    private static final long[] GEAR = new long[256];
+    
+    static {
+        Random random = new Random(0x5EEDC0DEL);
+        for (int i = 0; i < GEAR.length; i++) {
+            GEAR[i] = random.nextLong();
+        }
+    }
+    
+    private ChunkStore() {
+    }
+    
+    /**
+     * Stream a backup into the store; the chunk list is written to listOut, which is closed on close()
+     */
+    public static Writer create(File backupDir, OutputStream listOut, int compressionLevel) {
+        return new Writer(new File(backupDir, CHUNK_DIR), listOut, compressionLevel);
+    }
+    
+    /**
+     * Read a stored backup back as one SQL stream, checking every chunk against its hash
+     */
+    public static InputStream open(File listFile) throws IOException {
+        return new Reader(new File(listFile.getAbsoluteFile().getParentFile(), CHUNK_DIR),
+            new BufferedReader(new InputStreamReader(new FileInputStream(listFile), StandardCharsets.UTF_8)));
+    }
+    
+    /**
+     * Delete chunks no chunk list refers to any more. Lists still being written
+     * (.chunks.tmp) count as references, and chunks younger than a day are kept in
+     * case they belong to a backup that has not written its list yet.
+     */
+    public static void collectGarbage(File backupDir) {
+        File chunkDir = new File(backupDir, CHUNK_DIR);
+        if (!chunkDir.isDirectory()) return;
+        
+        Map<String, Integer> references = new HashMap<>();
+        long logicalBytes = 0;
+        File[] lists = backupDir.listFiles((dir, name) -> name.endsWith(SUFFIX) || name.endsWith(SUFFIX + ".tmp"));
+        if (lists == null) return;
+        for (File list : lists) {
+            try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                    new FileInputStream(list), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = in.readLine()) != null) {
+                    if (line.isEmpty() || line.startsWith("#")) continue;
+                    String[] fields = line.split(" ");
+                    references.merge(fields[0], 1, Integer::sum);
+                    logicalBytes += Long.parseLong(fields[1]);
+                }
+            } catch (IOException | RuntimeException e) {
+                // A list we cannot read may still reference anything - sweep nothing
+                System.err.println("⚠ Chunk GC skipped, unreadable chunk list " + list.getName() + ": " + e.getMessage());
+                return;
+            }
+        }
+        
+        long cutoff = System.currentTimeMillis() - GC_GRACE_MILLIS;
+        int deleted = 0;
+        int kept = 0;
+        long freedBytes = 0;
+        long storedBytes = 0;
+        File[] shards = chunkDir.listFiles(File::isDirectory);
+        for (File shard : shards != null ? shards : new File[0]) {
+            File[] chunks = shard.listFiles();
+            for (File chunk : chunks != null ? chunks : new File[0]) {
+                String hash = chunk.getName().replaceFirst("\\.gz$", "");
+                long size = chunk.length();
+                if (!references.containsKey(hash) && chunk.lastModified() < cutoff && chunk.delete()) {
+                    deleted++;
+                    freedBytes += size;
+                } else {
+                    kept++;
+                    storedBytes += size;
+                }
+            }
+        }
+        
+        if (deleted > 0) {
+            System.out.println("✓ Chunk GC removed " + deleted + " unreferenced chunk(s), " + (freedBytes / 1024) + " KB freed");
+        }
+        System.out.println("✓ Chunk store: " + kept + " chunk(s), " + (storedBytes / 1024) + " KB on disk for " +
+            lists.length + " backup(s) totalling " + (logicalBytes / 1024) + " KB of SQL");
+    }
+    
+    static String sha256(byte[] data, int length) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(data, 0, length);
+            return BackupManifest.toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static File chunkFile(File chunkDir, String hash) {
+        return new File(new File(chunkDir, hash.substring(0, 2)), hash + ".gz");
+    }
+    
+    /**
+     * Cuts the written bytes into content-defined chunks, stores the new ones and lists them all
+     */
+    public static class Writer extends OutputStream {
+        private final File chunkDir;
+        private final PrintWriter list;
+        private final int compressionLevel;
+        private final byte[] buffer = new byte[MAX_CHUNK];
+        private int length = 0;
+        private long hash = 0;
+        
+        private int chunkCount = 0;
+        private int newChunks = 0;
+        private long newBytes = 0;
+        
+        Writer(File chunkDir, OutputStream listOut, int compressionLevel) {
+            this.chunkDir = chunkDir;
+            this.compressionLevel = compressionLevel;
+            this.list = new PrintWriter(new OutputStreamWriter(listOut, StandardCharsets.UTF_8));
+            list.println("# RFID Attendance System backup - SHA-256 and length of each chunk, in order");
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            buffer[length++] = (byte) b;
+            hash = (hash << 1) + GEAR[b & 0xFF];
+            if ((length >= MIN_CHUNK && (hash & CUT_MASK) == 0) || length == MAX_CHUNK) {
+                cut();
+            }
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            for (int i = off; i < off + len; i++) {
+                buffer[length++] = b[i];
+                hash = (hash << 1) + GEAR[b[i] & 0xFF];
+                if ((length >= MIN_CHUNK && (hash & CUT_MASK) == 0) || length == MAX_CHUNK) {
+                    cut();
+                }
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (length > 0) {
+                cut();
+            }
+            list.close();
+            if (list.checkError()) {
+                throw new IOException("Write to chunk list failed");
+            }
+            System.out.println("✓ Chunk store: " + chunkCount + " chunk(s), " + newChunks + " new (" +
+                (newBytes / 1024) + " KB written)");
+        }
+        
+        private void cut() throws IOException {
+            String chunkHash = sha256(buffer, length);
+            File file = chunkFile(chunkDir, chunkHash);
+            if (file.exists()) {
+                // Already stored - refresh it so a concurrent GC leaves it alone
+                file.setLastModified(System.currentTimeMillis());
+            } else {
+                storeChunk(file);
+            }
+            list.println(chunkHash + " " + length);
+            chunkCount++;
+            length = 0;
+            hash = 0;
+        }
+        
+        private void storeChunk(File file) throws IOException {
+            file.getParentFile().mkdirs();
+            File temp = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            try {
+                try (OutputStream out = new GZIPOutputStream(new FileOutputStream(temp), 64 * 1024) {
+                    {
+                        def.setLevel(compressionLevel);
+                    }
+                }) {
+                    out.write(buffer, 0, length);
+                }
+                try {
+                    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                temp.delete();
+            }
+            newChunks++;
+            newBytes += file.length();
+        }
+    }
+    
+    /**
+     * Concatenation of the listed chunks, opened one at a time
+     */
+    private static class Reader extends InputStream {
+        private final File chunkDir;
+        private final BufferedReader list;
+        private InputStream current;
+        private MessageDigest digest;
+        private String expectedHash;
+        private long expectedLength;
+        private long readLength;
+        
+        Reader(File chunkDir, BufferedReader list) {
+            this.chunkDir = chunkDir;
+            this.list = list;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xFF;
+        }
+        
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) return 0;
+            while (true) {
+                if (current == null && !nextChunk()) {
+                    return -1;
+                }
+                int n = current.read(b, off, len);
+                if (n > 0) {
+                    readLength += n;
+                    return n;
+                }
+                finishChunk();
+            }
+        }
+        
+        @Override
+        public void close() throws IOException {
+            if (current != null) {
+                current.close();
+            }
+            list.close();
+        }
+        
+        private boolean nextChunk() throws IOException {
+            String line;
+            do {
+                line = list.readLine();
+                if (line == null) return false;
+            } while (line.isEmpty() || line.startsWith("#"));
+            
+            String[] fields = line.split(" ");
+            expectedHash = fields[0];
+            expectedLength = Long.parseLong(fields[1]);
+            readLength = 0;
+            File file = chunkFile(chunkDir, expectedHash);
+            if (!file.exists()) {
+                throw new FileNotFoundException("Missing backup chunk " + expectedHash);
+            }
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+            current = new DigestInputStream(new GZIPInputStream(new FileInputStream(file), 64 * 1024), digest);
+            return true;
+        }
+        
+        private void finishChunk() throws IOException {
+            current.close();
+            current = null;
+            if (readLength != expectedLength || !BackupManifest.toHex(digest.digest()).equals(expectedHash)) {
+                throw new IOException("Corrupt backup chunk " + expectedHash);
+            }
+        }
+    }
+}
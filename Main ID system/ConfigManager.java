@@ -1,5 +1,20 @@
 import java.io.*;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import javax.crypto.Cipher;
 import javax.crypto.spec.SecretKeySpec;
 import java.util.Base64;
@@ -7,216 +22,445 @@ import java.util.Base64;
 /**
  * ConfigManager - Handles all system configuration
  * Replaces hardcoded values with configurable properties
+ *
+ * Settings are compiled into an immutable, typed Snapshot published through an
+ * atomic reference, so a getter is a field read and never sees a half-applied
+ * reload. Edits to config.properties are picked up by a file watcher, which swaps
+ * in a new snapshot and notifies the change listeners. Settings shared through the
+ * system_settings table (see SystemSettings) are layered over the file.
  */
 public class ConfigManager {
     
-    private static ConfigManager instance;
-    private Properties properties;
     private static final String CONFIG_FILE = "config.properties";
     private static final String ENCRYPTION_KEY = "RFIDSys2024Key!!"; // 16 chars for AES
+    private static final long RELOAD_SETTLE_MILLIS = 200;           // let editors finish writing
+    
+    private final Object writeLock = new Object();
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+    private final List<Consumer<Snapshot>> listeners = new CopyOnWriteArrayList<>();
+    private Properties properties;      // file contents; replaced, never modified while published
+    private Map<String, String> shared = Collections.emptyMap();    // system_settings, wins over the file
     
     private ConfigManager() {
         properties = new Properties();
         loadConfiguration();
+        startFileWatcher();
+    }
+    
+    private static class Holder {
+        static final ConfigManager INSTANCE = new ConfigManager();
     }
     
     public static ConfigManager getInstance() {
-        if (instance == null) {
-            instance = new ConfigManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
     
     private void loadConfiguration() {
         try (InputStream input = new FileInputStream(CONFIG_FILE)) {
-            properties.load(input);
+            Properties loaded = new Properties();
+            loaded.load(input);
+            synchronized (writeLock) {
+                properties = loaded;
+                publish();
+            }
             System.out.println("✓ Configuration loaded successfully from " + CONFIG_FILE);
         } catch (FileNotFoundException e) {
+            if (snapshot.get() != null) {
+                // Mid-save by an editor, or removed - keep running on the current settings
+                System.err.println("⚠ Configuration file not found, keeping current settings");
+                return;
+            }
             System.err.println("⚠ Configuration file not found. Creating default config...");
             createDefaultConfig();
         } catch (IOException e) {
             System.err.println("❌ Error loading configuration: " + e.getMessage());
-            createDefaultConfig();
+            if (snapshot.get() == null) {
+                createDefaultConfig();
+            }
         }
     }
     
     private void createDefaultConfig() {
-        // Set default values
-        properties.setProperty("db.host", "localhost");
-        properties.setProperty("db.port", "3306");
-        properties.setProperty("db.name", "rfid_attendance");
-        properties.setProperty("db.user", "root");
-        properties.setProperty("db.password", "");
-        
-        properties.setProperty("email.enabled", "true");
-        properties.setProperty("email.smtp.host", "smtp.gmail.com");
-        properties.setProperty("email.smtp.port", "587");
-        properties.setProperty("email.from", "");
-        properties.setProperty("email.password", "");
-        
-        properties.setProperty("admin.default.uid", "0009269290");
-        properties.setProperty("attendance.late.threshold.minutes", "15");
-        
-        properties.setProperty("system.theme", "modern");
-        properties.setProperty("system.dark.mode", "false");
-        
-        saveConfiguration();
+        synchronized (writeLock) {
+            // Set default values
+            properties = new Properties();
+            properties.setProperty("db.host", "localhost");
+            properties.setProperty("db.port", "3306");
+            properties.setProperty("db.name", "rfid_attendance");
+            properties.setProperty("db.user", "root");
+            properties.setProperty("db.password", "");
+            
+            properties.setProperty("email.enabled", "true");
+            properties.setProperty("email.smtp.host", "smtp.gmail.com");
+            properties.setProperty("email.smtp.port", "587");
+            properties.setProperty("email.from", "");
+            properties.setProperty("email.password", "");
+            
+            properties.setProperty("admin.default.uid", "0009269290");
+            properties.setProperty("attendance.late.threshold.minutes", "15");
+            
+            properties.setProperty("system.theme", "modern");
+            properties.setProperty("system.dark.mode", "false");
+            
+            publish();
+            saveConfiguration();
+        }
     }
     
     public void saveConfiguration() {
-        try (OutputStream output = new FileOutputStream(CONFIG_FILE)) {
-            properties.store(output, "RFID Attendance System Configuration");
-            System.out.println("✓ Configuration saved successfully");
+        synchronized (writeLock) {
+            try (OutputStream output = new FileOutputStream(CONFIG_FILE)) {
+                properties.store(output, "RFID Attendance System Configuration");
+                System.out.println("✓ Configuration saved successfully");
+            } catch (IOException e) {
+                System.err.println("❌ Error saving configuration: " + e.getMessage());
+            }
+        }
+    }
+    
+    /**
+     * Helper: Change one setting - copy, modify, publish, save. A setting that comes
+     * from system_settings is changed there, for every kiosk.
+     */
+    private void update(String key, String value) {
+        synchronized (writeLock) {
+            if (shared.containsKey(key)) {
+                if (SystemSettings.save(key, value)) {
+                    Map<String, String> updated = new HashMap<>(shared);
+                    updated.put(key, value);
+                    shared = Collections.unmodifiableMap(updated);
+                    publish();
+                }
+                return;
+            }
+            Properties updated = new Properties();
+            updated.putAll(properties);
+            updated.setProperty(key, value);
+            properties = updated;
+            publish();
+            saveConfiguration();
+        }
+    }
+    
+    /**
+     * Replace the shared layer (called by SystemSettings when the table changed).
+     * Each newly overridden config.properties value is logged once.
+     */
+    void setSharedSettings(Map<String, String> values) {
+        synchronized (writeLock) {
+            for (Map.Entry<String, String> e : values.entrySet()) {
+                String fileValue = properties.getProperty(e.getKey());
+                if (fileValue != null && !fileValue.trim().equals(e.getValue())
+                        && !e.getValue().equals(shared.get(e.getKey()))) {
+                    System.out.println("Note: system_settings overrides config.properties: " + e.getKey() +
+                        " = " + e.getValue() + " (file has " + fileValue.trim() + ")");
+                }
+            }
+            shared = Collections.unmodifiableMap(new HashMap<>(values));
+            publish();
+        }
+    }
+    
+    /**
+     * Helper: Compile file and shared settings and swap the snapshot in; listeners
+     * hear about it only when a value actually changed (not for our own saves)
+     */
+    private void publish() {
+        Properties merged = new Properties();
+        merged.putAll(properties);
+        merged.putAll(shared);
+        Snapshot next = new Snapshot(merged);
+        Snapshot previous = snapshot.getAndSet(next);
+        if (previous != null && !previous.values.equals(next.values)) {
+            for (Consumer<Snapshot> listener : listeners) {
+                try {
+                    listener.accept(next);
+                } catch (RuntimeException e) {
+                    System.err.println("⚠ Configuration listener failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Current configuration as one consistent set of values
+     */
+    public Snapshot getSnapshot() {
+        return snapshot.get();
+    }
+    
+    /**
+     * Be told about every new snapshot (file edits, reloads, setters)
+     */
+    public void addChangeListener(Consumer<Snapshot> listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(Consumer<Snapshot> listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Helper: Daemon thread reloading config.properties whenever it is written or replaced
+     */
+    private void startFileWatcher() {
+        Path file = Paths.get(CONFIG_FILE).toAbsolutePath();
+        WatchService watcher;
+        try {
+            watcher = FileSystems.getDefault().newWatchService();
+            file.getParent().register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
         } catch (IOException e) {
-            System.err.println("❌ Error saving configuration: " + e.getMessage());
+            System.err.println("⚠ Configuration hot reload unavailable: " + e.getMessage());
+            return;
+        }
+        
+        Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    WatchKey key = watcher.take();
+                    boolean changed = touchesConfig(key, file);
+                    if (!key.reset()) {
+                        System.err.println("⚠ Configuration directory no longer watched");
+                        return;
+                    }
+                    if (changed) {
+                        // Editors may write in several steps; wait for them to settle
+                        Thread.sleep(RELOAD_SETTLE_MILLIS);
+                        WatchKey more;
+                        while ((more = watcher.poll(RELOAD_SETTLE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                            more.pollEvents();
+                            more.reset();
+                        }
+                        reload();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "config-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    private static boolean touchesConfig(WatchKey key, Path file) {
+        boolean changed = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || file.getFileName().equals(event.context())) {
+                changed = true;
+            }
         }
+        return changed;
     }
     
     // Database Configuration
     public String getDatabaseUrl() {
-        String host = properties.getProperty("db.host", "localhost");
-        String port = properties.getProperty("db.port", "3306");
-        String name = properties.getProperty("db.name", "rfid_attendance");
-        return String.format("jdbc:mysql://%s:%s/%s", host, port, name);
+        return snapshot.get().databaseUrl;
     }
     
     public String getDatabaseUser() {
-        return properties.getProperty("db.user", "root");
+        return snapshot.get().databaseUser;
     }
     
     public String getDatabasePassword() {
-        String encrypted = properties.getProperty("db.password", "");
-        return encrypted.isEmpty() ? "" : decrypt(encrypted);
+        return decrypt(snapshot.get().databasePassword);
     }
     
     public void setDatabasePassword(String password) {
-        properties.setProperty("db.password", encrypt(password));
-        saveConfiguration();
+        update("db.password", encrypt(password));
     }
     
     // Email Configuration
     public boolean isEmailEnabled() {
-        return Boolean.parseBoolean(properties.getProperty("email.enabled", "false"));
+        return snapshot.get().emailEnabled;
     }
     
     public String getEmailSmtpHost() {
-        return properties.getProperty("email.smtp.host", "smtp.gmail.com");
+        return snapshot.get().emailSmtpHost;
     }
     
     public int getEmailSmtpPort() {
-        return Integer.parseInt(properties.getProperty("email.smtp.port", "587"));
+        return snapshot.get().emailSmtpPort;
     }
     
     public String getEmailFrom() {
-        return properties.getProperty("email.from", "");
+        return snapshot.get().emailFrom;
     }
     
     public String getEmailPassword() {
-        String encrypted = properties.getProperty("email.password", "");
-        return encrypted.isEmpty() ? "" : decrypt(encrypted);
+        return decrypt(snapshot.get().emailPassword);
     }
     
     public void setEmailPassword(String password) {
-        properties.setProperty("email.password", encrypt(password));
-        saveConfiguration();
+        update("email.password", encrypt(password));
     }
     
     // Admin Configuration
     public String getAdminDefaultUid() {
-        return properties.getProperty("admin.default.uid", "0009269290");
+        return snapshot.get().adminDefaultUid;
     }
     
     public int getAdminSessionTimeout() {
-        return Integer.parseInt(properties.getProperty("admin.session.timeout", "30"));
+        return snapshot.get().adminSessionTimeout;
     }
     
     // Attendance Rules
     public int getLateThresholdMinutes() {
-        return Integer.parseInt(properties.getProperty("attendance.late.threshold.minutes", "15"));
+        return snapshot.get().lateThresholdMinutes;
     }
     
     public int getEarlyDepartureThresholdMinutes() {
-        return Integer.parseInt(properties.getProperty("attendance.early.departure.threshold.minutes", "30"));
+        return snapshot.get().earlyDepartureThresholdMinutes;
     }
     
     public int getGracePeriodMinutes() {
-        return Integer.parseInt(properties.getProperty("attendance.grace.period.minutes", "5"));
+        return snapshot.get().gracePeriodMinutes;
     }
     
     // System Settings
     public String getSystemTheme() {
-        return properties.getProperty("system.theme", "modern");
+        return snapshot.get().systemTheme;
     }
     
     public boolean isDarkMode() {
-        return Boolean.parseBoolean(properties.getProperty("system.dark.mode", "false"));
+        return snapshot.get().darkMode;
     }
     
     public void setDarkMode(boolean enabled) {
-        properties.setProperty("system.dark.mode", String.valueOf(enabled));
-        saveConfiguration();
+        update("system.dark.mode", String.valueOf(enabled));
     }
     
     public boolean isAutoBackupEnabled() {
-        return Boolean.parseBoolean(properties.getProperty("system.auto.backup", "true"));
+        return snapshot.get().autoBackupEnabled;
     }
     
     public String getBackupTime() {
-        return properties.getProperty("system.backup.time", "02:00");
+        return snapshot.get().backupTime;
+    }
+    
+    public String getBackupCompression() {
+        return snapshot.get().backupCompression;
+    }
+    
+    public int getBackupCompressionLevel() {
+        return snapshot.get().backupCompressionLevel;
+    }
+    
+    public int getBackupCompressionThreads() {
+        return snapshot.get().backupCompressionThreads;
+    }
+    
+    public int getBackupCompressionBlockKB() {
+        return snapshot.get().backupCompressionBlockKB;
+    }
+    
+    public boolean isIncrementalBackupEnabled() {
+        return snapshot.get().incrementalBackupEnabled;
+    }
+    
+    public int getBackupFullIntervalDays() {
+        return snapshot.get().backupFullIntervalDays;
+    }
+    
+    public boolean isBackupVerifyEnabled() {
+        return snapshot.get().backupVerifyEnabled;
+    }
+    
+    public boolean isBackupVerifyLiveEnabled() {
+        return snapshot.get().backupVerifyLiveEnabled;
+    }
+    
+    public boolean isPhotoBackupEnabled() {
+        return snapshot.get().photoBackupEnabled;
+    }
+    
+    public double getBackupThrottleMBPerSec() {
+        return snapshot.get().backupThrottleMBPerSec;
+    }
+    
+    public int getBackupThrottleRowsPerSec() {
+        return snapshot.get().backupThrottleRowsPerSec;
+    }
+    
+    public int getBackupThrottleScanP95Millis() {
+        return snapshot.get().backupThrottleScanP95Millis;
+    }
+    
+    public int getBackupWorkers() {
+        return snapshot.get().backupWorkers;
+    }
+    
+    public int getSettingsPollSeconds() {
+        return snapshot.get().settingsPollSeconds;
+    }
+    
+    // Report Settings
+    public String getReportOutputDirectory() {
+        return snapshot.get().reportOutputDirectory;
+    }
+    
+    public int getReportParallelism() {
+        return snapshot.get().reportParallelism;
+    }
+    
+    public String getReportCacheDirectory() {
+        return snapshot.get().reportCacheDirectory;
+    }
+    
+    public int getReportCacheOpenTtlSeconds() {
+        return snapshot.get().reportCacheOpenTtlSeconds;
     }
     
     // Notification Settings
     public boolean isSendOnTimeIn() {
-        return Boolean.parseBoolean(properties.getProperty("notification.send.on.timein", "true"));
+        return snapshot.get().sendOnTimeIn;
     }
     
     public boolean isSendOnTimeOut() {
-        return Boolean.parseBoolean(properties.getProperty("notification.send.on.timeout", "true"));
+        return snapshot.get().sendOnTimeOut;
     }
     
     public boolean isSendOnLate() {
-        return Boolean.parseBoolean(properties.getProperty("notification.send.on.late", "true"));
+        return snapshot.get().sendOnLate;
     }
     
     public boolean isSendOnAbsent() {
-        return Boolean.parseBoolean(properties.getProperty("notification.send.on.absent", "true"));
+        return snapshot.get().sendOnAbsent;
     }
     
     // Photo Settings
     public String getPhotoDirectory() {
-        return properties.getProperty("photo.directory", "photos/");
+        return snapshot.get().photoDirectory;
     }
     
     public int getPhotoMaxSizeMB() {
-        return Integer.parseInt(properties.getProperty("photo.max.size.mb", "5"));
+        return snapshot.get().photoMaxSizeMB;
     }
     
     // Security Settings
     public int getMaxLoginAttempts() {
-        return Integer.parseInt(properties.getProperty("security.max.login.attempts", "5"));
+        return snapshot.get().maxLoginAttempts;
     }
     
     public int getLockoutDurationMinutes() {
-        return Integer.parseInt(properties.getProperty("security.lockout.duration.minutes", "15"));
+        return snapshot.get().lockoutDurationMinutes;
     }
     
     public boolean isAuditLogEnabled() {
-        return Boolean.parseBoolean(properties.getProperty("security.enable.audit.log", "true"));
+        return snapshot.get().auditLogEnabled;
     }
     
     // Generic getter
     public String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        return snapshot.get().get(key, defaultValue);
     }
     
     // Generic setter
     public void setProperty(String key, String value) {
-        properties.setProperty(key, value);
-        saveConfiguration();
+        update(key, value);
     }
     
     // Simple encryption (for basic security)
-    private String encrypt(String plainText) {
+    private static String encrypt(String plainText) {
         if (plainText == null || plainText.isEmpty()) {
             return "";
         }
@@ -232,7 +476,7 @@ public class ConfigManager {
         }
     }
     
-    private String decrypt(String encryptedText) {
+    private static String decrypt(String encryptedText) {
         if (encryptedText == null || encryptedText.isEmpty()) {
             return "";
         }
@@ -248,7 +492,7 @@ public class ConfigManager {
         }
     }
     
-    // Reload configuration from file
+    // Reload configuration from file (keeps the current snapshot if the file cannot be read)
     public void reload() {
         loadConfiguration();
     }
@@ -267,4 +511,162 @@ public class ConfigManager {
         System.out.println("Auto Backup: " + isAutoBackupEnabled());
         System.out.println("===========================\n");
     }
+    
+    /**
+     * Immutable, typed view of the configuration. Values are parsed once when the
+     * snapshot is built; a malformed number falls back to its default with a warning.
+     */
+    public static final class Snapshot {
+        private final Map<String, String> values;
+        
+        final String databaseUrl;
+        final String databaseUser;
+        final String databasePassword;      // encrypted; decrypted on read
+        
+        final boolean emailEnabled;
+        final String emailSmtpHost;
+        final int emailSmtpPort;
+        final String emailFrom;
+        final String emailPassword;         // encrypted; decrypted on read
+        
+        final String adminDefaultUid;
+        final int adminSessionTimeout;
+        
+        final int lateThresholdMinutes;
+        final int earlyDepartureThresholdMinutes;
+        final int gracePeriodMinutes;
+        
+        final String systemTheme;
+        final boolean darkMode;
+        final boolean autoBackupEnabled;
+        final String backupTime;
+        final String backupCompression;
+        final int backupCompressionLevel;
+        final int backupCompressionThreads;
+        final int backupCompressionBlockKB;
+        final boolean incrementalBackupEnabled;
+        final int backupFullIntervalDays;
+        final boolean backupVerifyEnabled;
+        final boolean backupVerifyLiveEnabled;
+        final boolean photoBackupEnabled;
+        final double backupThrottleMBPerSec;
+        final int backupThrottleRowsPerSec;
+        final int backupThrottleScanP95Millis;
+        final int backupWorkers;
+        final int settingsPollSeconds;
+        
+        final String reportOutputDirectory;
+        final int reportParallelism;
+        final String reportCacheDirectory;
+        final int reportCacheOpenTtlSeconds;
+        
+        final boolean sendOnTimeIn;
+        final boolean sendOnTimeOut;
+        final boolean sendOnLate;
+        final boolean sendOnAbsent;
+        
+        final String photoDirectory;
+        final int photoMaxSizeMB;
+        
+        final int maxLoginAttempts;
+        final int lockoutDurationMinutes;
+        final boolean auditLogEnabled;
+        
+        Snapshot(Properties properties) {
+            Map<String, String> copy = new HashMap<>();
+            for (String key : properties.stringPropertyNames()) {
+                copy.put(key, properties.getProperty(key));
+            }
+            values = Collections.unmodifiableMap(copy);
+            int cpuDefault = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+            
+            databaseUrl = String.format("jdbc:mysql://%s:%s/%s", get("db.host", "localhost"),
+                get("db.port", "3306"), get("db.name", "rfid_attendance"));
+            databaseUser = get("db.user", "root");
+            databasePassword = get("db.password", "");
+            
+            emailEnabled = bool("email.enabled", false);
+            emailSmtpHost = get("email.smtp.host", "smtp.gmail.com");
+            emailSmtpPort = integer("email.smtp.port", 587);
+            emailFrom = get("email.from", "");
+            emailPassword = get("email.password", "");
+            
+            adminDefaultUid = get("admin.default.uid", "0009269290");
+            adminSessionTimeout = integer("admin.session.timeout", 30);
+            
+            lateThresholdMinutes = integer("attendance.late.threshold.minutes", 15);
+            earlyDepartureThresholdMinutes = integer("attendance.early.departure.threshold.minutes", 30);
+            gracePeriodMinutes = integer("attendance.grace.period.minutes", 5);
+            
+            systemTheme = get("system.theme", "modern");
+            darkMode = bool("system.dark.mode", false);
+            autoBackupEnabled = bool("system.auto.backup", true);
+            backupTime = get("system.backup.time", "02:00");
+            backupCompression = get("system.backup.compression", "zip");
+            backupCompressionLevel = integer("system.backup.compression.level", 6);
+            backupCompressionThreads = integer("system.backup.compression.threads", 0);
+            backupCompressionBlockKB = integer("system.backup.compression.block.kb", 128);
+            incrementalBackupEnabled = bool("system.backup.incremental", false);
+            backupFullIntervalDays = integer("system.backup.full.interval.days", 7);
+            backupVerifyEnabled = bool("system.backup.verify", true);
+            backupVerifyLiveEnabled = bool("system.backup.verify.live", false);
+            photoBackupEnabled = bool("system.backup.photos", true);
+            backupThrottleMBPerSec = decimal("system.backup.throttle.mb.per.sec", 0);
+            backupThrottleRowsPerSec = integer("system.backup.throttle.rows.per.sec", 0);
+            backupThrottleScanP95Millis = integer("system.backup.throttle.scan.p95.ms", 500);
+            backupWorkers = integer("system.backup.workers", cpuDefault);
+            settingsPollSeconds = integer("system.settings.poll.seconds", 5);
+            
+            reportOutputDirectory = get("report.output.directory", "reports/");
+            reportParallelism = integer("report.parallelism", cpuDefault);
+            reportCacheDirectory = get("report.cache.directory", "reports/cache/");
+            reportCacheOpenTtlSeconds = integer("report.cache.open.ttl.seconds", 300);
+            
+            sendOnTimeIn = bool("notification.send.on.timein", true);
+            sendOnTimeOut = bool("notification.send.on.timeout", true);
+            sendOnLate = bool("notification.send.on.late", true);
+            sendOnAbsent = bool("notification.send.on.absent", true);
+            
+            photoDirectory = get("photo.directory", "photos/");
+            photoMaxSizeMB = integer("photo.max.size.mb", 5);
+            
+            maxLoginAttempts = integer("security.max.login.attempts", 5);
+            lockoutDurationMinutes = integer("security.lockout.duration.minutes", 15);
+            auditLogEnabled = bool("security.enable.audit.log", true);
+        }
+        
+        /**
+         * Raw value of any key, for settings without a typed getter
+         */
+        public String get(String key, String defaultValue) {
+            return values.getOrDefault(key, defaultValue);
+        }
+        
+        private boolean bool(String key, boolean defaultValue) {
+            String value = values.get(key);
+            return value == null ? defaultValue : Boolean.parseBoolean(value.trim());
+        }
+        
+        private int integer(String key, int defaultValue) {
+            String value = values.get(key);
+            if (value == null) return defaultValue;
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("⚠ Invalid number for " + key + ": '" + value + "', using " + defaultValue);
+                return defaultValue;
+            }
+        }
+        
+        private double decimal(String key, double defaultValue) {
+            String value = values.get(key);
+            if (value == null) return defaultValue;
+            try {
+                return Double.parseDouble(value.trim());
+            } catch (NumberFormatException e) {
+                System.err.println("⚠ Invalid number for " + key + ": '" + value + "', using " + defaultValue);
+                return defaultValue;
+            }
+        }
+    }
 }
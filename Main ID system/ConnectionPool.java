@@ -0,0 +1,142 @@
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * ConnectionPool - Small bounded pool of MySQL connections
+ * Features: Fixed upper bound, lazy creation, reuse across worker threads
+ *
+ * Connections handed out by getConnection() return to the pool on close(),
+ * so callers keep using try-with-resources as with DriverManager.
+ */
+public class ConnectionPool implements AutoCloseable {
+    
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final BlockingQueue<Connection> idle;
+    private volatile boolean closed = false;
+    
+    public ConnectionPool(int maxConnections) {
+        ConfigManager config = ConfigManager.getInstance();
+        this.url = config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false";
+        this.user = config.getDatabaseUser();
+        this.password = config.getDatabasePassword();
+        this.maxConnections = Math.max(1, maxConnections);
+        this.permits = new Semaphore(this.maxConnections, true);
+        this.idle = new ArrayBlockingQueue<>(this.maxConnections);
+    }
+    
+    /**
+     * Borrow a connection, waiting if all connections are in use
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        
+        try {
+            Connection physical = idle.poll();
+            if (physical == null || !physical.isValid(2)) {
+                closeQuietly(physical);
+                physical = DriverManager.getConnection(url, user, password);
+            }
+            return wrap(physical);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+    
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+    
+    /**
+     * Close all idle connections; borrowed ones are closed when returned
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Connection conn;
+        while ((conn = idle.poll()) != null) {
+            closeQuietly(conn);
+        }
+    }
+    
+    private void release(Connection physical) {
+        try {
+            if (closed || physical.isClosed()) {
+                closeQuietly(physical);
+                return;
+            }
+            if (!physical.getAutoCommit()) {
+                physical.rollback();
+                physical.setAutoCommit(true);
+            }
+            if (!idle.offer(physical)) {
+                closeQuietly(physical);
+            }
+        } catch (SQLException e) {
+            closeQuietly(physical);
+        } finally {
+            permits.release();
+        }
+    }
+    
+    /**
+     * Helper: Proxy that returns the physical connection to the pool on close()
+     */
+    private Connection wrap(Connection physical) {
+        InvocationHandler handler = new InvocationHandler() {
+            private boolean returned = false;
+            
+            @Override
+            public Object invoke(Object proxy, java.lang.reflect.Method method, Object[] args) throws Throwable {
+                String name = method.getName();
+                if ("close".equals(name)) {
+                    if (!returned) {
+                        returned = true;
+                        release(physical);
+                    }
+                    return null;
+                }
+                if ("isClosed".equals(name)) {
+                    return returned || physical.isClosed();
+                }
+                if (returned) {
+                    throw new SQLException("Connection already returned to pool");
+                }
+                try {
+                    return method.invoke(physical, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            }
+        };
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, handler);
+    }
+    
+    private void closeQuietly(Connection conn) {
+        if (conn == null) return;
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            // Ignore - connection is being discarded
+        }
+    }
+}
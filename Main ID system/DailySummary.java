@@ -0,0 +1,208 @@
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DailySummary - Materialized per-day attendance totals (daily_summary table)
+ * Features: Incremental updates per scan, active-user snapshot, single-day repair, trend reads by date range
+ *
+ * One row per (date, class_type). Teachers and students without a class type are
+ * counted under "morning", the same default the kiosk uses for thresholds. The
+ * day's first scan creates a row for every class type on the active roster, so
+ * summed active users include class types nobody from has scanned in yet.
+ */
+public class DailySummary {
+    
+    private Connection conn;
+    
+    // Active users per class type, as of now
+    private static final String ACTIVE_USERS_SQL =
+        "SELECT COALESCE(s.class_type, 'morning') AS class_type, COUNT(*) AS active " +
+        "FROM users u LEFT JOIN students s ON u.user_id = s.user_id " +
+        "WHERE u.role IN ('student', 'teacher') AND u.status = 'active' " +
+        "GROUP BY COALESCE(s.class_type, 'morning')";
+    
+    public DailySummary(Connection conn) {
+        this.conn = conn;
+    }
+    
+    /**
+     * Create the summary table and backfill it once from attendance history
+     */
+    public void initialize() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS daily_summary (" +
+                "summary_date DATE NOT NULL," +
+                "class_type VARCHAR(10) NOT NULL," +
+                "total_checked_in INT NOT NULL DEFAULT 0," +
+                "total_late INT NOT NULL DEFAULT 0," +
+                "total_time_out INT NOT NULL DEFAULT 0," +
+                "total_active_users INT NOT NULL DEFAULT 0," +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
+                "PRIMARY KEY (summary_date, class_type)" +
+                ")");
+            
+            ResultSet rs = stmt.executeQuery("SELECT EXISTS(SELECT 1 FROM daily_summary) AS has_rows, " +
+                "(SELECT MIN(date) FROM " + AttendanceArchiver.source(null, "src") + ") AS first_date");
+            if (rs.next() && !rs.getBoolean("has_rows") && rs.getDate("first_date") != null) {
+                LocalDate firstDate = rs.getDate("first_date").toLocalDate();
+                System.out.println("  Backfilling daily summary from " + firstDate + "...");
+                rebuild(firstDate, LocalDate.now());
+            }
+            rs.close();
+        }
+    }
+    
+    /**
+     * Count a time-in; call inside the caller's time-in transaction
+     */
+    public void recordTimeIn(LocalDate date, String classType, boolean late) throws SQLException {
+        String key = classKey(classType);
+        String updateSql = "UPDATE daily_summary SET total_checked_in = total_checked_in + 1, " +
+                           "total_late = total_late + ? WHERE summary_date = ? AND class_type = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(updateSql)) {
+            stmt.setInt(1, late ? 1 : 0);
+            stmt.setDate(2, Date.valueOf(date));
+            stmt.setString(3, key);
+            if (stmt.executeUpdate() > 0) return;
+        }
+        
+        // First scan of the day for this class type - snapshot every class type's roster now
+        String seedSql = "INSERT IGNORE INTO daily_summary (summary_date, class_type, total_active_users) " +
+                         "SELECT ?, k.class_type, k.active FROM (" + ACTIVE_USERS_SQL + ") k";
+        try (PreparedStatement stmt = conn.prepareStatement(seedSql)) {
+            stmt.setDate(1, Date.valueOf(date));
+            stmt.executeUpdate();
+        }
+        
+        // Class type not on the active roster (e.g. an inactive user scanning) gets its own row
+        String insertSql = "INSERT INTO daily_summary " +
+                           "(summary_date, class_type, total_checked_in, total_late, total_time_out, total_active_users) " +
+                           "SELECT ?, ?, 1, ?, 0, COALESCE(MAX(k.active), 0) " +
+                           "FROM (" + ACTIVE_USERS_SQL + ") k WHERE k.class_type = ? " +
+                           "ON DUPLICATE KEY UPDATE total_checked_in = total_checked_in + 1, " +
+                           "total_late = total_late + VALUES(total_late)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+            stmt.setDate(1, Date.valueOf(date));
+            stmt.setString(2, key);
+            stmt.setInt(3, late ? 1 : 0);
+            stmt.setString(4, key);
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Count a time-out; call inside the caller's time-out transaction
+     */
+    public void recordTimeOut(LocalDate date, String classType) throws SQLException {
+        String sql = "UPDATE daily_summary SET total_time_out = total_time_out + 1 " +
+                     "WHERE summary_date = ? AND class_type = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(date));
+            stmt.setString(2, classKey(classType));
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Rebuild one day from attendance (e.g. after manual corrections)
+     */
+    public void repair(LocalDate date) throws SQLException {
+        rebuild(date, date);
+    }
+    
+    /**
+     * Rebuild all days in the range from attendance. Existing active-user snapshots
+     * are kept; days without one get today's active count, since past rosters are not kept.
+     */
+    public void rebuild(LocalDate from, LocalDate to) throws SQLException {
+        String resetSql = "UPDATE daily_summary SET total_checked_in = 0, total_late = 0, total_time_out = 0 " +
+                          "WHERE summary_date BETWEEN ? AND ?";
+        String insertSql = "INSERT INTO daily_summary " +
+                           "(summary_date, class_type, total_checked_in, total_late, total_time_out, total_active_users) " +
+                           "SELECT c.date, c.class_type, c.checked_in, c.late, c.timed_out, COALESCE(k.active, 0) " +
+                           "FROM (SELECT a.date, COALESCE(s.class_type, 'morning') AS class_type, " +
+                           "             COUNT(*) AS checked_in, " +
+                           "             SUM(CASE WHEN a.late_minutes > 0 THEN 1 ELSE 0 END) AS late, " +
+                           "             SUM(CASE WHEN a.time_out IS NOT NULL THEN 1 ELSE 0 END) AS timed_out " +
+                           "      FROM " + AttendanceArchiver.source(from, "a") + " " +
+                           "      LEFT JOIN students s ON a.user_id = s.user_id " +
+                           "      WHERE a.date BETWEEN ? AND ? AND a.time_in IS NOT NULL " +
+                           "      GROUP BY a.date, COALESCE(s.class_type, 'morning')) c " +
+                           "LEFT JOIN (" + ACTIVE_USERS_SQL + ") k ON k.class_type = c.class_type " +
+                           "ON DUPLICATE KEY UPDATE total_checked_in = VALUES(total_checked_in), " +
+                           "total_late = VALUES(total_late), total_time_out = VALUES(total_time_out)";
+        String seedSql = "INSERT IGNORE INTO daily_summary (summary_date, class_type, total_active_users) " +
+                         "SELECT d.date, k.class_type, k.active " +
+                         "FROM (SELECT DISTINCT a.date FROM " + AttendanceArchiver.source(from, "a") + " " +
+                         "      WHERE a.date BETWEEN ? AND ? AND a.time_in IS NOT NULL) d " +
+                         "CROSS JOIN (" + ACTIVE_USERS_SQL + ") k";
+        String pruneSql = "DELETE d FROM daily_summary d " +
+                          "LEFT JOIN (SELECT summary_date FROM daily_summary WHERE summary_date BETWEEN ? AND ? " +
+                          "           GROUP BY summary_date HAVING SUM(total_checked_in) > 0) p " +
+                          "ON p.summary_date = d.summary_date " +
+                          "WHERE d.summary_date BETWEEN ? AND ? AND p.summary_date IS NULL";
+        
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement reset = conn.prepareStatement(resetSql);
+             PreparedStatement seed = conn.prepareStatement(seedSql);
+             PreparedStatement insert = conn.prepareStatement(insertSql);
+             PreparedStatement prune = conn.prepareStatement(pruneSql)) {
+            reset.setDate(1, Date.valueOf(from));
+            reset.setDate(2, Date.valueOf(to));
+            reset.executeUpdate();
+            
+            // Every class type on the roster gets a row for days with attendance
+            seed.setDate(1, Date.valueOf(from));
+            seed.setDate(2, Date.valueOf(to));
+            seed.executeUpdate();
+            
+            insert.setDate(1, Date.valueOf(from));
+            insert.setDate(2, Date.valueOf(to));
+            insert.executeUpdate();
+            
+            // Days with no attendance left after corrections
+            prune.setDate(1, Date.valueOf(from));
+            prune.setDate(2, Date.valueOf(to));
+            prune.setDate(3, Date.valueOf(from));
+            prune.setDate(4, Date.valueOf(to));
+            prune.executeUpdate();
+            conn.commit();
+            System.out.println("✓ Daily summary rebuilt for " + from + " to " + to);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Per-day totals across class types, oldest first.
+     * Each entry is {epochDay, checkedIn, late, timeOut, activeUsers}.
+     */
+    public List<long[]> getTrend(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT summary_date, SUM(total_checked_in), SUM(total_late), " +
+                     "SUM(total_time_out), SUM(total_active_users) " +
+                     "FROM daily_summary WHERE summary_date BETWEEN ? AND ? " +
+                     "GROUP BY summary_date ORDER BY summary_date";
+        List<long[]> trend = new ArrayList<>();
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(from));
+            stmt.setDate(2, Date.valueOf(to));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                trend.add(new long[]{rs.getDate(1).toLocalDate().toEpochDay(),
+                    rs.getLong(2), rs.getLong(3), rs.getLong(4), rs.getLong(5)});
+            }
+            rs.close();
+        }
+        return trend;
+    }
+    
+    private static String classKey(String classType) {
+        return classType != null && !classType.isEmpty() ? classType.toLowerCase() : "morning";
+    }
+}
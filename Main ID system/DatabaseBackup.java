@@ -1,15 +1,47 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.sql.*;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
 /**
  * DatabaseBackup - Automated database backup system
- * Features: Scheduled backups, compression, retention policy
+ * Features: Scheduled backups, single-pass streaming compression (zip/gzip), SHA-256 checksum,
+ *           parallel consistent-snapshot export, watermark-based incremental backups, retention policy,
+ *           per-backup manifest and post-backup verification, deduplicated chunk store (see ChunkStore),
+ *           incremental photo backup (see PhotoBackup), I/O throttling that yields to kiosk scans (see BackupThrottle)
+ *
+ * The dump is compressed as it is produced and written to a .tmp file that is
+ * renamed into place only when the backup succeeds, so a finished backup file
+ * is always complete and the uncompressed SQL never touches the disk.
  */
 public class DatabaseBackup {
     
@@ -18,6 +50,16 @@ public class DatabaseBackup {
     private static final DateTimeFormatter TIMESTAMP_FORMAT = 
         DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
     private static final String BACKUP_DIR = "backups/";
+    private static final int FETCH_SIZE = 1000;           // Rows per server cursor round trip
+    private static final int ROWS_PER_INSERT = 500;       // Keeps each INSERT well under max_allowed_packet
+    private static final long CHUNK_KEYS = 50000;         // Primary-key values per export chunk
+    private static final String WATERMARK_FILE = BACKUP_DIR + "backup_watermarks.properties";
+    private static final String INCREMENTAL = "incremental";
+    
+    // Tables that only ever gain rows, so their primary key alone is a safe watermark
+    private static final Set<String> APPEND_ONLY_TABLES =
+        new HashSet<>(Arrays.asList("audit_logs", "login_attempts"));
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
     
     public DatabaseBackup() {
         this.config = ConfigManager.getInstance();
@@ -75,29 +117,90 @@ public class DatabaseBackup {
         System.out.println("\n=== Starting " + backupType + " database backup ===");
         
         String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
-        String backupFileName = String.format("rfid_backup_%s_%s.sql", backupType, timestamp);
-        String backupFilePath = BACKUP_DIR + backupFileName;
+        String sqlFileName = String.format("rfid_backup_%s_%s.sql", backupType, timestamp);
+        String format = config.getBackupCompression().toLowerCase();
+        String extension = "gzip".equals(format) ? ".gz" : "chunks".equals(format) ? ChunkStore.SUFFIX : ".zip";
+        String backupFileName = sqlFileName + extension;
+        File tempFile = new File(BACKUP_DIR + backupFileName + ".tmp");
+        BackupThrottle throttle = new BackupThrottle(config);
+        boolean completed = false;
         
         try {
-            // Method 1: Using mysqldump (preferred)
-            boolean success = backupUsingMySQLDump(backupFilePath);
+            throttle.setStage("database");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            boolean success = false;
+            Watermarks marks = null;
+            
+            // Method 1: Using mysqldump (preferred; not used in incremental mode, whose
+            // watermarks must come from the same snapshot as the exported rows)
+            if (!config.isIncrementalBackupEnabled()) {
+                MessageDigest sqlDigest = MessageDigest.getInstance("SHA-256");
+                if ("zip".equals(format)) {
+                    success = dumpIntoZip(tempFile, sqlFileName, digest, sqlDigest, throttle);
+                } else {
+                    try (OutputStream out = openBackupStream(tempFile, format, digest)) {
+                        success = backupUsingMySQLDump(throttle.wrap(new DigestOutputStream(out, sqlDigest)));
+                    }
+                    if (success) {
+                        // Part size splits gzip members; a chunk list has no compressed size of its own
+                        writeManifest(null, tempFile, dumpManifest(sqlFileName, BackupManifest.toHex(sqlDigest.digest()),
+                            "gzip".equals(format) ? tempFile.length() : -1));
+                    }
+                }
+                if (!success) {
+                    System.out.println("⚠ mysqldump not available, using SQL export method...");
+                }
+            }
             
             if (!success) {
-                // Method 2: Fallback to SQL export
-                System.out.println("⚠ mysqldump not available, using SQL export method...");
-                success = backupUsingSQLExport(backupFilePath);
+                // Method 2: SQL export (starts the temp file over)
+                digest.reset();
+                marks = backupUsingSQLExport(tempFile, format, digest, incrementalBase(backupType), throttle);
+                success = marks != null;
+                if (success && marks.isIncremental()) {
+                    backupFileName = String.format("rfid_backup_%s_%s.sql", INCREMENTAL, timestamp) + extension;
+                }
             }
             
             if (success) {
-                // Compress the backup file
-                compressBackup(backupFilePath);
+                // The database backup stands even if the photos cannot be backed up
+                if (config.isPhotoBackupEnabled()) {
+                    throttle.setStage("photos");
+                    try {
+                        new PhotoBackup(new File(BACKUP_DIR)).backup(photoListFile(tempFile), throttle);
+                    } catch (Exception e) {
+                        System.err.println("⚠ Photo backup failed: " + e.getMessage());
+                        photoListFile(tempFile).delete();
+                    }
+                }
+                
+                File backupFile = new File(BACKUP_DIR + backupFileName);
+                moveIntoPlace(tempFile, backupFile);
+                if (manifestFile(tempFile).exists()) {
+                    moveIntoPlace(manifestFile(tempFile), manifestFile(backupFile));
+                }
+                if (photoListFile(tempFile).exists()) {
+                    moveIntoPlace(photoListFile(tempFile), photoListFile(backupFile));
+                }
+                String checksum = BackupManifest.toHex(digest.digest());
+                if (marks != null) {
+                    marks.save(timestamp);
+                }
                 
                 // Clean old backups
                 cleanOldBackups();
                 
-                System.out.println("✓ Backup completed successfully: " + backupFileName + ".zip");
-                logBackup(backupFileName + ".zip", backupType, true, null);
-                return true;
+                System.out.println("✓ Backup completed successfully: " + backupFileName + " (" +
+                    formatFileSize(backupFile.length()) + ", SHA-256 " + checksum + ")");
+                logBackup(backupFileName + ", SHA-256: " + checksum, backupType, true, null);
+                
+                // A backup that does not read back cleanly counts as failed
+                completed = true;
+                if (config.isBackupVerifyEnabled()) {
+                    throttle.setStage("verify");
+                    completed = new BackupVerifier(throttle).verify(backupFile, config.isBackupVerifyLiveEnabled());
+                }
+                return completed;
             } else {
                 System.out.println("❌ Backup failed");
                 logBackup(backupFileName, backupType, false, "Backup process failed");
@@ -109,41 +212,171 @@ public class DatabaseBackup {
             e.printStackTrace();
             logBackup(backupFileName, backupType, false, e.getMessage());
             return false;
+        } finally {
+            throttle.finish(completed);
+            // Never leave a partial backup behind
+            tempFile.delete();
+            manifestFile(tempFile).delete();
+            photoListFile(tempFile).delete();
         }
     }
     
     /**
-     * Backup using mysqldump command
+     * Watermarks to build an increment on, or null when this run must be a full baseline
+     * (manual backups, incremental mode off, no baseline yet, or the baseline is too old)
      */
-    private boolean backupUsingMySQLDump(String backupFilePath) {
+    private Watermarks incrementalBase(String backupType) {
+        if (!config.isIncrementalBackupEnabled() || !"automated".equals(backupType)) {
+            return null;
+        }
+        Watermarks previous = Watermarks.load();
+        if (previous == null || previous.getLastFull() == null) {
+            return null;
+        }
+        LocalDateTime lastFull = LocalDateTime.parse(previous.getLastFull(), TIMESTAMP_FORMAT);
+        if (lastFull.plusDays(config.getBackupFullIntervalDays()).isBefore(LocalDateTime.now())) {
+            System.out.println("  Last full backup is from " + lastFull.toLocalDate() + ", taking a new baseline");
+            return null;
+        }
+        return previous;
+    }
+    
+    /**
+     * Open the compressed backup stream: file <- SHA-256 digest <- parallel gzip or chunk store
+     */
+    private OutputStream openBackupStream(File tempFile, String format, MessageDigest digest) throws IOException {
+        OutputStream file = openArchiveFile(tempFile, format, digest);
+        if (file instanceof ChunkStore.Writer) {
+            return file;
+        }
+        return ParallelGzipOutputStream.create(file, config);
+    }
+    
+    /**
+     * Helper: mysqldump into a gzip part compressed on all cores, then stored in the zip
+     * as its SQL entry (the same layout as the SQL export's stored .sql.gz parts)
+     */
+    private boolean dumpIntoZip(File tempFile, String sqlFileName, MessageDigest digest, MessageDigest sqlDigest,
+                                BackupThrottle throttle) throws Exception {
+        File partFile = new File(tempFile.getPath() + ".dump.tmp");
         try {
-            String[] command;
-            String os = System.getProperty("os.name").toLowerCase();
+            CheckedOutputStream checked = new CheckedOutputStream(
+                new BufferedOutputStream(new FileOutputStream(partFile), 64 * 1024), new CRC32());
+            boolean success;
+            try (OutputStream out = ParallelGzipOutputStream.create(checked, config)) {
+                success = backupUsingMySQLDump(throttle.wrap(new DigestOutputStream(out, sqlDigest)));
+            }
+            if (!success) {
+                return false;
+            }
             
-            // Build mysqldump command
-            String mysqldumpCmd = String.format(
-                "mysqldump -u%s -p%s --databases %s --routines --triggers --events",
+            String entryName = sqlFileName + ".gz";
+            String sha256 = BackupManifest.toHex(sqlDigest.digest());
+            long size = partFile.length();
+            try (OutputStream file = openArchiveFile(tempFile, "zip", digest);
+                 ZipOutputStream zos = new ZipOutputStream(file)) {
+                appendPart(file, zos, false, entryName, new ExportPart(partFile, checked.getChecksum().getValue(), -1, sha256));
+                writeManifest(zos, tempFile, dumpManifest(entryName, sha256, size));
+            }
+            return true;
+        } finally {
+            partFile.delete();
+        }
+    }
+    
+    /**
+     * Helper: Backup file behind its SHA-256 digest; in chunks mode the file holds the
+     * chunk list and the SQL written to the returned stream goes to the chunk store
+     */
+    private OutputStream openArchiveFile(File tempFile, String format, MessageDigest digest) throws IOException {
+        OutputStream file = new DigestOutputStream(
+            new BufferedOutputStream(new FileOutputStream(tempFile), 64 * 1024), digest);
+        if ("chunks".equals(format)) {
+            return ChunkStore.create(new File(BACKUP_DIR), file, config.getBackupCompressionLevel());
+        }
+        return file;
+    }
+    
+    /**
+     * Add the manifest to the backup: last zip entry, or a sidecar file next to a gzip or chunked backup
+     */
+    private void writeManifest(ZipOutputStream zos, File tempFile, BackupManifest manifest) throws IOException {
+        if (zos != null) {
+            zos.putNextEntry(new ZipEntry(BackupManifest.ENTRY_NAME));
+            manifest.store(zos);
+            zos.closeEntry();
+        } else {
+            try (OutputStream out = new FileOutputStream(manifestFile(tempFile))) {
+                manifest.store(out);
+            }
+        }
+    }
+    
+    private static File manifestFile(File backupFile) {
+        return new File(backupFile.getPath() + BackupManifest.SIDECAR_SUFFIX);
+    }
+    
+    private static File photoListFile(File backupFile) {
+        return new File(backupFile.getPath() + PhotoBackup.SUFFIX);
+    }
+    
+    /**
+     * Manifest of a mysqldump backup: one part whose rows are counted at verify time
+     */
+    private BackupManifest dumpManifest(String partName, String sha256, long size) {
+        BackupManifest manifest = new BackupManifest();
+        manifest.set("type", "full");
+        manifest.set("created", LocalDateTime.now().format(TIMESTAMP_FORMAT));
+        manifest.addPart(partName, null, -1, sha256, size);
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
                 config.getDatabaseUser(),
-                config.getDatabasePassword(),
-                "rfid_attendance"
-            );
+                config.getDatabasePassword())) {
+            manifest.set("schema.version", BackupManifest.schemaVersion(conn));
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not read schema version for the manifest: " + e.getMessage());
+        }
+        return manifest;
+    }
+    
+    /**
+     * Helper: Atomic rename of the finished temp file (plain replace where unsupported)
+     */
+    private void moveIntoPlace(File tempFile, File backupFile) throws IOException {
+        try {
+            Files.move(tempFile.toPath(), backupFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tempFile.toPath(), backupFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+    
+    /**
+     * Backup using mysqldump command, piping its output into the backup stream.
+     * Credentials go in a private option file, not on the command line where any
+     * local user could read them from the process list.
+     */
+    private boolean backupUsingMySQLDump(OutputStream out) {
+        File credentials = null;
+        try {
+            credentials = writeCredentialsFile();
+            ProcessBuilder builder = new ProcessBuilder(
+                "mysqldump",
+                "--defaults-extra-file=" + credentials.getAbsolutePath(),
+                "--databases", "rfid_attendance",
+                "--single-transaction",
+                "--routines", "--triggers", "--events");
+            builder.redirectError(ProcessBuilder.Redirect.INHERIT);
             
-            if (os.contains("win")) {
-                command = new String[]{"cmd.exe", "/c", mysqldumpCmd + " > " + backupFilePath};
-            } else {
-                command = new String[]{"/bin/sh", "-c", mysqldumpCmd + " > " + backupFilePath};
+            Process process = builder.start();
+            long bytes;
+            try (InputStream dump = process.getInputStream()) {
+                bytes = dump.transferTo(out);
             }
-            
-            Process process = Runtime.getRuntime().exec(command);
             int exitCode = process.waitFor();
             
-            if (exitCode == 0) {
-                File backupFile = new File(backupFilePath);
-                if (backupFile.exists() && backupFile.length() > 0) {
-                    System.out.println("✓ mysqldump backup successful (" + 
-                        formatFileSize(backupFile.length()) + ")");
-                    return true;
-                }
+            if (exitCode == 0 && bytes > 0) {
+                System.out.println("✓ mysqldump backup successful (" + formatFileSize(bytes) + " uncompressed)");
+                return true;
             }
             
             return false;
@@ -151,102 +384,505 @@ public class DatabaseBackup {
         } catch (Exception e) {
             System.err.println("⚠ mysqldump error: " + e.getMessage());
             return false;
+        } finally {
+            if (credentials != null) {
+                credentials.delete();
+            }
         }
     }
     
     /**
-     * Backup using SQL export (fallback method)
+     * Helper: [client] option file for mysqldump (created owner-only, deleted after the dump)
      */
-    private boolean backupUsingSQLExport(String backupFilePath) {
-        try (Connection conn = DriverManager.getConnection(
-                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
-                config.getDatabaseUser(),
-                config.getDatabasePassword());
-             PrintWriter writer = new PrintWriter(new FileWriter(backupFilePath))) {
+    private File writeCredentialsFile() throws IOException {
+        File file = Files.createTempFile("rfid_backup_", ".cnf").toFile();
+        try (PrintWriter writer = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            writer.println("[client]");
+            writer.println("user=\"" + optionValue(config.getDatabaseUser()) + "\"");
+            writer.println("password=\"" + optionValue(config.getDatabasePassword()) + "\"");
+        }
+        return file;
+    }
+    
+    private static String optionValue(String value) {
+        return value == null ? "" : value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+    
+    /**
+     * Backup using SQL export (fallback method).
+     * All worker connections share one consistent snapshot; each table, or primary-key
+     * chunk of a large table, is exported in parallel into its own gzip part, and the
+     * parts are appended to the backup in dump order (stored zip entries, gzip members,
+     * or decompressed into the chunk store).
+     * Given the previous watermarks it writes an increment instead of a full baseline.
+     * The manifest lists every part with its SHA-256 and row count; full backups also
+     * record CHECKSUM TABLE values taken from the same snapshot.
+     * Returns the watermarks of this backup, or null if it failed.
+     */
+    private Watermarks backupUsingSQLExport(File tempFile, String format, MessageDigest digest, Watermarks previous,
+                                            BackupThrottle throttle) {
+        List<Connection> connections = new ArrayList<>();
+        List<File> partFiles = new ArrayList<>();
+        ExecutorService pool = null;
+        long started = System.currentTimeMillis();
+        
+        try {
+            openSnapshot(connections, Math.max(1, config.getBackupWorkers()));
+            Watermarks next = new Watermarks(previous);
+            List<ExportChunk> chunks = planChunks(connections.get(0), previous, next);
+            Watermarks marks = next;
             
-            DatabaseMetaData metaData = conn.getMetaData();
+            BackupManifest manifest = new BackupManifest();
+            manifest.set("type", marks.isIncremental() ? INCREMENTAL : "full");
+            manifest.set("created", LocalDateTime.now().format(TIMESTAMP_FORMAT));
+            if (marks.isIncremental()) {
+                manifest.set("last.full", marks.getLastFull());
+            }
+            manifest.set("schema.version", BackupManifest.schemaVersion(connections.get(0)));
+            List<String[]> schemaObjects = listSchemaObjects(connections.get(0));
             
-            writer.println("-- ========================================");
-            writer.println("-- RFID Attendance System Database Backup");
-            writer.println("-- Generated: " + LocalDateTime.now());
-            writer.println("-- ========================================");
-            writer.println();
-            writer.println("SET FOREIGN_KEY_CHECKS=0;");
-            writer.println();
+            BlockingQueue<Connection> idle = new ArrayBlockingQueue<>(connections.size(), false, connections);
+            pool = Executors.newFixedThreadPool(connections.size());
+            List<Future<ExportPart>> parts = new ArrayList<>();
             
-            // Get all tables
-            ResultSet tables = metaData.getTables("rfid_attendance", null, "%", 
-                new String[]{"TABLE"});
+            parts.add(CompletableFuture.completedFuture(writePart(partFile(tempFile, partFiles), throttle, writer -> {
+                writer.println("-- ========================================");
+                writer.println("-- RFID Attendance System Database Backup");
+                writer.println("-- Generated: " + LocalDateTime.now());
+                if (marks.isIncremental()) {
+                    writer.println("-- Incremental: replay after the backups since " + marks.getLastFull());
+                }
+                writer.println("-- ========================================");
+                writer.println();
+                writer.println("SET FOREIGN_KEY_CHECKS=0;");
+                writer.println();
+                // Triggers stay off while rows load; the footer creates them again
+                for (String[] object : schemaObjects) {
+                    if ("TRIGGER".equals(object[0])) {
+                        writer.println("DROP TRIGGER IF EXISTS `" + object[1] + "`;");
+                    }
+                }
+                return 0;
+            })));
+            for (ExportChunk chunk : chunks) {
+                File part = partFile(tempFile, partFiles);
+                parts.add(pool.submit(() -> {
+                    Connection conn = idle.take();
+                    try {
+                        return writePart(part, throttle, writer -> exportChunk(conn, writer, chunk, throttle));
+                    } finally {
+                        idle.put(conn);
+                    }
+                }));
+            }
             
-            while (tables.next()) {
-                String tableName = tables.getString("TABLE_NAME");
-                exportTable(conn, writer, tableName);
+            Set<String> tableNames = new LinkedHashSet<>();
+            for (ExportChunk chunk : chunks) {
+                tableNames.add(chunk.tableName);
             }
+            Future<List<String>> checksums = marks.isIncremental() ? null : pool.submit(() -> {
+                Connection conn = idle.take();
+                try {
+                    return BackupManifest.tableChecksums(conn, new ArrayList<>(tableNames));
+                } finally {
+                    idle.put(conn);
+                }
+            });
             
-            writer.println();
-            writer.println("SET FOREIGN_KEY_CHECKS=1;");
-            writer.println("-- Backup completed successfully");
+            // Append parts in order while later ones are still being exported
+            boolean chunked = "chunks".equals(format);
+            try (OutputStream file = openArchiveFile(tempFile, format, digest);
+                 ZipOutputStream zos = "zip".equals(format) ? new ZipOutputStream(file) : null) {
+                Map<String, Long> tableRows = new TreeMap<>();
+                for (int i = 0; i < parts.size(); i++) {
+                    String label = i == 0 ? "header" : chunks.get(i - 1).label;
+                    String table = i == 0 ? null : chunks.get(i - 1).tableName;
+                    String entryName = String.format("%05d_%s.sql.gz", i, label);
+                    ExportPart part = parts.get(i).get();
+                    manifest.addPart(entryName, table, part.rows, part.sha256, part.file.length());
+                    if (table != null) {
+                        tableRows.merge(table, part.rows, Long::sum);
+                    }
+                    appendPart(file, zos, chunked, entryName, part);
+                }
+                
+                ExportPart footer = writePart(partFile(tempFile, partFiles), throttle, writer -> {
+                    Connection conn = idle.take();
+                    try {
+                        exportSchemaObjects(conn, writer, schemaObjects);
+                    } finally {
+                        idle.put(conn);
+                    }
+                    writer.println();
+                    writer.println("SET FOREIGN_KEY_CHECKS=1;");
+                    writer.println("-- Backup completed successfully");
+                    return 0;
+                });
+                String footerName = String.format("%05d_footer.sql.gz", parts.size());
+                manifest.addPart(footerName, null, footer.rows, footer.sha256, footer.file.length());
+                appendPart(file, zos, chunked, footerName, footer);
+                
+                for (Map.Entry<String, Long> entry : tableRows.entrySet()) {
+                    manifest.setTable(entry.getKey(), "rows", String.valueOf(entry.getValue()));
+                }
+                if (checksums != null) {
+                    List<String> values = checksums.get();
+                    int i = 0;
+                    for (String table : tableNames) {
+                        if (values.get(i) != null) {
+                            manifest.setTable(table, "checksum", values.get(i));
+                        }
+                        i++;
+                    }
+                }
+                writeManifest(zos, tempFile, manifest);
+            }
             
-            System.out.println("✓ SQL export backup successful");
-            return true;
+            System.out.println("✓ SQL export backup successful (" + (marks.isIncremental() ? "incremental, " : "") +
+                chunks.size() + " part(s), " + connections.size() + " worker(s), " +
+                (System.currentTimeMillis() - started) + " ms)");
+            return marks;
             
         } catch (Exception e) {
             System.err.println("❌ SQL export error: " + e.getMessage());
             e.printStackTrace();
-            return false;
+            return null;
+        } finally {
+            if (pool != null) {
+                pool.shutdownNow();
+            }
+            for (Connection conn : connections) {
+                try {
+                    conn.rollback();
+                    conn.close();
+                } catch (SQLException ignored) {
+                }
+            }
+            for (File part : partFiles) {
+                part.delete();
+            }
+        }
+    }
+    
+    /**
+     * Open worker connections that all read the same point in time. A global read
+     * lock is held only while the snapshots start; without the RELOAD privilege the
+     * export falls back to a single connection (still one consistent snapshot).
+     */
+    private void openSnapshot(List<Connection> connections, int workers) throws SQLException {
+        Connection coordinator = openExportConnection();
+        connections.add(coordinator);
+        
+        boolean locked = false;
+        if (workers > 1) {
+            try (Statement stmt = coordinator.createStatement()) {
+                stmt.execute("FLUSH TABLES WITH READ LOCK");
+                locked = true;
+            } catch (SQLException e) {
+                System.out.println("⚠ Cannot lock tables for a shared snapshot (" + e.getMessage() +
+                    "), exporting with one connection");
+            }
+        }
+        
+        try {
+            for (int i = 1; locked && i < workers; i++) {
+                connections.add(openExportConnection());
+            }
+            for (Connection conn : connections) {
+                conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+                conn.setAutoCommit(false);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("START TRANSACTION WITH CONSISTENT SNAPSHOT");
+                }
+            }
+        } finally {
+            if (locked) {
+                try (Statement stmt = coordinator.createStatement()) {
+                    stmt.execute("UNLOCK TABLES");
+                }
+            }
+        }
+    }
+    
+    private Connection openExportConnection() throws SQLException {
+        // useCursorFetch: table data is read FETCH_SIZE rows at a time instead of buffered whole
+        // yearIsDateType=false: YEAR columns come back as numbers, not as dates
+        return DriverManager.getConnection(
+            config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false" +
+            "&useCursorFetch=true&yearIsDateType=false",
+            config.getDatabaseUser(),
+            config.getDatabasePassword());
+    }
+    
+    /**
+     * Split every table into export chunks. Tables with a single integer primary key
+     * spanning more than CHUNK_KEYS values are cut into key ranges; the first chunk
+     * of each table also carries its CREATE TABLE.
+     *
+     * With a previous watermark set, only rows changed since then are exported (as
+     * REPLACE) for tables tracked by updated_at, date or (append-only) primary key;
+     * other tables are copied whole. The new watermarks are filled in as it goes.
+     *
+     * Deleted rows are not visible to watermarks, so each tracked table also keeps a
+     * fingerprint of its primary keys (count plus XOR of their CRC32). If the keys the
+     * previous backup saw are no longer all there, the table is copied whole instead.
+     */
+    private List<ExportChunk> planChunks(Connection conn, Watermarks previous, Watermarks next) throws SQLException {
+        List<String> tableNames = new ArrayList<>();
+        DatabaseMetaData metaData = conn.getMetaData();
+        try (ResultSet tables = metaData.getTables("rfid_attendance", null, "%", new String[]{"TABLE"})) {
+            while (tables.next()) {
+                tableNames.add(tables.getString("TABLE_NAME"));
+            }
+        }
+        
+        List<ExportChunk> chunks = new ArrayList<>();
+        for (String tableName : tableNames) {
+            System.out.println("  Backing up table: " + tableName);
+            next.set(tableName, "tracked", "true");
+            
+            List<String> keyColumns = new ArrayList<>();
+            try (ResultSet keys = metaData.getPrimaryKeys("rfid_attendance", null, tableName)) {
+                while (keys.next()) {
+                    keyColumns.add(keys.getString("COLUMN_NAME"));
+                }
+            }
+            Set<String> columns = new HashSet<>();
+            try (ResultSet rs = metaData.getColumns("rfid_attendance", null, tableName, "%")) {
+                while (rs.next()) {
+                    columns.add(rs.getString("COLUMN_NAME").toLowerCase());
+                }
+            }
+            
+            long minKey = 0;
+            long maxKey = -1;
+            if (keyColumns.size() == 1) {
+                String key = "`" + keyColumns.get(0) + "`";
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery("SELECT MIN(" + key + "), MAX(" + key + ") FROM `" + tableName + "`")) {
+                    if (rs.next() && (rs.getObject(1) instanceof Integer || rs.getObject(1) instanceof Long)) {
+                        minKey = rs.getLong(1);
+                        maxKey = rs.getLong(2);
+                    }
+                }
+            }
+            
+            // Watermark for this table, taken inside the snapshot (keyless tables are copied whole)
+            String markColumn = keyColumns.isEmpty() ? null
+                              : columns.contains("updated_at") ? "updated_at"
+                              : columns.contains("date") ? "date"
+                              : APPEND_ONLY_TABLES.contains(tableName) && maxKey >= minKey ? "id"
+                              : null;
+            String changedRows = null;
+            if (markColumn != null) {
+                String mark;
+                if ("id".equals(markColumn)) {
+                    mark = String.valueOf(maxKey);
+                } else {
+                    try (Statement stmt = conn.createStatement();
+                         ResultSet rs = stmt.executeQuery("SELECT MAX(`" + markColumn + "`) FROM `" + tableName + "`")) {
+                        rs.next();
+                        mark = rs.getString(1);
+                    }
+                }
+                if (mark != null) {
+                    next.set(tableName, markColumn, mark);
+                }
+                String previousMark = previous != null ? previous.get(tableName, markColumn) : null;
+                if (previousMark != null) {
+                    changedRows = "id".equals(markColumn)
+                        ? "`" + keyColumns.get(0) + "` > " + previousMark
+                        : "`" + markColumn + "` >= '" + previousMark + "'";
+                }
+                if (!keysStillPresent(conn, tableName, keyColumns, maxKey >= minKey, previous, next)) {
+                    System.out.println("⚠ Rows were removed from " + tableName + ", copying it whole");
+                    changedRows = null;
+                    markColumn = null;
+                }
+            }
+            
+            if (previous != null && previous.hasTable(tableName)) {
+                if (changedRows != null) {
+                    chunks.add(new ExportChunk(tableName, tableName + "_changes", changedRows, false, false, "REPLACE"));
+                    continue;
+                }
+                if (markColumn == null) {
+                    // Untracked table - replaced whole on replay
+                    addKeyRangeChunks(chunks, tableName, keyColumns, minKey, maxKey, false, true);
+                    continue;
+                }
+            }
+            addKeyRangeChunks(chunks, tableName, keyColumns, minKey, maxKey, true, false);
+        }
+        return chunks;
+    }
+    
+    /**
+     * Helper: Record the table's key fingerprint and check that every key the previous
+     * backup saw still exists. With an integer key only keys up to the previous maximum
+     * are compared, so new rows do not count; other keys are compared as a whole set.
+     */
+    private boolean keysStillPresent(Connection conn, String tableName, List<String> keyColumns, boolean integerKey,
+                                     Watermarks previous, Watermarks next) throws SQLException {
+        StringBuilder keys = new StringBuilder();
+        for (String column : keyColumns) {
+            keys.append(keys.length() > 0 ? ", " : "").append("`").append(column).append("`");
+        }
+        String hash = "CRC32(CONCAT_WS('|', " + keys + "))";
+        String previousMax = previous != null ? previous.get(tableName, "keys.max") : null;
+        String seen = integerKey && previousMax != null ? "`" + keyColumns.get(0) + "` <= " + previousMax : "TRUE";
+        
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*), COALESCE(BIT_XOR(" + hash + "), 0), " +
+                 "COALESCE(SUM(" + seen + "), 0), COALESCE(BIT_XOR(IF(" + seen + ", " + hash + ", 0)), 0), " +
+                 "MAX(`" + keyColumns.get(0) + "`) FROM `" + tableName + "`")) {
+            rs.next();
+            next.set(tableName, "keys", rs.getLong(1) + ":" + rs.getString(2));
+            if (integerKey) {
+                next.set(tableName, "keys.max", rs.getString(5) != null ? rs.getString(5) : "0");
+            }
+            String previousKeys = previous != null ? previous.get(tableName, "keys") : null;
+            return previousKeys == null || previousKeys.equals(rs.getLong(3) + ":" + rs.getString(4));
+        }
+    }
+    
+    /**
+     * Helper: One chunk per CHUNK_KEYS primary-key values (or one for the whole table)
+     */
+    private void addKeyRangeChunks(List<ExportChunk> chunks, String tableName, List<String> keyColumns,
+                                   long minKey, long maxKey, boolean withDefinition, boolean clearFirst) {
+        if (maxKey - minKey < CHUNK_KEYS) {
+            chunks.add(new ExportChunk(tableName, tableName, null, withDefinition, clearFirst, "INSERT"));
+            return;
+        }
+        
+        String key = "`" + keyColumns.get(0) + "`";
+        int part = 0;
+        for (long low = minKey; low <= maxKey; low += CHUNK_KEYS) {
+            long high = low + CHUNK_KEYS;
+            String where = high > maxKey ? key + " >= " + low : key + " >= " + low + " AND " + key + " < " + high;
+            chunks.add(new ExportChunk(tableName, tableName + "_part" + part, where,
+                withDefinition && part == 0, clearFirst && part == 0, "INSERT"));
+            part++;
         }
     }
     
     /**
-     * Export single table
+     * Views, routines and triggers of the database as {type, name}, dependencies first
      */
-    private void exportTable(Connection conn, PrintWriter writer, String tableName) 
+    private List<String[]> listSchemaObjects(Connection conn) throws SQLException {
+        List<String[]> objects = new ArrayList<>();
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT TABLE_NAME FROM information_schema.VIEWS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() ORDER BY TABLE_NAME")) {
+                while (rs.next()) {
+                    objects.add(new String[]{"VIEW", rs.getString(1)});
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT ROUTINE_TYPE, ROUTINE_NAME FROM information_schema.ROUTINES " +
+                    "WHERE ROUTINE_SCHEMA = DATABASE() ORDER BY ROUTINE_TYPE, ROUTINE_NAME")) {
+                while (rs.next()) {
+                    objects.add(new String[]{rs.getString(1), rs.getString(2)});
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery("SELECT TRIGGER_NAME FROM information_schema.TRIGGERS " +
+                    "WHERE TRIGGER_SCHEMA = DATABASE() ORDER BY EVENT_OBJECT_TABLE, ACTION_TIMING, " +
+                    "EVENT_MANIPULATION, ACTION_ORDER")) {
+                while (rs.next()) {
+                    objects.add(new String[]{"TRIGGER", rs.getString(1)});
+                }
+            }
+        }
+        return objects;
+    }
+    
+    /**
+     * Write the views, routines and triggers, after all data so triggers do not fire
+     * while rows load. Definers are left out; objects belong to the restoring account.
+     */
+    private void exportSchemaObjects(Connection conn, PrintWriter writer, List<String[]> objects) throws SQLException {
+        if (objects.isEmpty()) return;
+        
+        writer.println();
+        writer.println("-- Views, routines and triggers");
+        writer.println("DELIMITER ;;");
+        for (String[] object : objects) {
+            String name = "`" + object[1] + "`";
+            String definition;
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SHOW CREATE " + object[0] + " " + name)) {
+                // Views: (View, Create View, ...); routines and triggers: (name, sql_mode, definition, ...)
+                definition = rs.next() ? rs.getString("VIEW".equals(object[0]) ? 2 : 3) : null;
+            }
+            if (definition == null) {
+                System.out.println("⚠ Could not read the definition of " + object[0].toLowerCase() + " " + object[1] +
+                    " (missing privilege?) - not in this backup");
+                continue;
+            }
+            definition = definition.replaceFirst(
+                "(?i)\\s+DEFINER\\s*=\\s*(`[^`]*`|'[^']*'|\\S+)@(`[^`]*`|'[^']*'|\\S+)", "");
+            writer.println("DROP " + object[0] + " IF EXISTS " + name + ";;");
+            writer.println(definition + ";;");
+        }
+        writer.println("DELIMITER ;");
+    }
+    
+    /**
+     * Export one chunk of a table (rows streamed through a server-side cursor)
+     */
+    private long exportChunk(Connection conn, PrintWriter writer, ExportChunk chunk, BackupThrottle throttle) 
             throws SQLException {
         
-        System.out.println("  Backing up table: " + tableName);
+        long started = System.currentTimeMillis();
+        String tableName = chunk.tableName;
         
         // Get CREATE TABLE statement
-        Statement stmt = conn.createStatement();
-        ResultSet rs = stmt.executeQuery("SHOW CREATE TABLE " + tableName);
-        
-        if (rs.next()) {
-            writer.println("-- Table: " + tableName);
-            writer.println("DROP TABLE IF EXISTS `" + tableName + "`;");
-            writer.println(rs.getString(2) + ";");
-            writer.println();
+        if (chunk.withDefinition) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery("SHOW CREATE TABLE `" + tableName + "`")) {
+                if (rs.next()) {
+                    writer.println("-- Table: " + tableName);
+                    writer.println("DROP TABLE IF EXISTS `" + tableName + "`;");
+                    writer.println(rs.getString(2) + ";");
+                    writer.println();
+                }
+            }
+        } else if (chunk.clearFirst) {
+            writer.println("-- Table: " + tableName + " (replaced)");
+            writer.println("DELETE FROM `" + tableName + "`;");
         }
-        rs.close();
         
         // Get table data
-        rs = stmt.executeQuery("SELECT * FROM " + tableName);
-        ResultSetMetaData metaData = rs.getMetaData();
-        int columnCount = metaData.getColumnCount();
-        
-        int rowCount = 0;
-        while (rs.next()) {
-            if (rowCount == 0) {
-                writer.println("INSERT INTO `" + tableName + "` VALUES");
-            } else {
-                writer.println(",");
+        long rowCount = 0;
+        try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            stmt.setFetchSize(FETCH_SIZE);
+            ResultSet rs = stmt.executeQuery("SELECT * FROM `" + tableName + "`" +
+                (chunk.where != null ? " WHERE " + chunk.where : ""));
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columnCount = metaData.getColumnCount();
+            int[] types = new int[columnCount + 1];
+            for (int i = 1; i <= columnCount; i++) {
+                types[i] = metaData.getColumnType(i);
             }
             
-            writer.print("(");
-            for (int i = 1; i <= columnCount; i++) {
-                Object value = rs.getObject(i);
-                
-                if (value == null) {
-                    writer.print("NULL");
-                } else if (value instanceof String || value instanceof Date || 
-                           value instanceof Time || value instanceof Timestamp) {
-                    writer.print("'" + value.toString().replace("'", "''") + "'");
+            while (rs.next()) {
+                if (rowCount % ROWS_PER_INSERT == 0) {
+                    throttle.acquireRows(ROWS_PER_INSERT);
+                    if (rowCount > 0) writer.println(";");
+                    writer.println(chunk.verb + " INTO `" + tableName + "` VALUES");
                 } else {
-                    writer.print(value.toString());
+                    writer.println(",");
                 }
                 
-                if (i < columnCount) writer.print(", ");
+                writer.print('(');
+                for (int i = 1; i <= columnCount; i++) {
+                    if (i > 1) writer.print(", ");
+                    writeValue(writer, rs, i, types[i]);
+                }
+                writer.print(')');
+                rowCount++;
             }
-            writer.print(")");
-            rowCount++;
+            rs.close();
         }
         
         if (rowCount > 0) {
@@ -254,44 +890,149 @@ public class DatabaseBackup {
         }
         writer.println();
         
-        rs.close();
-        stmt.close();
-        
-        System.out.println("    ✓ Exported " + rowCount + " rows");
+        long millis = Math.max(1, System.currentTimeMillis() - started);
+        System.out.println("    ✓ Exported " + rowCount + " rows from " + chunk.label + " in " + millis + " ms (" +
+            (rowCount * 1000 / millis) + " rows/sec)");
+        return rowCount;
     }
     
     /**
-     * Compress backup file to ZIP
+     * Write one gzip part file, keeping the CRC-32 of its bytes for a stored zip entry
+     * and the SHA-256 of its SQL for the manifest; the SQL is paced by the MB/s limit
      */
-    private void compressBackup(String backupFilePath) throws IOException {
-        File sourceFile = new File(backupFilePath);
-        if (!sourceFile.exists()) {
-            throw new IOException("Backup file not found: " + backupFilePath);
-        }
-        
-        String zipFilePath = backupFilePath + ".zip";
-        
-        try (FileInputStream fis = new FileInputStream(sourceFile);
-             FileOutputStream fos = new FileOutputStream(zipFilePath);
-             ZipOutputStream zos = new ZipOutputStream(fos)) {
-            
-            ZipEntry zipEntry = new ZipEntry(sourceFile.getName());
-            zos.putNextEntry(zipEntry);
-            
-            byte[] buffer = new byte[8192];
-            int length;
-            while ((length = fis.read(buffer)) > 0) {
-                zos.write(buffer, 0, length);
+    private ExportPart writePart(File partFile, BackupThrottle throttle, PartBody body) throws Exception {
+        MessageDigest sqlDigest = MessageDigest.getInstance("SHA-256");
+        CheckedOutputStream checked = new CheckedOutputStream(
+            new BufferedOutputStream(new FileOutputStream(partFile), 64 * 1024), new CRC32());
+        long rows;
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new OutputStreamWriter(
+                throttle.wrap(new DigestOutputStream(ParallelGzipOutputStream.create(checked, config), sqlDigest)),
+                StandardCharsets.UTF_8), 64 * 1024))) {
+            rows = body.write(writer);
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("Write to backup part failed: " + partFile.getName());
             }
-            
+        }
+        return new ExportPart(partFile, checked.getChecksum().getValue(), rows,
+            BackupManifest.toHex(sqlDigest.digest()));
+    }
+    
+    /**
+     * Helper: Copy a finished part into the backup (stored zip entry, raw gzip member,
+     * or its SQL into the chunk store) and drop it
+     */
+    private void appendPart(OutputStream file, ZipOutputStream zos, boolean chunked, String entryName,
+                            ExportPart part) throws IOException {
+        if (zos != null) {
+            ZipEntry entry = new ZipEntry(entryName);
+            entry.setMethod(ZipEntry.STORED);
+            entry.setSize(part.file.length());
+            entry.setCompressedSize(part.file.length());
+            entry.setCrc(part.crc);
+            zos.putNextEntry(entry);
+            Files.copy(part.file.toPath(), zos);
             zos.closeEntry();
+        } else if (chunked) {
+            try (InputStream sql = new GZIPInputStream(new FileInputStream(part.file), 64 * 1024)) {
+                sql.transferTo(file);
+            }
+        } else {
+            // Concatenated gzip members decompress as one stream
+            Files.copy(part.file.toPath(), file);
         }
-        
-        // Delete original SQL file, keep only ZIP
-        sourceFile.delete();
-        
-        File zipFile = new File(zipFilePath);
-        System.out.println("✓ Backup compressed: " + formatFileSize(zipFile.length()));
+        part.file.delete();
+    }
+    
+    private File partFile(File tempFile, List<File> partFiles) {
+        File part = new File(tempFile.getPath() + ".part" + partFiles.size() + ".tmp");
+        partFiles.add(part);
+        return part;
+    }
+    
+    /**
+     * Helper: Write one column as a SQL literal, reading it with the getter for its type
+     */
+    private void writeValue(PrintWriter writer, ResultSet rs, int column, int type) throws SQLException {
+        switch (type) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT: {
+                long value = rs.getLong(column);
+                if (rs.wasNull()) {
+                    writer.print("NULL");
+                } else {
+                    writer.print(value);
+                }
+                return;
+            }
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE: {
+                double value = rs.getDouble(column);
+                if (rs.wasNull()) {
+                    writer.print("NULL");
+                } else {
+                    writer.print(value);
+                }
+                return;
+            }
+            case Types.DECIMAL:
+            case Types.NUMERIC: {
+                java.math.BigDecimal value = rs.getBigDecimal(column);
+                writer.print(value == null ? "NULL" : value.toPlainString());
+                return;
+            }
+            case Types.BINARY:
+            case Types.VARBINARY:
+            case Types.LONGVARBINARY:
+            case Types.BLOB: {
+                byte[] value = rs.getBytes(column);
+                if (value == null) {
+                    writer.print("NULL");
+                } else {
+                    writer.print("X'");
+                    for (byte b : value) {
+                        writer.print(HEX[(b >> 4) & 0xF]);
+                        writer.print(HEX[b & 0xF]);
+                    }
+                    writer.print('\'');
+                }
+                return;
+            }
+            default: {
+                // Text, dates and times: the server's own text form, quoted
+                String value = rs.getString(column);
+                if (value == null) {
+                    writer.print("NULL");
+                } else {
+                    writeQuoted(writer, value);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Helper: Quote a string literal with MySQL escaping (backslashes included)
+     */
+    private void writeQuoted(PrintWriter writer, String value) {
+        writer.print('\'');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\'': writer.print("\\'"); break;
+                case '\\': writer.print("\\\\"); break;
+                case '\n': writer.print("\\n"); break;
+                case '\r': writer.print("\\r"); break;
+                case '\0': writer.print("\\0"); break;
+                case '\u001A': writer.print("\\Z"); break;
+                default: writer.print(c);
+            }
+        }
+        writer.print('\'');
     }
     
     /**
@@ -302,18 +1043,34 @@ public class DatabaseBackup {
             config.getProperty("system.backup.retention.days", "30"));
         
         File backupDir = new File(BACKUP_DIR);
+        // Includes .tmp files left behind by a crash mid-backup
         File[] backups = backupDir.listFiles((dir, name) -> 
-            name.startsWith("rfid_backup_") && name.endsWith(".zip"));
+            name.startsWith("rfid_backup_") && (isBackupFile(name) || name.endsWith(".tmp")
+                || name.endsWith(".tmp" + BackupManifest.SIDECAR_SUFFIX) || name.endsWith(".tmp" + PhotoBackup.SUFFIX)));
         
         if (backups == null || backups.length == 0) return;
         
         long cutoffTime = System.currentTimeMillis() - 
             (retentionDays * 24L * 60L * 60L * 1000L);
         
+        // Keep the newest expired full backup and everything after it: retained increments replay on top of it
+        String keepFrom = null;
+        for (File backup : backups) {
+            String name = backup.getName();
+            if (isBackupFile(name) && !isIncremental(name) && backup.lastModified() < cutoffTime
+                    && (keepFrom == null || backupTimestamp(name).compareTo(keepFrom) > 0)) {
+                keepFrom = backupTimestamp(name);
+            }
+        }
+        
         int deletedCount = 0;
         for (File backup : backups) {
-            if (backup.lastModified() < cutoffTime) {
+            boolean needed = keepFrom != null && isBackupFile(backup.getName())
+                && backupTimestamp(backup.getName()).compareTo(keepFrom) >= 0;
+            if (backup.lastModified() < cutoffTime && !needed) {
                 if (backup.delete()) {
+                    manifestFile(backup).delete();
+                    photoListFile(backup).delete();
                     deletedCount++;
                     System.out.println("  Deleted old backup: " + backup.getName());
                 }
@@ -323,6 +1080,10 @@ public class DatabaseBackup {
         if (deletedCount > 0) {
             System.out.println("✓ Cleaned " + deletedCount + " old backup(s)");
         }
+        
+        // Chunks and photos that only the deleted backups referenced are freed here
+        ChunkStore.collectGarbage(backupDir);
+        new PhotoBackup(backupDir).collectGarbage();
     }
     
     /**
@@ -381,7 +1142,7 @@ public class DatabaseBackup {
     public void listBackups() {
         File backupDir = new File(BACKUP_DIR);
         File[] backups = backupDir.listFiles((dir, name) -> 
-            name.startsWith("rfid_backup_") && name.endsWith(".zip"));
+            name.startsWith("rfid_backup_") && isBackupFile(name));
         
         if (backups == null || backups.length == 0) {
             System.out.println("No backups found");
@@ -399,14 +1160,88 @@ public class DatabaseBackup {
     }
     
     /**
-     * Restore from backup (simplified version)
+     * Restore from backup: replays its full baseline and any increments in order,
+     * then verifies row counts (see DatabaseRestore)
      */
-    public void restoreFromBackup(String backupFileName) {
+    public boolean restoreFromBackup(String backupFileName) {
         System.out.println("⚠ WARNING: This will replace current database!");
         System.out.println("Make sure to create a backup of current data first.");
-        System.out.println("\nTo restore manually:");
-        System.out.println("1. Extract " + backupFileName);
-        System.out.println("2. Run: mysql -u root -p rfid_attendance < backup.sql");
+        
+        List<File> chain;
+        try {
+            chain = getRestoreChain(backupFileName);
+        } catch (RuntimeException e) {
+            System.out.println("❌ " + e.getMessage());
+            return false;
+        }
+        
+        System.out.println("Restoring from:");
+        for (File file : chain) {
+            System.out.println("  - " + file.getName());
+        }
+        return new DatabaseRestore().restore(chain);
+    }
+    
+    /**
+     * Check a backup against its manifest without restoring it (see BackupVerifier);
+     * live also compares its tables with the database
+     */
+    public boolean verifyBackup(String backupFileName, boolean live) {
+        File backupFile = new File(BACKUP_DIR + new File(backupFileName).getName());
+        if (!backupFile.exists()) {
+            System.out.println("❌ Backup not found: " + backupFileName);
+            return false;
+        }
+        return new BackupVerifier().verify(backupFile, live);
+    }
+    
+    /**
+     * Files to replay to restore the given backup: its full baseline, then every
+     * increment up to and including it (just the file itself for a full backup)
+     */
+    public List<File> getRestoreChain(String backupFileName) {
+        File[] backups = new File(BACKUP_DIR).listFiles((dir, name) -> 
+            name.startsWith("rfid_backup_") && isBackupFile(name));
+        List<File> sorted = new ArrayList<>();
+        if (backups != null) {
+            sorted.addAll(Arrays.asList(backups));
+        }
+        sorted.sort(Comparator.comparing(file -> backupTimestamp(file.getName())));
+        
+        int target = -1;
+        for (int i = 0; i < sorted.size(); i++) {
+            if (sorted.get(i).getName().equals(new File(backupFileName).getName())) {
+                target = i;
+            }
+        }
+        if (target < 0) {
+            throw new IllegalArgumentException("Backup not found: " + backupFileName);
+        }
+        
+        int baseline = target;
+        while (baseline >= 0 && isIncremental(sorted.get(baseline).getName())) {
+            baseline--;
+        }
+        if (baseline < 0) {
+            throw new IllegalStateException("No full backup found before " + backupFileName);
+        }
+        return new ArrayList<>(sorted.subList(baseline, target + 1));
+    }
+    
+    private static boolean isBackupFile(String name) {
+        return name.endsWith(".zip") || name.endsWith(".gz") || name.endsWith(ChunkStore.SUFFIX);
+    }
+    
+    private static boolean isIncremental(String name) {
+        return name.startsWith("rfid_backup_" + INCREMENTAL + "_");
+    }
+    
+    /**
+     * Helper: yyyyMMdd_HHmmss part of a backup file name (sorts chronologically)
+     */
+    private static String backupTimestamp(String name) {
+        String base = name.substring(0, name.indexOf(".sql"));
+        return base.substring(base.length() - 15);
     }
     
     /**
@@ -423,10 +1258,21 @@ public class DatabaseBackup {
      * Test backup system
      */
     public static void main(String[] args) {
-        System.out.println("=== Database Backup System Test ===\n");
-        
         DatabaseBackup backup = new DatabaseBackup();
         
+        // java DatabaseBackup restore <backup file name>
+        if (args.length == 2 && "restore".equals(args[0])) {
+            System.exit(backup.restoreFromBackup(args[1]) ? 0 : 1);
+        }
+        
+        // java DatabaseBackup verify <backup file name> [--live]
+        if (args.length >= 2 && "verify".equals(args[0])) {
+            boolean live = args.length > 2 && "--live".equals(args[2]);
+            System.exit(backup.verifyBackup(args[1], live) ? 0 : 1);
+        }
+        
+        System.out.println("=== Database Backup System Test ===\n");
+        
         // Perform manual backup
         boolean success = backup.performManualBackup();
         
@@ -437,4 +1283,114 @@ public class DatabaseBackup {
             System.out.println("\n❌ Backup test failed!");
         }
     }
+    
+    /**
+     * Per-table high-water marks of the last SQL-export backup (backup_watermarks.properties).
+     * Keys are "<table>.<mark>" plus "last.full", the timestamp of the current baseline.
+     */
+    private static class Watermarks {
+        private final Properties values = new Properties();
+        private final boolean incremental;
+        
+        /**
+         * Marks for a new backup; an increment on top of previous, or a baseline if null
+         */
+        Watermarks(Watermarks previous) {
+            incremental = previous != null;
+            if (previous != null) {
+                values.setProperty("last.full", previous.getLastFull());
+            }
+        }
+        
+        static Watermarks load() {
+            File file = new File(WATERMARK_FILE);
+            if (!file.exists()) return null;
+            Watermarks marks = new Watermarks(null);
+            try (InputStream in = new FileInputStream(file)) {
+                marks.values.load(in);
+                return marks;
+            } catch (IOException e) {
+                System.err.println("⚠ Could not read backup watermarks: " + e.getMessage());
+                return null;
+            }
+        }
+        
+        /**
+         * Write after the backup file is in place (temp file + rename)
+         */
+        void save(String timestamp) throws IOException {
+            if (!incremental) {
+                values.setProperty("last.full", timestamp);
+            }
+            File file = new File(WATERMARK_FILE);
+            File temp = new File(WATERMARK_FILE + ".tmp");
+            try (OutputStream out = new FileOutputStream(temp)) {
+                values.store(out, "Backup watermarks - delete to force a full backup");
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        
+        boolean isIncremental() {
+            return incremental;
+        }
+        
+        String getLastFull() {
+            return values.getProperty("last.full");
+        }
+        
+        boolean hasTable(String tableName) {
+            return values.containsKey(tableName + ".tracked");
+        }
+        
+        String get(String tableName, String mark) {
+            return values.getProperty(tableName + "." + mark);
+        }
+        
+        void set(String tableName, String mark, String value) {
+            values.setProperty(tableName + "." + mark, value);
+        }
+    }
+    
+    /**
+     * Contents of one part file
+     */
+    private interface PartBody {
+        long write(PrintWriter writer) throws Exception;    // Rows written
+    }
+    
+    /**
+     * One table, or primary-key range of a table, exported as its own part
+     */
+    private static class ExportChunk {
+        private final String tableName;
+        private final String label;
+        private final String where;           // null = whole table
+        private final boolean withDefinition; // DROP + CREATE TABLE first (full backup)
+        private final boolean clearFirst;     // DELETE existing rows first (whole-table copy in an increment)
+        private final String verb;            // INSERT, or REPLACE for changed rows
+        
+        ExportChunk(String tableName, String label, String where, boolean withDefinition,
+                    boolean clearFirst, String verb) {
+            this.tableName = tableName;
+            this.label = label;
+            this.where = where;
+            this.withDefinition = withDefinition;
+            this.clearFirst = clearFirst;
+            this.verb = verb;
+        }
+    }
+    
+    private static class ExportPart {
+        private final File file;
+        private final long crc;
+        private final long rows;
+        private final String sha256;
+        
+        ExportPart(File file, long crc, long rows, String sha256) {
+            this.file = file;
+            this.crc = crc;
+            this.rows = rows;
+            this.sha256 = sha256;
+        }
+    }
 }
@@ -0,0 +1,641 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * DatabaseRestore - In-app restore of DatabaseBackup archives
+ * Features: Streams zip/gzip archives without extracting, bounded insert batches, parallel per-table loading,
+ *           FK/unique checks off during load, row count and trigger verification, photo restore
+ *
+ * Statements for one table always go to the same worker connection, so a table's
+ * DROP/CREATE, DELETE and inserts stay in order while different tables load in
+ * parallel. Anything not tied to a table (views, routines, triggers) waits until
+ * all queued table work is done and runs on the coordinator connection.
+ */
+public class DatabaseRestore {
+    
+    private static final int BATCH_ROWS = 1000;          // Rows per INSERT sent to the server
+    private static final int BATCH_CHARS = 1000000;      // ...and at most ~1 MB of SQL (under max_allowed_packet)
+    private static final int QUEUE_CAPACITY = 32;        // Statements waiting per worker
+    
+    private static final Pattern INSERT_TABLE = Pattern.compile(
+        "(?is)^(INSERT|REPLACE)\\s+(?:IGNORE\\s+)?INTO\\s+`?([\\w$]+)`?");
+    private static final Pattern CLEAR_TABLE = Pattern.compile(
+        "(?is)^(?:DROP\\s+TABLE\\s+(?:IF\\s+EXISTS\\s+)?|DELETE\\s+FROM\\s+|TRUNCATE\\s+(?:TABLE\\s+)?)`?([\\w$]+)`?\\s*(.*)$");
+    private static final Pattern OTHER_TABLE = Pattern.compile(
+        "(?is)^(?:CREATE\\s+TABLE\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?|ALTER\\s+TABLE\\s+)`?([\\w$]+)`?");
+    private static final Pattern SESSION = Pattern.compile("(?is)^(SET|USE)\\s");
+    private static final Pattern CHECKS = Pattern.compile("(?i)FOREIGN_KEY_CHECKS|UNIQUE_CHECKS");
+    private static final Pattern TABLE_LOCKS = Pattern.compile("(?is)^(LOCK|UNLOCK)\\s+TABLES");
+    private static final Pattern VERSIONED_COMMENT = Pattern.compile("(?s)^/\\*!\\d*\\s*(.*?)\\s*\\*/$");
+    private static final Pattern VERSION_MARKERS = Pattern.compile("/\\*!\\d*|\\*/");
+    private static final Pattern CREATE_TRIGGER = Pattern.compile(
+        "(?is)^CREATE\\s+(?:DEFINER\\s*=\\s*\\S+\\s+)?TRIGGER\\s+(?:IF\\s+NOT\\s+EXISTS\\s+)?`?([\\w$]+)`?");
+    
+    private ConfigManager config;
+    private Connection coordinator;
+    private List<Worker> workers = new ArrayList<>();
+    private volatile Exception failure;
+    
+    // Expected rows per table: {rows inserted, rows inserted or replaced} since the table was last emptied
+    private Map<String, long[]> expectedRows = new TreeMap<>();
+    private Set<String> expectedTriggers = new TreeSet<>();
+    private long statementCount = 0;
+    
+    public DatabaseRestore() {
+        this.config = ConfigManager.getInstance();
+    }
+    
+    /**
+     * Replay the given backup files in order (a full backup, then its increments)
+     * and verify row counts. Returns true if everything loaded and verified.
+     */
+    public boolean restore(List<File> backupFiles) {
+        System.out.println("\n=== Starting database restore ===");
+        long started = System.currentTimeMillis();
+        
+        try {
+            coordinator = openConnection();
+            for (int i = 0; i < Math.max(1, config.getBackupWorkers()); i++) {
+                Worker worker = new Worker(openConnection(), i);
+                workers.add(worker);
+                worker.start();
+            }
+            
+            for (File backupFile : backupFiles) {
+                System.out.println("  Loading " + backupFile.getName() + "...");
+                loadArchive(backupFile);
+            }
+            
+            barrier();
+            stopWorkers();
+            
+            long rows = 0;
+            for (long[] expected : expectedRows.values()) {
+                rows += expected[1];
+            }
+            long millis = Math.max(1, System.currentTimeMillis() - started);
+            System.out.println("✓ Loaded " + statementCount + " statements, " + rows + " rows in " + millis +
+                " ms (" + (rows * 1000 / millis) + " rows/sec)");
+            
+            // Closed periods were rewritten; cached reports for them never expire on their own
+            ReportCache.getInstance().invalidateAll();
+            
+            boolean verified = verifyRowCounts() & verifyTriggers();
+            
+            // Photos as of the last backup in the chain
+            File last = backupFiles.get(backupFiles.size() - 1).getAbsoluteFile();
+            boolean photos = !config.isPhotoBackupEnabled() ||
+                new PhotoBackup(last.getParentFile()).restore(new File(last.getPath() + PhotoBackup.SUFFIX));
+            
+            logRestore(backupFiles, verified && photos,
+                !verified ? "Row count or trigger mismatch" : !photos ? "Photos incomplete" : null);
+            return verified && photos;
+        
+        } catch (Exception e) {
+            System.err.println("❌ Restore failed: " + e.getMessage());
+            e.printStackTrace();
+            logRestore(backupFiles, false, e.getMessage());
+            return false;
+        } finally {
+            stopWorkers();
+            if (coordinator != null) {
+                try {
+                    coordinator.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+    
+    /**
+     * Stream every SQL script in the archive: .gz (one or more gzip members), or a
+     * zip whose entries are plain .sql (mysqldump) or .sql.gz parts (SQL export)
+     */
+    private void loadArchive(File backupFile) throws Exception {
+        InputStream file = new BufferedInputStream(new FileInputStream(backupFile), 64 * 1024);
+        try {
+            if (backupFile.getName().endsWith(".gz")) {
+                loadScript(new GZIPInputStream(file, 64 * 1024));
+                return;
+            }
+            if (backupFile.getName().endsWith(ChunkStore.SUFFIX)) {
+                try (InputStream sql = ChunkStore.open(backupFile)) {
+                    loadScript(sql);
+                }
+                return;
+            }
+            
+            ZipInputStream zis = new ZipInputStream(file);
+            ZipEntry entry;
+            while ((entry = zis.getNextEntry()) != null) {
+                if (entry.isDirectory() || !isSqlEntry(entry.getName())) continue; // e.g. manifest.properties
+                // Entry streams end at the entry boundary; the zip stream is closed below
+                loadScript(entry.getName().endsWith(".gz") ? new GZIPInputStream(zis, 64 * 1024) : zis);
+            }
+        } finally {
+            file.close();
+        }
+    }
+    
+    private void loadScript(InputStream in) throws Exception {
+        SqlStatementReader reader = new SqlStatementReader(
+            new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024));
+        SqlStatement statement;
+        while ((statement = reader.next()) != null) {
+            dispatch(statement);
+            statementCount++;
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+    
+    /**
+     * Route one statement: table statements to the table's worker, session settings
+     * to every connection, everything else to the coordinator after a barrier
+     */
+    private void dispatch(SqlStatement statement) throws Exception {
+        String core = coreText(statement.sql);
+        
+        if (TABLE_LOCKS.matcher(core).lookingAt()) {
+            return; // Per-connection locks would only serialize the workers
+        }
+        if (SESSION.matcher(core).lookingAt()) {
+            if (CHECKS.matcher(core).find()) {
+                return; // Checks stay off for the whole load
+            }
+            for (Worker worker : workers) {
+                worker.submit(statement.sql);
+            }
+            execute(coordinator, statement.sql);
+            return;
+        }
+        
+        Matcher m = INSERT_TABLE.matcher(core);
+        if (m.lookingAt()) {
+            long[] expected = expectedRows.computeIfAbsent(m.group(2), t -> new long[2]);
+            if ("INSERT".equalsIgnoreCase(m.group(1)) && !m.group(0).toUpperCase().contains("IGNORE")) {
+                expected[0] += statement.rows;
+            }
+            expected[1] += statement.rows;
+            workerFor(m.group(2)).submit(statement.sql);
+            return;
+        }
+        
+        m = CLEAR_TABLE.matcher(core);
+        if (m.matches()) {
+            long[] expected = expectedRows.computeIfAbsent(m.group(1), t -> new long[2]);
+            if (m.group(2).trim().isEmpty()) {
+                expected[1] = 0;
+            }
+            expected[0] = 0;
+            workerFor(m.group(1)).submit(statement.sql);
+            return;
+        }
+        
+        m = OTHER_TABLE.matcher(core);
+        if (m.lookingAt()) {
+            workerFor(m.group(1)).submit(statement.sql);
+            return;
+        }
+        
+        // mysqldump wraps trigger definitions in several versioned comments
+        m = CREATE_TRIGGER.matcher(VERSION_MARKERS.matcher(core).replaceAll(" ").trim());
+        if (m.lookingAt()) {
+            expectedTriggers.add(m.group(1));
+        }
+        barrier();
+        execute(coordinator, statement.sql);
+    }
+    
+    /**
+     * Wait until every worker has run everything queued so far
+     */
+    private void barrier() throws Exception {
+        CountDownLatch latch = new CountDownLatch(workers.size());
+        for (Worker worker : workers) {
+            worker.queue.put(new Task(null, latch));
+        }
+        latch.await();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+    
+    private void stopWorkers() {
+        try {
+            // Workers keep draining after a failure, so put() never blocks for long
+            for (Worker worker : workers) {
+                worker.queue.put(new Task(null, null));
+            }
+            for (Worker worker : workers) {
+                worker.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        workers.clear();
+    }
+    
+    private Worker workerFor(String table) {
+        return workers.get(Math.floorMod(table.toLowerCase().hashCode(), workers.size()));
+    }
+    
+    /**
+     * Compare live row counts with what the backup files put into each table.
+     * Exact for plain inserts; replaced rows may or may not have been new.
+     */
+    private boolean verifyRowCounts() throws SQLException {
+        int mismatches = 0;
+        try (Statement stmt = coordinator.createStatement()) {
+            for (Map.Entry<String, long[]> e : expectedRows.entrySet()) {
+                long actual;
+                try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM `" + e.getKey() + "`")) {
+                    rs.next();
+                    actual = rs.getLong(1);
+                }
+                long min = e.getValue()[0];
+                long max = e.getValue()[1];
+                if (actual < min || actual > max) {
+                    mismatches++;
+                    System.out.println("❌ " + e.getKey() + ": " + actual + " rows, expected " +
+                        (min == max ? String.valueOf(min) : min + "-" + max));
+                }
+            }
+        }
+        
+        if (mismatches == 0) {
+            System.out.println("✓ Row counts verified for " + expectedRows.size() + " table(s)");
+        }
+        return mismatches == 0;
+    }
+    
+    /**
+     * Check that every trigger the backup files created exists after the load
+     */
+    private boolean verifyTriggers() throws SQLException {
+        Set<String> missing = new TreeSet<>(expectedTriggers);
+        try (Statement stmt = coordinator.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT TRIGGER_NAME FROM information_schema.TRIGGERS " +
+                 "WHERE TRIGGER_SCHEMA = DATABASE()")) {
+            while (rs.next()) {
+                missing.remove(rs.getString(1));
+            }
+        }
+        
+        for (String trigger : missing) {
+            System.out.println("❌ Trigger " + trigger + " is missing after the restore");
+        }
+        if (missing.isEmpty() && !expectedTriggers.isEmpty()) {
+            System.out.println("✓ Triggers verified (" + expectedTriggers.size() + ")");
+        }
+        return missing.isEmpty();
+    }
+    
+    private Connection openConnection() throws SQLException {
+        Connection conn = DriverManager.getConnection(
+            config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+            config.getDatabaseUser(),
+            config.getDatabasePassword());
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("SET FOREIGN_KEY_CHECKS=0");
+            stmt.execute("SET UNIQUE_CHECKS=0");
+        }
+        return conn;
+    }
+    
+    private static void execute(Connection conn, String sql) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+        }
+    }
+    
+    /**
+     * Helper: Statement text without leading comments, unwrapping a statement that is
+     * a single versioned comment (mysqldump's "/*!40101 SET ..." lines)
+     */
+    static String coreText(String sql) {
+        String core = stripLeadingComments(sql);
+        Matcher m = VERSIONED_COMMENT.matcher(core);
+        return m.matches() ? m.group(1) : core;
+    }
+    
+    /**
+     * Helper: Table an INSERT/REPLACE statement writes to, or null for other statements
+     */
+    static String insertedTable(String sql) {
+        Matcher m = INSERT_TABLE.matcher(coreText(sql));
+        return m.lookingAt() ? m.group(2) : null;
+    }
+    
+    static boolean isSqlEntry(String name) {
+        return name.endsWith(".sql") || name.endsWith(".sql.gz");
+    }
+    
+    /**
+     * Helper: Drop leading whitespace and comments (versioned /*! comments are kept, they execute)
+     */
+    static String stripLeadingComments(String sql) {
+        int i = 0;
+        int n = sql.length();
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '#' || sql.startsWith("-- ", i) || sql.startsWith("--\t", i) || sql.startsWith("--\n", i)) {
+                int end = sql.indexOf('\n', i);
+                i = end < 0 ? n : end + 1;
+            } else if (sql.startsWith("/*", i) && !sql.startsWith("/*!", i)) {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+            } else {
+                break;
+            }
+        }
+        return sql.substring(i);
+    }
+    
+    /**
+     * Log restore operation to database
+     */
+    private void logRestore(List<File> backupFiles, boolean success, String error) {
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                config.getDatabaseUser(),
+                config.getDatabasePassword())) {
+            
+            StringBuilder files = new StringBuilder();
+            for (File file : backupFiles) {
+                if (files.length() > 0) files.append(" + ");
+                files.append(file.getName());
+            }
+            
+            String sql = "INSERT INTO audit_logs (user_id, action, details) VALUES (NULL, ?, ?)";
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            stmt.setString(1, "DATABASE_RESTORE");
+            stmt.setString(2, "Files: " + files + ", Success: " + success +
+                (error != null ? ", Error: " + error : ""));
+            stmt.executeUpdate();
+            stmt.close();
+        
+        } catch (SQLException e) {
+            // Don't throw exception, just log to console
+            System.err.println("⚠ Could not log restore to database: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * One loader connection and its statement queue
+     */
+    private class Worker extends Thread {
+        private final Connection conn;
+        private final BlockingQueue<Task> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        
+        Worker(Connection conn, int index) {
+            super("RestoreWorker-" + index);
+            this.conn = conn;
+            setDaemon(true);
+        }
+        
+        void submit(String sql) throws InterruptedException {
+            queue.put(new Task(sql, null));
+        }
+        
+        @Override
+        public void run() {
+            try (Statement stmt = conn.createStatement()) {
+                while (true) {
+                    Task task = queue.take();
+                    if (task.latch != null) {
+                        task.latch.countDown();
+                    } else if (task.sql == null) {
+                        break;
+                    } else if (failure == null) {
+                        // After a failure keep draining so the reader never blocks
+                        try {
+                            stmt.execute(task.sql);
+                        } catch (SQLException e) {
+                            failure = e;
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                try {
+                    conn.close();
+                } catch (SQLException ignored) {
+                }
+            }
+        }
+    }
+    
+    /**
+     * Statement to run, barrier latch, or (both null) stop signal
+     */
+    private static class Task {
+        private final String sql;
+        private final CountDownLatch latch;
+        
+        Task(String sql, CountDownLatch latch) {
+            this.sql = sql;
+            this.latch = latch;
+        }
+    }
+    
+    static class SqlStatement {
+        final String sql;
+        final int rows;    // VALUES tuples, for INSERT/REPLACE
+        
+        SqlStatement(String sql, int rows) {
+            this.sql = sql;
+            this.rows = rows;
+        }
+    }
+    
+    /**
+     * Streaming SQL script reader. Splits on the current delimiter outside quotes,
+     * comments and parentheses, honours DELIMITER lines (mysqldump routines), and
+     * cuts long multi-row INSERT/REPLACE statements into bounded batches.
+     */
+    static class SqlStatementReader {
+        private static final Pattern INSERT_PREFIX = Pattern.compile("(?is)^(INSERT|REPLACE)\\b.*\\bVALUES\\s*$");
+        private static final Pattern DELIMITER_COMMAND = Pattern.compile("(?is)^DELIMITER\\s+(\\S+)\\s*$");
+        
+        private final Reader in;
+        private final StringBuilder sb = new StringBuilder();
+        private String delimiter = ";";
+        
+        private char quote = 0;
+        private boolean escape = false;
+        private boolean lineComment = false;
+        private int blockCommentStart = -1;
+        private int depth = 0;
+        
+        private boolean insertChecked = false;
+        private String insertPrefix;       // e.g. "INSERT INTO `attendance` VALUES "
+        private int tuples = 0;
+        private boolean cutPending = false;
+        
+        SqlStatementReader(Reader in) {
+            this.in = in;
+        }
+        
+        /**
+         * Next executable statement (without its delimiter), or null at end of input
+         */
+        SqlStatement next() throws IOException {
+            int ch;
+            while ((ch = in.read()) != -1) {
+                char c = (char) ch;
+                
+                if (lineComment) {
+                    sb.append(c);
+                    if (c == '\n') lineComment = false;
+                    continue;
+                }
+                if (blockCommentStart >= 0) {
+                    sb.append(c);
+                    if (c == '/' && sb.length() - blockCommentStart >= 4 && sb.charAt(sb.length() - 2) == '*') {
+                        blockCommentStart = -1;
+                    }
+                    continue;
+                }
+                if (quote != 0) {
+                    sb.append(c);
+                    if (escape) {
+                        escape = false;
+                    } else if (c == '\\' && quote != '`') {
+                        escape = true;
+                    } else if (c == quote) {
+                        quote = 0;
+                    }
+                    continue;
+                }
+                
+                if (cutPending && !Character.isWhitespace(c)) {
+                    cutPending = false;
+                    if (c == ',') {
+                        // Batch full: emit it and continue the same INSERT with the next tuple
+                        SqlStatement batch = new SqlStatement(sb.toString().trim(), tuples);
+                        sb.setLength(0);
+                        sb.append(insertPrefix);
+                        tuples = 0;
+                        return batch;
+                    }
+                }
+                
+                sb.append(c);
+                if (c == '\'' || c == '"' || c == '`') {
+                    quote = c;
+                } else if (depth == 0 && c == '#') {
+                    lineComment = true;
+                } else if (depth == 0 && (c == ' ' || c == '\t') && endsWith("--" + c)) {
+                    lineComment = true;
+                } else if (depth == 0 && c == '*' && endsWith("/*")) {
+                    blockCommentStart = sb.length() - 2;
+                } else if (c == '(') {
+                    depth++;
+                    if (depth == 1 && !insertChecked) {
+                        checkInsertPrefix();
+                    }
+                } else if (c == ')') {
+                    depth = Math.max(0, depth - 1);
+                    if (depth == 0 && insertPrefix != null) {
+                        tuples++;
+                        if (tuples >= BATCH_ROWS || sb.length() >= BATCH_CHARS) {
+                            cutPending = true;
+                        }
+                    }
+                } else if (c == '\n' && depth == 0 && checkDelimiterCommand()) {
+                    continue;
+                }
+                
+                if (depth == 0 && endsWith(delimiter) && !isDelimiterCommand()) {
+                    String sql = sb.substring(0, sb.length() - delimiter.length()).trim();
+                    int rows = insertPrefix != null ? tuples : 0;
+                    reset();
+                    if (!stripLeadingComments(sql).isEmpty()) {
+                        return new SqlStatement(sql, rows);
+                    }
+                }
+            }
+            
+            checkDelimiterCommand();
+            String sql = sb.toString().trim();
+            int rows = insertPrefix != null ? tuples : 0;
+            reset();
+            return stripLeadingComments(sql).isEmpty() ? null : new SqlStatement(sql, rows);
+        }
+        
+        /**
+         * Helper: At the first top-level "(" decide whether this is a multi-row insert
+         */
+        private void checkInsertPrefix() {
+            String before = stripLeadingComments(sb.substring(0, sb.length() - 1));
+            if (!before.regionMatches(true, 0, "INSERT", 0, 6) && !before.regionMatches(true, 0, "REPLACE", 0, 7)) {
+                insertChecked = true;
+                return;
+            }
+            if (INSERT_PREFIX.matcher(before).matches()) {
+                insertPrefix = before;
+                insertChecked = true;
+            }
+            // Otherwise this was a column list; check again at the next "("
+        }
+        
+        /**
+         * Helper: A "DELIMITER x" client command line switches the delimiter and is not sent
+         */
+        private boolean checkDelimiterCommand() {
+            if (insertPrefix != null || sb.length() > 4096) {
+                return false; // DELIMITER lines are short and never inside an INSERT
+            }
+            Matcher m = DELIMITER_COMMAND.matcher(stripLeadingComments(sb.toString()));
+            if (m.matches()) {
+                delimiter = m.group(1);
+                reset();
+                return true;
+            }
+            return false;
+        }
+        
+        /**
+         * Helper: The current line is a DELIMITER command (ends at the newline, not at a delimiter)
+         */
+        private boolean isDelimiterCommand() {
+            return insertPrefix == null && sb.length() <= 4096
+                && stripLeadingComments(sb.toString()).regionMatches(true, 0, "DELIMITER", 0, 9);
+        }
+        
+        private boolean endsWith(String suffix) {
+            int start = sb.length() - suffix.length();
+            if (start < 0) return false;
+            for (int i = 0; i < suffix.length(); i++) {
+                if (sb.charAt(start + i) != suffix.charAt(i)) return false;
+            }
+            return true;
+        }
+        
+        private void reset() {
+            sb.setLength(0);
+            depth = 0;
+            insertChecked = false;
+            insertPrefix = null;
+            tuples = 0;
+            cutPending = false;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * LatencyHistogram - Lock-free latency histogram in microseconds
+ * Features: Log-linear buckets (~6% resolution, 1 us to days), percentiles, max/mean,
+ *           merging, rolling time windows (see Rolling)
+ *
+ * Recording is a few atomic increments, so it is safe on the kiosk scan path from any
+ * thread. Percentiles report the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram {
+    
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;            // per power of two
+    private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong totalMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+    
+    /**
+     * Record one duration measured with System.nanoTime()
+     */
+    public void record(long nanos) {
+        recordMicros(Math.max(0, nanos / 1000));
+    }
+    
+    public void recordMicros(long micros) {
+        counts.incrementAndGet(bucket(micros));
+        totalMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+    
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            count += counts.get(i);
+        }
+        return count;
+    }
+    
+    public long getMaxMicros() {
+        return maxMicros.get();
+    }
+    
+    public double getMeanMicros() {
+        long count = getCount();
+        return count > 0 ? (double) totalMicros.get() / count : 0;
+    }
+    
+    /**
+     * Value at the given percentile (0-100) in microseconds, 0 when empty
+     */
+    public long getPercentileMicros(double percentile) {
+        long count = getCount();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), maxMicros.get());
+            }
+        }
+        return maxMicros.get();
+    }
+    
+    public double getPercentileMillis(double percentile) {
+        return getPercentileMicros(percentile) / 1000.0;
+    }
+    
+    /**
+     * Add another histogram's samples to this one
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < BUCKETS; i++) {
+            long n = other.counts.get(i);
+            if (n != 0) counts.addAndGet(i, n);
+        }
+        totalMicros.addAndGet(other.totalMicros.get());
+        maxMicros.accumulateAndGet(other.maxMicros.get(), Math::max);
+    }
+    
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        totalMicros.set(0);
+        maxMicros.set(0);
+    }
+    
+    /**
+     * One-line summary, e.g. "n=120 p50=41.0 ms p95=88.0 ms p99=120.0 ms max=131.2 ms"
+     */
+    public String summary() {
+        return String.format("n=%d p50=%.1f ms p95=%.1f ms p99=%.1f ms max=%.1f ms",
+            getCount(), getPercentileMillis(50), getPercentileMillis(95), getPercentileMillis(99),
+            getMaxMicros() / 1000.0);
+    }
+    
+    /**
+     * Helper: Bucket index - exact below 16 us, then 16 buckets per power of two
+     */
+    private static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) return (int) micros;
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int mantissa = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+    
+    private static long upperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long mantissa = bucket % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return ((SUB_BUCKETS + mantissa) << (exponent - SUB_BUCKET_BITS)) + width - 1;
+    }
+    
+    /**
+     * Histogram over the last slots * slotMillis, kept as a ring of per-slot histograms.
+     * A slot is cleared by the first sample of its next turn, so samples racing that
+     * reset at a slot boundary may be dropped - fine for live load signals.
+     */
+    public static class Rolling {
+        private final long slotMillis;
+        private final LatencyHistogram[] slots;
+        private final AtomicLongArray slotNumbers;   // time slot each histogram currently holds
+        
+        public Rolling(long slotMillis, int slotCount) {
+            this.slotMillis = slotMillis;
+            this.slots = new LatencyHistogram[slotCount];
+            this.slotNumbers = new AtomicLongArray(slotCount);
+            for (int i = 0; i < slotCount; i++) {
+                slots[i] = new LatencyHistogram();
+                slotNumbers.set(i, -1);
+            }
+        }
+        
+        public void record(long nanos) {
+            long slot = System.currentTimeMillis() / slotMillis;
+            int index = (int) (slot % slots.length);
+            long held = slotNumbers.get(index);
+            if (held != slot && slotNumbers.compareAndSet(index, held, slot)) {
+                slots[index].reset();
+            }
+            slots[index].record(nanos);
+        }
+        
+        /**
+         * Samples of the whole window, merged into a new histogram
+         */
+        public LatencyHistogram snapshot() {
+            long current = System.currentTimeMillis() / slotMillis;
+            LatencyHistogram merged = new LatencyHistogram();
+            for (int i = 0; i < slots.length; i++) {
+                if (slotNumbers.get(i) > current - slots.length) {
+                    merged.add(slots[i]);
+                }
+            }
+            return merged;
+        }
+    }
+}
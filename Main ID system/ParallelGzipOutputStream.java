@@ -0,0 +1,294 @@
+import java.io.*;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ParallelGzipOutputStream - gzip compression spread over several cores (pigz-style)
+ * Features: Fixed-size input blocks deflated concurrently, output kept in order,
+ *           standard single-member gzip readable by gzip/GZIPInputStream, benchmark (main)
+ *
+ * Each block is deflated on its own, primed with the last 32 KB of the block before it
+ * so the ratio stays close to a single-threaded stream, and ends on a byte boundary
+ * (sync flush) so the compressed blocks can simply be concatenated. The CRC-32 and
+ * length for the gzip trailer are taken as data is written. All streams share one
+ * daemon pool, so parallel export workers do not multiply the compression threads.
+ * When the thread setting changes, the pool is replaced; open streams send their
+ * next blocks to the new pool while the old one finishes what it already has.
+ */
+public class ParallelGzipOutputStream extends OutputStream {
+    
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final byte[] HEADER = {
+        0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff
+    };
+    
+    private static ExecutorService sharedPool;
+    private static int sharedThreads;
+    
+    private final OutputStream out;
+    private final int level;
+    private final int blockSize;
+    private final int maxInFlight;
+    private final Deque<Future<byte[]>> pending = new ArrayDeque<>();
+    private final CRC32 crc = new CRC32();
+    
+    private byte[] block;
+    private int length = 0;
+    private byte[] dictionary = null;
+    private long totalIn = 0;
+    private boolean closed = false;
+    
+    public ParallelGzipOutputStream(OutputStream out, int level, int blockSize, int threads) throws IOException {
+        this.out = out;
+        this.level = level;
+        this.blockSize = Math.max(DICTIONARY_SIZE, blockSize);
+        pool(threads);
+        this.maxInFlight = 2 * (threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+        this.block = new byte[this.blockSize];
+        out.write(HEADER);
+    }
+    
+    /**
+     * Stream with the block size and thread count from the backup settings
+     */
+    public static ParallelGzipOutputStream create(OutputStream out, ConfigManager config) throws IOException {
+        return new ParallelGzipOutputStream(out, config.getBackupCompressionLevel(),
+            config.getBackupCompressionBlockKB() * 1024, config.getBackupCompressionThreads());
+    }
+    
+    /**
+     * Helper: Shared compression pool, rebuilt when the thread count setting changes.
+     * Blocks queued on a replaced pool still run (shutdown, not shutdownNow).
+     */
+    private static synchronized ExecutorService pool(int threads) {
+        int count = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        if (sharedPool == null || sharedThreads != count) {
+            if (sharedPool != null) {
+                sharedPool.shutdown();      // Running streams finish the blocks already queued
+            }
+            AtomicInteger number = new AtomicInteger();
+            ThreadFactory factory = task -> {
+                Thread thread = new Thread(task, "backup-compress-" + number.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            sharedPool = Executors.newFixedThreadPool(count, factory);
+            sharedThreads = count;
+        }
+        return sharedPool;
+    }
+    
+    @Override
+    public void write(int b) throws IOException {
+        block[length++] = (byte) b;
+        if (length == blockSize) {
+            submit(false);
+        }
+    }
+    
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = Math.min(len, blockSize - length);
+            System.arraycopy(b, off, block, length, n);
+            length += n;
+            off += n;
+            len -= n;
+            if (length == blockSize) {
+                submit(false);
+            }
+        }
+    }
+    
+    /**
+     * Writes out the blocks already compressed; a partly filled block waits for more data
+     */
+    @Override
+    public void flush() throws IOException {
+        while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+            out.write(take());
+        }
+        out.flush();
+    }
+    
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            submit(true);
+            while (!pending.isEmpty()) {
+                out.write(take());
+            }
+            writeTrailer();
+        } finally {
+            for (Future<byte[]> future : pending) {
+                future.cancel(true);
+            }
+            out.close();
+        }
+    }
+    
+    /**
+     * Helper: Queue the current block; the last one (possibly empty) ends the deflate stream
+     */
+    private void submit(boolean last) throws IOException {
+        byte[] data = block;
+        int size = length;
+        byte[] primer = dictionary;
+        crc.update(data, 0, size);
+        totalIn += size;
+        if (size >= DICTIONARY_SIZE) {
+            dictionary = Arrays.copyOfRange(data, size - DICTIONARY_SIZE, size);
+        }
+        pending.addLast(submitToSharedPool(() -> deflate(data, size, primer, last)));
+        block = new byte[blockSize];
+        length = 0;
+        
+        while (pending.size() > maxInFlight) {
+            out.write(take());
+        }
+    }
+    
+    /**
+     * Helper: Queue on the current pool; locked against the pool being replaced meanwhile
+     */
+    private static synchronized Future<byte[]> submitToSharedPool(Callable<byte[]> task) {
+        return sharedPool.submit(task);
+    }
+    
+    private byte[] take() throws IOException {
+        try {
+            return pending.removeFirst().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Compression interrupted");
+        } catch (ExecutionException e) {
+            throw new IOException("Compression failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+    
+    private byte[] deflate(byte[] data, int size, byte[] primer, boolean last) {
+        Deflater deflater = new Deflater(level, true);
+        try {
+            if (primer != null) {
+                deflater.setDictionary(primer);
+            }
+            deflater.setInput(data, 0, size);
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(size / 2 + 64);
+            byte[] buffer = new byte[64 * 1024];
+            if (last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    compressed.write(buffer, 0, deflater.deflate(buffer));
+                }
+            } else {
+                int n;
+                do {
+                    n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                    compressed.write(buffer, 0, n);
+                } while (n == buffer.length);
+            }
+            return compressed.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+    
+    private void writeTrailer() throws IOException {
+        long value = crc.getValue();
+        byte[] trailer = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            trailer[i] = (byte) (value >>> (8 * i));
+            trailer[4 + i] = (byte) (totalIn >>> (8 * i));
+        }
+        out.write(trailer);
+    }
+    
+    /**
+     * Benchmark: compress generated SQL single-threaded and with 1..N threads, checking
+     * every result decompresses to the input. Usage: ParallelGzipOutputStream [MB] [level]
+     */
+    public static void main(String[] args) throws IOException {
+        int megabytes = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int level = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        int blockSize = 128 * 1024;
+        byte[] data = sampleSql(megabytes * 1024 * 1024);
+        System.out.println("=== Backup compression benchmark: " + megabytes + " MB of SQL, level " + level +
+            ", " + Runtime.getRuntime().availableProcessors() + " core(s) ===");
+        
+        double baseline = benchmark("GZIPOutputStream", data, out -> new GZIPOutputStream(out, 64 * 1024) {
+            {
+                def.setLevel(level);
+            }
+        });
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(threads * 2, cores)) {
+            int count = threads;
+            double rate = benchmark("parallel, " + count + " thread(s)", data,
+                out -> new ParallelGzipOutputStream(out, level, blockSize, count));
+            System.out.println(String.format("    %.2fx single-threaded gzip", rate / baseline));
+            if (threads >= cores) break;
+        }
+    }
+    
+    private interface StreamFactory {
+        OutputStream open(OutputStream out) throws IOException;
+    }
+    
+    private static double benchmark(String name, byte[] data, StreamFactory factory) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(data.length / 4);
+        long started = System.nanoTime();
+        try (OutputStream out = factory.open(compressed)) {
+            for (int off = 0; off < data.length; off += 8192) {
+                out.write(data, off, Math.min(8192, data.length - off));
+            }
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        
+        byte[] restored;
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed.toByteArray()))) {
+            restored = in.readAllBytes();
+        }
+        if (!Arrays.equals(data, restored)) {
+            throw new IOException(name + ": decompressed data does not match");
+        }
+        double rate = data.length / seconds / (1024 * 1024);
+        System.out.println(String.format("✓ %-28s %8.1f MB/s, ratio %.1f%%", name, rate,
+            100.0 * compressed.size() / data.length));
+        return rate;
+    }
+    
+    private static byte[] sampleSql(int size) {
+        Random random = new Random(42);
+        String[] names = {"Santos", "Reyes", "Cruz", "Garcia", "Mendoza", "Torres", "Flores", "Ramos"};
+        ByteArrayOutputStream sql = new ByteArrayOutputStream(size + 1024);
+        PrintWriter writer = new PrintWriter(new OutputStreamWriter(sql));
+        int id = 1;
+        while (sql.size() < size) {
+            writer.print("INSERT INTO `attendance` VALUES ");
+            for (int i = 0; i < 100; i++, id++) {
+                writer.printf("%s(%d, '%08X', '%s', '2026-%02d-%02d %02d:%02d:%02d', %d)", i > 0 ? ", " : "",
+                    id, random.nextInt(), names[random.nextInt(names.length)], 1 + random.nextInt(12),
+                    1 + random.nextInt(28), 7 + random.nextInt(10), random.nextInt(60), random.nextInt(60),
+                    random.nextInt(40));
+            }
+            writer.println(";");
+            writer.flush();
+        }
+        return Arrays.copyOf(sql.toByteArray(), size);
+    }
+}
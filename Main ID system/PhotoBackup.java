@@ -0,0 +1,322 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * PhotoBackup - Incremental backup of the user photo directory
+ * Features: Persistent hash index (path, size, mtime, SHA-256), parallel hashing of new or changed
+ *           photos, content-addressed photo store shared by all backups, restore, unreferenced-photo GC
+ *
+ * Each backup gets a photo list (<backup>.photos) naming every photo present at the
+ * time by SHA-256, size and path relative to the photo directory. Contents are kept
+ * once under backups/photos/ by hash, so a nightly run only reads files whose size or
+ * mtime changed since the index was written, and only stores content not seen before.
+ */
+public class PhotoBackup {
+    
+    public static final String SUFFIX = ".photos";
+    private static final String STORE_DIR = "photos";
+    private static final String INDEX_FILE = "photo_index.properties";
+    private static final long GC_GRACE_MILLIS = 24L * 60L * 60L * 1000L;
+    
+    private final File backupDir;
+    private final File storeDir;
+    private final File photoDir;
+    private final int workers;
+    
+    private final AtomicInteger storedCount = new AtomicInteger();
+    private final AtomicLong storedBytes = new AtomicLong();
+    
+    public PhotoBackup(File backupDir) {
+        ConfigManager config = ConfigManager.getInstance();
+        this.backupDir = backupDir;
+        this.storeDir = new File(backupDir, STORE_DIR);
+        this.photoDir = new File(config.getPhotoDirectory());
+        this.workers = Math.max(1, config.getBackupWorkers());
+    }
+    
+    /**
+     * Store new or changed photos and write the photo list for one backup;
+     * photo reads are paced by the backup's throttle
+     */
+    public void backup(File listFile, BackupThrottle throttle) throws Exception {
+        long started = System.currentTimeMillis();
+        Properties index = loadIndex();
+        Properties nextIndex = new Properties();
+        Map<String, String[]> entries = new TreeMap<>();   // path -> {sha256, size}
+        Map<String, Future<String>> hashing = new TreeMap<>();
+        Map<String, long[]> observed = new TreeMap<>();     // path -> {size, mtime} before reading
+        
+        storeDir.mkdirs();
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try {
+            for (Path file : listPhotos()) {
+                String path = relativePath(file);
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                long size = attrs.size();
+                long mtime = attrs.lastModifiedTime().toMillis();
+                
+                // Unchanged since the last run and still stored - no need to read it
+                String[] cached = index.getProperty(path, "").split(" ");
+                if (cached.length == 3 && cached[0].equals(String.valueOf(size))
+                        && cached[1].equals(String.valueOf(mtime)) && storedFile(cached[2]).exists()) {
+                    entries.put(path, new String[]{cached[2], cached[0]});
+                    nextIndex.setProperty(path, index.getProperty(path));
+                    continue;
+                }
+                observed.put(path, new long[]{size, mtime});
+                hashing.put(path, pool.submit(() -> store(file, throttle)));
+            }
+            
+            for (Map.Entry<String, Future<String>> entry : hashing.entrySet()) {
+                String path = entry.getKey();
+                String sha256 = entry.getValue().get();
+                long[] sizeAndTime = observed.get(path);
+                entries.put(path, new String[]{sha256, String.valueOf(sizeAndTime[0])});
+                nextIndex.setProperty(path, sizeAndTime[0] + " " + sizeAndTime[1] + " " + sha256);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(
+                new FileOutputStream(listFile), StandardCharsets.UTF_8))) {
+            out.println("# RFID Attendance System photos - SHA-256, size and path of each photo");
+            for (Map.Entry<String, String[]> entry : entries.entrySet()) {
+                out.println(entry.getValue()[0] + " " + entry.getValue()[1] + " " + entry.getKey());
+            }
+            if (out.checkError()) {
+                throw new IOException("Write to photo list failed: " + listFile.getName());
+            }
+        }
+        saveIndex(nextIndex);
+        
+        System.out.println("✓ Photos: " + entries.size() + " file(s), " + hashing.size() + " hashed, " +
+            storedCount.get() + " stored (" + (storedBytes.get() / 1024) + " KB) in " +
+            (System.currentTimeMillis() - started) + " ms");
+    }
+    
+    /**
+     * Put the photos of a backup back into the photo directory. Photos already in
+     * place are kept; photos not in the list are left alone.
+     */
+    public boolean restore(File listFile) {
+        if (!listFile.exists()) {
+            System.out.println("⚠ No photo list for this backup - photos left as they are");
+            return true;
+        }
+        
+        int copied = 0;
+        int inPlace = 0;
+        int failed = 0;
+        try {
+            Path root = photoDir.getAbsoluteFile().toPath().normalize();
+            for (String[] entry : readList(listFile)) {
+                Path target = root.resolve(entry[2]).normalize();
+                if (!target.startsWith(root)) {
+                    System.out.println("  ⚠ Skipped photo outside the photo directory: " + entry[2]);
+                    failed++;
+                    continue;
+                }
+                File stored = storedFile(entry[0]);
+                if (Files.exists(target) && Files.size(target) == Long.parseLong(entry[1])
+                        && entry[0].equals(sha256(target))) {
+                    inPlace++;
+                } else if (!stored.exists()) {
+                    System.out.println("  ❌ Photo missing from the backup store: " + entry[2]);
+                    failed++;
+                } else {
+                    Files.createDirectories(target.getParent());
+                    Path temp = Files.createTempFile(target.getParent(), "restore", ".tmp");
+                    try {
+                        Files.copy(stored.toPath(), temp, StandardCopyOption.REPLACE_EXISTING);
+                        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+                    copied++;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("❌ Photo restore failed: " + e.getMessage());
+            return false;
+        }
+        
+        System.out.println((failed == 0 ? "✓" : "⚠") + " Photos restored: " + copied + " copied, " +
+            inPlace + " already in place" + (failed > 0 ? ", " + failed + " failed" : ""));
+        return failed == 0;
+    }
+    
+    /**
+     * Check that every photo a backup lists is in the store at the listed size
+     * (stored photos were hashed on the way in, so they are not read again here)
+     */
+    public List<String> verify(File listFile) throws IOException {
+        List<String> problems = new ArrayList<>();
+        for (String[] entry : readList(listFile)) {
+            File stored = storedFile(entry[0]);
+            if (!stored.exists() || stored.length() != Long.parseLong(entry[1])) {
+                problems.add("Photo " + entry[2] + " is missing or damaged in the backup store");
+            }
+        }
+        return problems;
+    }
+    
+    /**
+     * Delete stored photos no photo list refers to any more (same rules as ChunkStore)
+     */
+    public void collectGarbage() {
+        if (!storeDir.isDirectory()) return;
+        
+        Set<String> referenced = new HashSet<>();
+        File[] lists = backupDir.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        for (File list : lists != null ? lists : new File[0]) {
+            try {
+                for (String[] entry : readList(list)) {
+                    referenced.add(entry[0]);
+                }
+            } catch (IOException | RuntimeException e) {
+                System.err.println("⚠ Photo GC skipped, unreadable photo list " + list.getName() + ": " + e.getMessage());
+                return;
+            }
+        }
+        
+        long cutoff = System.currentTimeMillis() - GC_GRACE_MILLIS;
+        int deleted = 0;
+        File[] shards = storeDir.listFiles(File::isDirectory);
+        for (File shard : shards != null ? shards : new File[0]) {
+            File[] photos = shard.listFiles();
+            for (File photo : photos != null ? photos : new File[0]) {
+                if (!referenced.contains(photo.getName()) && photo.lastModified() < cutoff && photo.delete()) {
+                    deleted++;
+                }
+            }
+        }
+        if (deleted > 0) {
+            System.out.println("✓ Photo GC removed " + deleted + " unreferenced photo(s)");
+        }
+    }
+    
+    /**
+     * Helper: Hash a photo while copying it into the store; returns its SHA-256
+     */
+    private String store(Path file, BackupThrottle throttle) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        File temp = File.createTempFile("photo", ".tmp", storeDir);
+        try {
+            try (InputStream in = new DigestInputStream(throttle.wrap(Files.newInputStream(file)), digest)) {
+                Files.copy(in, temp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            String sha256 = BackupManifest.toHex(digest.digest());
+            File stored = storedFile(sha256);
+            if (stored.exists()) {
+                // Same content already stored (touched or copied file) - refresh it for GC
+                stored.setLastModified(System.currentTimeMillis());
+            } else {
+                stored.getParentFile().mkdirs();
+                try {
+                    Files.move(temp.toPath(), stored.toPath(), StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(temp.toPath(), stored.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                }
+                storedCount.incrementAndGet();
+                storedBytes.addAndGet(stored.length());
+            }
+            return sha256;
+        } finally {
+            temp.delete();
+        }
+    }
+    
+    private List<Path> listPhotos() throws IOException {
+        List<Path> photos = new ArrayList<>();
+        if (!photoDir.isDirectory()) return photos;
+        try (Stream<Path> files = Files.walk(photoDir.toPath())) {
+            files.filter(Files::isRegularFile).forEach(photos::add);
+        }
+        return photos;
+    }
+    
+    private String relativePath(Path file) {
+        return photoDir.toPath().relativize(file).toString().replace(File.separatorChar, '/');
+    }
+    
+    private File storedFile(String sha256) {
+        return new File(new File(storeDir, sha256.substring(0, 2)), sha256);
+    }
+    
+    /**
+     * Helper: Photo list entries as {sha256, size, path}
+     */
+    private static List<String[]> readList(File listFile) throws IOException {
+        List<String[]> entries = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(
+                new FileInputStream(listFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                entries.add(line.split(" ", 3));
+            }
+        }
+        return entries;
+    }
+    
+    private static String sha256(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[64 * 1024];
+            int n;
+            while ((n = in.read(buffer)) > 0) {
+                digest.update(buffer, 0, n);
+            }
+            return BackupManifest.toHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private Properties loadIndex() {
+        Properties index = new Properties();
+        File file = new File(backupDir, INDEX_FILE);
+        if (file.exists()) {
+            try (InputStream in = new FileInputStream(file)) {
+                index.load(in);
+            } catch (IOException e) {
+                System.err.println("⚠ Could not read photo index, rehashing all photos: " + e.getMessage());
+            }
+        }
+        return index;
+    }
+    
+    /**
+     * Write after the photo list (temp file + rename)
+     */
+    private void saveIndex(Properties index) throws IOException {
+        File file = new File(backupDir, INDEX_FILE);
+        File temp = new File(backupDir, INDEX_FILE + ".tmp");
+        try (OutputStream out = new FileOutputStream(temp)) {
+            index.store(out, "Photo hash index - size mtime sha256 per photo; delete to rehash everything");
+        }
+        Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+}
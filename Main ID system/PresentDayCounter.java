@@ -0,0 +1,70 @@
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * PresentDayCounter - Per-user "Total Days Present" counter
+ * Features: Atomic increment on first time-in of a day, primary-key read for the kiosk, one-time backfill
+ *
+ * The user_attendance_counters row is bumped in the same transaction as the
+ * attendance insert. The kiosk reads the row on every scan rather than caching
+ * it, so other kiosks, manual corrections and the nightly reconcile show at once.
+ */
+public class PresentDayCounter {
+    
+    private Connection conn;
+    
+    public PresentDayCounter(Connection conn) {
+        this.conn = conn;
+    }
+    
+    /**
+     * Create the counter table and backfill it once from attendance history
+     */
+    public void initialize() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS user_attendance_counters (" +
+                "user_id INT PRIMARY KEY," +
+                "days_present INT NOT NULL DEFAULT 0," +
+                "last_present_date DATE," +
+                "FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE" +
+                ")");
+            
+            ResultSet rs = stmt.executeQuery("SELECT EXISTS(SELECT 1 FROM user_attendance_counters) AS has_rows");
+            if (rs.next() && !rs.getBoolean("has_rows")) {
+                System.out.println("  Backfilling present-day counters from attendance history...");
+                stmt.executeUpdate("INSERT INTO user_attendance_counters (user_id, days_present, last_present_date) " +
+                                   "SELECT user_id, COUNT(DISTINCT date), MAX(date) FROM " + AttendanceArchiver.source(null, "src") + " " +
+                                   "WHERE time_in IS NOT NULL GROUP BY user_id");
+            }
+            rs.close();
+        }
+    }
+    
+    /**
+     * Count a present day (once per date); call inside the caller's time-in transaction
+     */
+    public void recordTimeIn(int userId, LocalDate date) throws SQLException {
+        // Assignments run left to right, so days_present still sees the old last_present_date
+        String sql = "INSERT INTO user_attendance_counters (user_id, days_present, last_present_date) VALUES (?, 1, ?) " +
+                     "ON DUPLICATE KEY UPDATE " +
+                     "days_present = days_present + (last_present_date IS NULL OR last_present_date < VALUES(last_present_date)), " +
+                     "last_present_date = GREATEST(COALESCE(last_present_date, VALUES(last_present_date)), VALUES(last_present_date))";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            stmt.setDate(2, Date.valueOf(date));
+            stmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Days present for the kiosk screen: one primary-key lookup on the scan's connection
+     */
+    public int getDaysPresent(int userId) throws SQLException {
+        String sql = "SELECT days_present FROM user_attendance_counters WHERE user_id = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, userId);
+            ResultSet rs = stmt.executeQuery();
+            return rs.next() ? rs.getInt("days_present") : 0;
+        }
+    }
+}
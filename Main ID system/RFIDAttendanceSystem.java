@@ -12,6 +12,8 @@ import java.util.Properties;
 import javax.mail.*;
 import javax.mail.internet.*;
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 
@@ -35,6 +37,10 @@ public class RFIDAttendanceSystem extends JFrame {
     private Timer clockTimer;
     private boolean isFullScreen = false;
     
+    // Scan stage timing (System.nanoTime(), EDT only)
+    private long inputStartedNanos = 0;     // first reader keystroke of the current card
+    private long photoLoadNanos = 0;        // photo load inside the profile being rendered
+    
     // Photo directory
     private static final String PHOTO_DIR = "photos/";
     
@@ -50,6 +56,9 @@ public class RFIDAttendanceSystem extends JFrame {
         // Initialize database
         initializeDatabase();
         
+        // Compile school days and shift times before the first scan
+        SchoolCalendar.getInstance();
+        
         // Setup UI
         setupUI();
         
@@ -59,6 +68,21 @@ public class RFIDAttendanceSystem extends JFrame {
         // Start real-time clock
         startClock();
         
+        // Pick up setting changes made on other kiosks
+        SystemSettings.startPolling();
+        
+        // Nightly reconciliation of precomputed attendance statistics
+        AttendanceStatistics.startNightlyReconciliation();
+        
+        // Off-peak pre-generation of routine reports
+        new ReportScheduler().startScheduledReports();
+        
+        // Move closed school years out of the live attendance table overnight
+        AttendanceArchiver.startNightlyArchival();
+        
+        // Per-stage scan latency, kept across runs (Ctrl+F3 shows it live)
+        ScanMetrics.getInstance().dumpOnShutdown(new File(config.getProperty("metrics.scan.dump.file", "logs/scan_metrics.txt")));
+        
         setVisible(true);
     }
     
@@ -165,6 +189,42 @@ public class RFIDAttendanceSystem extends JFrame {
             }
             
             stmt.close();
+            
+            // Settings shared by all kiosks (layered over config.properties)
+            try {
+                new SystemSettings(conn).initialize();
+            } catch (SQLException e) {
+                System.out.println("⚠ Shared settings unavailable, using config.properties only: " + e.getMessage());
+            }
+            
+            // Archive of closed school years (must be known before any history is read)
+            try {
+                new AttendanceArchiver(conn).initialize();
+            } catch (SQLException e) {
+                System.out.println("⚠ Attendance archive unavailable: " + e.getMessage());
+            }
+            
+            // Precomputed attendance counters (created and backfilled on first run)
+            try {
+                new AttendanceStatistics(conn).initialize();
+            } catch (SQLException e) {
+                System.out.println("⚠ Attendance statistics unavailable: " + e.getMessage());
+            }
+            try {
+                new PresentDayCounter(conn).initialize();
+            } catch (SQLException e) {
+                System.out.println("⚠ Present-day counters unavailable: " + e.getMessage());
+            }
+            try {
+                new DailySummary(conn).initialize();
+            } catch (SQLException e) {
+                System.out.println("⚠ Daily summary unavailable: " + e.getMessage());
+            }
+            try {
+                AttendanceCube.getInstance().load(conn);
+            } catch (SQLException e) {
+                System.out.println("⚠ Attendance cube not loaded: " + e.getMessage());
+            }
             conn.close();
             
             // Register default admin card if not already registered
@@ -234,6 +294,22 @@ public class RFIDAttendanceSystem extends JFrame {
         hiddenRfidField.setPreferredSize(new Dimension(0, 0));
         hiddenRfidField.setBorder(null);
         hiddenRfidField.addActionListener(e -> processRfidScan());
+        hiddenRfidField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                if (inputStartedNanos == 0) {
+                    inputStartedNanos = System.nanoTime();
+                }
+            }
+            
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+            }
+            
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+            }
+        });
         topPanel.add(hiddenRfidField, BorderLayout.SOUTH);
         
         add(topPanel, BorderLayout.NORTH);
@@ -280,6 +356,24 @@ public class RFIDAttendanceSystem extends JFrame {
                 toggleFullScreen();
             }
         });
+        
+        // Ctrl+F3 for scan latency per stage
+        KeyStroke ctrlF3 = KeyStroke.getKeyStroke(KeyEvent.VK_F3, KeyEvent.CTRL_DOWN_MASK);
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(ctrlF3, "scanLatency");
+        getRootPane().getActionMap().put("scanLatency", new AbstractAction() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                showScanLatency();
+            }
+        });
+    }
+    
+    private void showScanLatency() {
+        JTextArea report = new JTextArea(ScanMetrics.getInstance().report());
+        report.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        report.setEditable(false);
+        JOptionPane.showMessageDialog(this, new JScrollPane(report), "Scan Latency", JOptionPane.INFORMATION_MESSAGE);
+        hiddenRfidField.requestFocusInWindow();
     }
     
     private void toggleFullScreen() {
@@ -311,6 +405,8 @@ public class RFIDAttendanceSystem extends JFrame {
     }
     
     private void processRfidScan() {
+        long inputStarted = inputStartedNanos;
+        inputStartedNanos = 0;
         String rfidUid = hiddenRfidField.getText().trim();
         hiddenRfidField.setText(""); // Clear field
         
@@ -325,7 +421,13 @@ public class RFIDAttendanceSystem extends JFrame {
             registerAdminCard(rfidUid);
             adminScanMode = false;
         } else {
+            // Scan latency feeds the backup throttle (see BackupThrottle)
+            long started = System.nanoTime();
+            if (inputStarted != 0) {
+                ScanMetrics.getInstance().recordStage(ScanMetrics.Stage.INPUT_CAPTURE, started - inputStarted);
+            }
             processAttendance(rfidUid);
+            ScanMetrics.getInstance().recordScan(System.nanoTime() - started);
         }
         
         // Refocus on hidden field
@@ -370,15 +472,21 @@ public class RFIDAttendanceSystem extends JFrame {
     }
     
     private void processAttendance(String rfidUid) {
+        // Each lap records the stage that just ended (see ScanMetrics.Stage)
+        ScanMetrics metrics = ScanMetrics.getInstance();
+        long lap = System.nanoTime();
         try (Connection conn = DriverManager.getConnection(DB_URL + "?allowPublicKeyRetrieval=true&useSSL=false", DB_USER, DB_PASSWORD)) {
+            lap = metrics.lap(ScanMetrics.Stage.DB_CONNECT, lap);
             
             // Lookup user
             String userSql = "SELECT * FROM users WHERE rfid_uid = ?";
             PreparedStatement userStmt = conn.prepareStatement(userSql);
             userStmt.setString(1, rfidUid);
             ResultSet userRs = userStmt.executeQuery();
+            boolean registered = userRs.next();
+            lap = metrics.lap(ScanMetrics.Stage.USER_LOOKUP, lap);
             
-            if (!userRs.next()) {
+            if (!registered) {
                 statusLabel.setText("❌ RFID NOT REGISTERED - UID: " + maskUid(rfidUid));
                 statusLabel.setForeground(Color.RED);
                 return;
@@ -425,13 +533,13 @@ public class RFIDAttendanceSystem extends JFrame {
                 }
             }
             
-            // Calculate if late based on class type
-            LocalTime lateThreshold = classType.equalsIgnoreCase("morning") ? 
-                LocalTime.of(7, 30) : LocalTime.of(13, 0); // 1:00 PM for afternoon
+            // Calculate if late based on class type (shift times from the school calendar)
+            LocalTime lateThreshold = SchoolCalendar.getInstance().getLateThreshold(classType);
             int lateMinutes = 0;
             if (now.isAfter(lateThreshold)) {
                 lateMinutes = (int) java.time.Duration.between(lateThreshold, now).toMinutes();
             }
+            lap = metrics.lap(ScanMetrics.Stage.CLASS_LOOKUP, lap);
             
             // Check today's attendance
             String attendanceSql = "SELECT * FROM attendance WHERE user_id = ? AND date = ?";
@@ -449,27 +557,7 @@ public class RFIDAttendanceSystem extends JFrame {
                     attendanceStatus = "LATE";
                 }
                 
-                // Check if status column exists
-                String insertSql;
-                try {
-                    // Try with new columns first
-                    insertSql = "INSERT INTO attendance (user_id, date, time_in, status, late_minutes) VALUES (?, ?, ?, ?, ?)";
-                    PreparedStatement insertStmt = conn.prepareStatement(insertSql);
-                    insertStmt.setInt(1, userId);
-                    insertStmt.setDate(2, Date.valueOf(today));
-                    insertStmt.setTime(3, Time.valueOf(now));
-                    insertStmt.setString(4, attendanceStatus);
-                    insertStmt.setInt(5, lateMinutes);
-                    insertStmt.executeUpdate();
-                } catch (SQLException e) {
-                    // If new columns don't exist, use old query
-                    insertSql = "INSERT INTO attendance (user_id, date, time_in) VALUES (?, ?, ?)";
-                    PreparedStatement insertStmt = conn.prepareStatement(insertSql);
-                    insertStmt.setInt(1, userId);
-                    insertStmt.setDate(2, Date.valueOf(today));
-                    insertStmt.setTime(3, Time.valueOf(now));
-                    insertStmt.executeUpdate();
-                }
+                insertTimeIn(conn, userId, today, now, classType, attendanceStatus, lateMinutes);
                 
                 action = "TIME-IN";
                 statusLabel.setForeground(new Color(0, 128, 0));
@@ -485,31 +573,13 @@ public class RFIDAttendanceSystem extends JFrame {
                     Time timeIn = attendanceRs.getTime("time_in");
                     
                     // Calculate early out and total hours
-                    LocalTime earlyOutThreshold = classType.equalsIgnoreCase("morning") ? 
-                        LocalTime.of(16, 0) : LocalTime.of(20, 0); // 8:00 PM for afternoon
+                    LocalTime earlyOutThreshold = SchoolCalendar.getInstance().getEarlyOutThreshold(classType);
                     int earlyOutMinutes = 0;
                     if (now.isBefore(earlyOutThreshold)) {
                         earlyOutMinutes = (int) java.time.Duration.between(now, earlyOutThreshold).toMinutes();
                     }
                     
-                    // Try to update with new columns first
-                    try {
-                        String updateSql = "UPDATE attendance SET time_out = ?, early_out_minutes = ? WHERE user_id = ? AND date = ?";
-                        PreparedStatement updateStmt = conn.prepareStatement(updateSql);
-                        updateStmt.setTime(1, Time.valueOf(now));
-                        updateStmt.setInt(2, earlyOutMinutes);
-                        updateStmt.setInt(3, userId);
-                        updateStmt.setDate(4, Date.valueOf(today));
-                        updateStmt.executeUpdate();
-                    } catch (SQLException e) {
-                        // If new columns don't exist, use old query
-                        String updateSql = "UPDATE attendance SET time_out = ? WHERE user_id = ? AND date = ?";
-                        PreparedStatement updateStmt = conn.prepareStatement(updateSql);
-                        updateStmt.setTime(1, Time.valueOf(now));
-                        updateStmt.setInt(2, userId);
-                        updateStmt.setDate(3, Date.valueOf(today));
-                        updateStmt.executeUpdate();
-                    }
+                    updateTimeOut(conn, userId, today, now, classType, earlyOutMinutes);
                     
                     action = "TIME-OUT";
                     statusLabel.setForeground(new Color(255, 140, 0));
@@ -523,6 +593,7 @@ public class RFIDAttendanceSystem extends JFrame {
                     statusLabel.setForeground(Color.BLUE);
                 }
             }
+            lap = metrics.lap(ScanMetrics.Stage.ATTENDANCE_UPSERT, lap);
             
             // Get student info if applicable
             String grade = "";
@@ -543,15 +614,12 @@ public class RFIDAttendanceSystem extends JFrame {
                 userCode = "TCH-" + String.format("%05d", userId);
             }
             
-            // Get total days present - Fixed query to count distinct dates
-            String countSql = "SELECT COUNT(DISTINCT date) as total FROM attendance WHERE user_id = ? AND time_in IS NOT NULL";
-            PreparedStatement countStmt = conn.prepareStatement(countSql);
-            countStmt.setInt(1, userId);
-            ResultSet countRs = countStmt.executeQuery();
-            int totalDays = 0;
-            if (countRs.next()) {
-                totalDays = countRs.getInt("total");
-            }
+            long profileNanos = System.nanoTime() - lap;
+            
+            // Get total days present from the counter row
+            lap = System.nanoTime();
+            int totalDays = new PresentDayCounter(conn).getDaysPresent(userId);
+            lap = metrics.lap(ScanMetrics.Stage.COUNTER_READ, lap);
             
             // Get today's times and status
             String todaySql = "SELECT * FROM attendance WHERE user_id = ? AND date = ?";
@@ -595,6 +663,8 @@ public class RFIDAttendanceSystem extends JFrame {
                 }
             }
             
+            metrics.recordStage(ScanMetrics.Stage.PROFILE_READ, profileNanos + System.nanoTime() - lap);
+            
             // Update status
             statusLabel.setText("✓ " + action + " - " + fullName);
             
@@ -608,10 +678,123 @@ public class RFIDAttendanceSystem extends JFrame {
         }
     }
     
+    /**
+     * Insert today's TIME-IN row; the attendance row, its statistics, daily summary and present-day counter commit together
+     */
+    private void insertTimeIn(Connection conn, int userId, LocalDate today, LocalTime now,
+                              String classType, String attendanceStatus, int lateMinutes) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            try {
+                // Try with new columns first
+                String insertSql = "INSERT INTO attendance (user_id, date, time_in, status, late_minutes) VALUES (?, ?, ?, ?, ?)";
+                PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                insertStmt.setInt(1, userId);
+                insertStmt.setDate(2, Date.valueOf(today));
+                insertStmt.setTime(3, Time.valueOf(now));
+                insertStmt.setString(4, attendanceStatus);
+                insertStmt.setInt(5, lateMinutes);
+                insertStmt.executeUpdate();
+            } catch (SQLException e) {
+                // If new columns don't exist, use old query
+                String insertSql = "INSERT INTO attendance (user_id, date, time_in) VALUES (?, ?, ?)";
+                PreparedStatement insertStmt = conn.prepareStatement(insertSql);
+                insertStmt.setInt(1, userId);
+                insertStmt.setDate(2, Date.valueOf(today));
+                insertStmt.setTime(3, Time.valueOf(now));
+                insertStmt.executeUpdate();
+            }
+            
+            sideUpdate(conn, "attendance statistics",
+                () -> new AttendanceStatistics(conn).recordTimeIn(userId, today, lateMinutes));
+            sideUpdate(conn, "daily summary",
+                () -> new DailySummary(conn).recordTimeIn(today, classType, lateMinutes > 0));
+            
+            new PresentDayCounter(conn).recordTimeIn(userId, today);
+            
+            conn.commit();
+            AttendanceCube.getInstance().recordTimeIn(userId, today, lateMinutes > 0);
+            ReportCache.getInstance().invalidate(today);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+    
+    /**
+     * Record today's TIME-OUT; the attendance row, its statistics counters and daily summary commit together
+     */
+    private void updateTimeOut(Connection conn, int userId, LocalDate today, LocalTime now,
+                               String classType, int earlyOutMinutes) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            // Try to update with new columns first
+            try {
+                String updateSql = "UPDATE attendance SET time_out = ?, early_out_minutes = ? WHERE user_id = ? AND date = ?";
+                PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                updateStmt.setTime(1, Time.valueOf(now));
+                updateStmt.setInt(2, earlyOutMinutes);
+                updateStmt.setInt(3, userId);
+                updateStmt.setDate(4, Date.valueOf(today));
+                updateStmt.executeUpdate();
+            } catch (SQLException e) {
+                // If new columns don't exist, use old query
+                String updateSql = "UPDATE attendance SET time_out = ? WHERE user_id = ? AND date = ?";
+                PreparedStatement updateStmt = conn.prepareStatement(updateSql);
+                updateStmt.setTime(1, Time.valueOf(now));
+                updateStmt.setInt(2, userId);
+                updateStmt.setDate(3, Date.valueOf(today));
+                updateStmt.executeUpdate();
+            }
+            
+            sideUpdate(conn, "attendance statistics",
+                () -> new AttendanceStatistics(conn).recordTimeOut(userId, today, earlyOutMinutes));
+            sideUpdate(conn, "daily summary", () -> new DailySummary(conn).recordTimeOut(today, classType));
+            
+            conn.commit();
+            ReportCache.getInstance().invalidate(today);
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+    
+    /**
+     * Statement run inside the scan's transaction
+     */
+    private interface SideUpdate {
+        void run() throws SQLException;
+    }
+    
+    /**
+     * Helper: Run a secondary update of the scan transaction under a savepoint, so its
+     * failure undoes only its own writes. A deadlock has already rolled back the whole
+     * transaction (attendance row included), so that one is rethrown to fail the scan.
+     */
+    private static void sideUpdate(Connection conn, String what, SideUpdate update) throws SQLException {
+        Savepoint savepoint = conn.setSavepoint();
+        try {
+            update.run();
+            conn.releaseSavepoint(savepoint);
+        } catch (SQLException e) {
+            if ("40001".equals(e.getSQLState())) {
+                throw e;
+            }
+            conn.rollback(savepoint);
+            System.out.println("⚠ Could not update " + what + ": " + e.getMessage());
+        }
+    }
+    
     private void displayProfileNew(String name, String role, String grade, String section, String classType,
                                    String userCode, String photoPath, String timeIn, 
                                    String timeOut, int totalDays, String status, 
                                    int lateMinutes, int earlyOutMinutes, String totalHours) {
+        long started = System.nanoTime();
+        photoLoadNanos = 0;
         profilePanel.removeAll();
         profilePanel.setLayout(new BorderLayout(5, 5));
         
@@ -636,6 +819,11 @@ public class RFIDAttendanceSystem extends JFrame {
         
         profilePanel.revalidate();
         profilePanel.repaint();
+        
+        // Queued behind the repaint, so this runs once the profile is on screen
+        long photoNanos = photoLoadNanos;
+        SwingUtilities.invokeLater(() -> ScanMetrics.getInstance().recordStage(
+            ScanMetrics.Stage.RENDER, System.nanoTime() - started - photoNanos));
     }
     
     private JPanel createTimePanel(String title, String time, boolean isLogged, Color color) {
@@ -699,9 +887,12 @@ public class RFIDAttendanceSystem extends JFrame {
         photoLabel.setHorizontalAlignment(SwingConstants.CENTER);
         
         if (photoPath != null && new File(photoPath).exists()) {
+            long photoStarted = System.nanoTime();
             ImageIcon icon = new ImageIcon(photoPath);
             Image img = icon.getImage().getScaledInstance(130, 130, Image.SCALE_SMOOTH);
             photoLabel.setIcon(new ImageIcon(img));
+            photoLoadNanos = System.nanoTime() - photoStarted;
+            ScanMetrics.getInstance().recordStage(ScanMetrics.Stage.PHOTO_LOAD, photoLoadNanos);
         } else {
             // Default icon if no photo
             photoLabel.setIcon(new ImageIcon());
@@ -929,6 +1120,10 @@ public class RFIDAttendanceSystem extends JFrame {
             removeButton.addActionListener(e -> removeSelectedUser());
             buttonPanel.add(removeButton);
             
+            JButton bulkButton = new JButton(" Bulk Update");
+            bulkButton.addActionListener(e -> openBulkUpdateForm());
+            buttonPanel.add(bulkButton);
+            
             JButton attendanceLogButton = new JButton(" Attendance Log");
             attendanceLogButton.addActionListener(e -> openAttendanceLog());
             buttonPanel.add(attendanceLogButton);
@@ -949,7 +1144,7 @@ public class RFIDAttendanceSystem extends JFrame {
                 }
             };
             userTable = new JTable(tableModel);
-            userTable.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+            userTable.setSelectionMode(ListSelectionModel.MULTIPLE_INTERVAL_SELECTION);
             userTable.setFont(new Font("Arial", Font.PLAIN, 13));
             userTable.setRowHeight(25);
             userTable.getTableHeader().setFont(new Font("Arial", Font.BOLD, 13));
@@ -1048,6 +1243,10 @@ public class RFIDAttendanceSystem extends JFrame {
                 JOptionPane.showMessageDialog(this, "Please select a user to edit.");
                 return;
             }
+            if (userTable.getSelectedRowCount() > 1) {
+                JOptionPane.showMessageDialog(this, "Please select a single user to edit, or use Bulk Update.");
+                return;
+            }
             
             int userId = (int) tableModel.getValueAt(selectedRow, 0);
             EditUserForm form = new EditUserForm(this, userId);
@@ -1055,39 +1254,39 @@ public class RFIDAttendanceSystem extends JFrame {
         }
         
         private void removeSelectedUser() {
-            int selectedRow = userTable.getSelectedRow();
-            if (selectedRow == -1) {
+            java.util.List<Integer> userIds = getSelectedUserIds();
+            if (userIds.isEmpty()) {
                 JOptionPane.showMessageDialog(this, "Please select a user to remove.");
                 return;
             }
             
-            int userId = (int) tableModel.getValueAt(selectedRow, 0);
-            String userName = (String) tableModel.getValueAt(selectedRow, 2);
+            String target = userIds.size() == 1
+                ? "user: " + tableModel.getValueAt(userTable.getSelectedRow(), 2)
+                : userIds.size() + " selected users";
             
             int confirm = JOptionPane.showConfirmDialog(this,
-                "Remove user: " + userName + "?\n\nChoose:\nYES = Soft delete (set inactive)\nNO = Cancel\nCANCEL = Hard delete (permanent)",
+                "Remove " + target + "?\n\nChoose:\nYES = Soft delete (set inactive)\nNO = Cancel\nCANCEL = Hard delete (permanent)",
                 "Confirm Removal",
                 JOptionPane.YES_NO_CANCEL_OPTION);
             
-            if (confirm == JOptionPane.NO_OPTION) {
+            if (confirm == JOptionPane.NO_OPTION || confirm == JOptionPane.CLOSED_OPTION) {
                 return;
             }
             
             try (Connection conn = DriverManager.getConnection(DB_URL + "?allowPublicKeyRetrieval=true&useSSL=false", DB_USER, DB_PASSWORD)) {
+                BulkUserOperations bulk = new BulkUserOperations(conn);
                 if (confirm == JOptionPane.YES_OPTION) {
                     // Soft delete
-                    String sql = "UPDATE users SET status = 'inactive' WHERE user_id = ?";
-                    PreparedStatement stmt = conn.prepareStatement(sql);
-                    stmt.setInt(1, userId);
-                    stmt.executeUpdate();
-                    JOptionPane.showMessageDialog(this, "User set to inactive.");
+                    bulk.setStatus(userIds, "inactive");
+                    JOptionPane.showMessageDialog(this, userIds.size() == 1
+                        ? "User set to inactive."
+                        : userIds.size() + " users set to inactive.");
                 } else {
                     // Hard delete
-                    String sql = "DELETE FROM users WHERE user_id = ?";
-                    PreparedStatement stmt = conn.prepareStatement(sql);
-                    stmt.setInt(1, userId);
-                    stmt.executeUpdate();
-                    JOptionPane.showMessageDialog(this, "User permanently deleted.");
+                    int deleted = bulk.deleteUsers(userIds);
+                    JOptionPane.showMessageDialog(this, deleted == 1
+                        ? "User permanently deleted."
+                        : deleted + " users permanently deleted.");
                 }
                 loadUsers();
             } catch (SQLException e) {
@@ -1096,6 +1295,25 @@ public class RFIDAttendanceSystem extends JFrame {
             }
         }
         
+        private void openBulkUpdateForm() {
+            java.util.List<Integer> userIds = getSelectedUserIds();
+            if (userIds.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Please select one or more users to update.");
+                return;
+            }
+            
+            BulkUpdateForm form = new BulkUpdateForm(this, userIds);
+            form.setVisible(true);
+        }
+        
+        private java.util.List<Integer> getSelectedUserIds() {
+            java.util.List<Integer> userIds = new java.util.ArrayList<>();
+            for (int row : userTable.getSelectedRows()) {
+                userIds.add((Integer) tableModel.getValueAt(userTable.convertRowIndexToModel(row), 0));
+            }
+            return userIds;
+        }
+        
         private void openAttendanceLog() {
             AttendanceLogDialog logDialog = new AttendanceLogDialog(this);
             logDialog.setVisible(true);
@@ -1237,7 +1455,7 @@ public class RFIDAttendanceSystem extends JFrame {
                 sql.append("a.time_in, a.time_out, ");
                 sql.append("COALESCE(a.status, 'Present') as status, ");
                 sql.append("a.late_minutes, a.early_out_minutes ");
-                sql.append("FROM attendance a ");
+                sql.append("FROM ").append(AttendanceArchiver.source(Date.valueOf(dateFromField.getText()).toLocalDate(), "a")).append(" ");
                 sql.append("JOIN users u ON a.user_id = u.user_id ");
                 sql.append("LEFT JOIN students s ON u.user_id = s.user_id ");
                 sql.append("WHERE a.date BETWEEN ? AND ? ");
@@ -1671,6 +1889,8 @@ public class RFIDAttendanceSystem extends JFrame {
                     }
                 }
                 
+                ReportCache.getInstance().invalidateAll();
+                AttendanceCube.getInstance().rosterChanged();
                 JOptionPane.showMessageDialog(this, "User added successfully!");
                 parent.loadUsers();
                 dispose();
@@ -2013,6 +2233,8 @@ public class RFIDAttendanceSystem extends JFrame {
                     deleteStmt.executeUpdate();
                 }
                 
+                ReportCache.getInstance().invalidateAll();
+                AttendanceCube.getInstance().rosterChanged();
                 JOptionPane.showMessageDialog(this, "User updated successfully!");
                 parent.loadUsers();
                 dispose();
@@ -2024,6 +2246,113 @@ public class RFIDAttendanceSystem extends JFrame {
         }
     }
     
+    // ======================== BULK UPDATE FORM CLASS ========================
+    
+    class BulkUpdateForm extends JDialog {
+        private static final String NO_CHANGE = "(no change)";
+        private JComboBox<String> statusCombo;
+        private JComboBox<String> classTypeCombo;
+        private JTextField gradeField;
+        private JTextField sectionField;
+        private AdminPanel parent;
+        private java.util.List<Integer> userIds;
+        
+        public BulkUpdateForm(AdminPanel parent, java.util.List<Integer> userIds) {
+            super(parent, "Bulk Update - " + userIds.size() + " user(s)", true);
+            this.parent = parent;
+            this.userIds = userIds;
+            setSize(420, 300);
+            setLocationRelativeTo(parent);
+            setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+            
+            setupFormUI();
+        }
+        
+        private void setupFormUI() {
+            setLayout(new BorderLayout(10, 10));
+            
+            JPanel formPanel = new JPanel(new GridBagLayout());
+            formPanel.setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
+            GridBagConstraints gbc = new GridBagConstraints();
+            gbc.fill = GridBagConstraints.HORIZONTAL;
+            gbc.insets = new Insets(5, 5, 5, 5);
+            
+            // Status
+            gbc.gridx = 0; gbc.gridy = 0;
+            formPanel.add(new JLabel("Status:"), gbc);
+            gbc.gridx = 1;
+            statusCombo = new JComboBox<>(new String[]{NO_CHANGE, "active", "inactive"});
+            formPanel.add(statusCombo, gbc);
+            
+            // Class Type
+            gbc.gridx = 0; gbc.gridy = 1;
+            formPanel.add(new JLabel("Class Type:"), gbc);
+            gbc.gridx = 1;
+            classTypeCombo = new JComboBox<>(new String[]{NO_CHANGE, "morning", "afternoon"});
+            formPanel.add(classTypeCombo, gbc);
+            
+            // Grade
+            gbc.gridx = 0; gbc.gridy = 2;
+            formPanel.add(new JLabel("Grade:"), gbc);
+            gbc.gridx = 1;
+            gradeField = new JTextField(20);
+            gradeField.setToolTipText("Leave blank to keep current grade");
+            formPanel.add(gradeField, gbc);
+            
+            // Section
+            gbc.gridx = 0; gbc.gridy = 3;
+            formPanel.add(new JLabel("Section:"), gbc);
+            gbc.gridx = 1;
+            sectionField = new JTextField(20);
+            sectionField.setToolTipText("Leave blank to keep current section");
+            formPanel.add(sectionField, gbc);
+            
+            add(formPanel, BorderLayout.CENTER);
+            
+            // Buttons
+            JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+            JButton applyButton = new JButton("💾 Apply");
+            applyButton.addActionListener(e -> applyChanges());
+            buttonPanel.add(applyButton);
+            
+            JButton cancelButton = new JButton("Cancel");
+            cancelButton.addActionListener(e -> dispose());
+            buttonPanel.add(cancelButton);
+            
+            add(buttonPanel, BorderLayout.SOUTH);
+        }
+        
+        private void applyChanges() {
+            String status = NO_CHANGE.equals(statusCombo.getSelectedItem()) ? null : (String) statusCombo.getSelectedItem();
+            String classType = NO_CHANGE.equals(classTypeCombo.getSelectedItem()) ? null : (String) classTypeCombo.getSelectedItem();
+            String grade = gradeField.getText().trim();
+            String section = sectionField.getText().trim();
+            
+            if (status == null && classType == null && grade.isEmpty() && section.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "Nothing to change!");
+                return;
+            }
+            
+            int confirm = JOptionPane.showConfirmDialog(this,
+                "Apply changes to " + userIds.size() + " user(s)?",
+                "Confirm Bulk Update",
+                JOptionPane.YES_NO_OPTION);
+            if (confirm != JOptionPane.YES_OPTION) {
+                return;
+            }
+            
+            try (Connection conn = DriverManager.getConnection(DB_URL + "?allowPublicKeyRetrieval=true&useSSL=false", DB_USER, DB_PASSWORD)) {
+                int updated = new BulkUserOperations(conn).applyChanges(userIds, status, grade, section, classType);
+                JOptionPane.showMessageDialog(this, updated + " user(s) updated successfully!");
+                parent.loadUsers();
+                dispose();
+            } catch (SQLException e) {
+                e.printStackTrace();
+                JOptionPane.showMessageDialog(this, "Error: " + e.getMessage());
+            }
+        }
+    }
+    
     // ======================== MAIN METHOD ========================
     
     public static void main(String[] args) {
@@ -0,0 +1,242 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * ReportCache - Compressed on-disk cache of generated reports
+ * Features: In-memory index, date-range invalidation on attendance writes, zero-copy serving of .gz requests
+ *
+ * Entries are named <type>_<from>_<to>.<format>.gz, so the index can be rebuilt
+ * from the cache directory at startup. Closed past periods stay cached until the
+ * roster changes; periods that include today also expire after a short TTL in
+ * case attendance was written by another process.
+ */
+public class ReportCache {
+    
+    private static ReportCache instance;
+    
+    private final Path cacheDir;
+    private final long openPeriodTtlMillis;
+    private final Map<String, Entry> index = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    
+    private ReportCache() {
+        ConfigManager config = ConfigManager.getInstance();
+        this.cacheDir = Paths.get(config.getReportCacheDirectory());
+        this.openPeriodTtlMillis = config.getReportCacheOpenTtlSeconds() * 1000L;
+        loadIndex();
+    }
+    
+    public static synchronized ReportCache getInstance() {
+        if (instance == null) {
+            instance = new ReportCache();
+        }
+        return instance;
+    }
+    
+    /**
+     * Cache key for a report type, covered date range and output format
+     */
+    public static String key(String type, LocalDate from, LocalDate to, String format) {
+        return type + "_" + from + "_" + to + "." + format.toLowerCase();
+    }
+    
+    /**
+     * Serve a report from the cache, or generate it and cache the result.
+     * An outputPath ending in .gz receives the compressed report.
+     */
+    public void getOrGenerate(String key, LocalDate from, LocalDate to, String outputPath,
+                              ReportWriter writer) throws Exception {
+        if (serve(key, outputPath)) return;
+        
+        // Taken before querying so a report that raced an attendance write is not cached
+        long version = invalidations.get();
+        boolean compressed = outputPath.endsWith(".gz");
+        String reportPath = compressed ? outputPath.substring(0, outputPath.length() - 3) + ".tmp" : outputPath;
+        
+        writer.write(reportPath);
+        store(key, from, to, reportPath, version);
+        
+        if (compressed) {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(Paths.get(outputPath)), 64 * 1024)) {
+                Files.copy(Paths.get(reportPath), out);
+            }
+            Files.deleteIfExists(Paths.get(reportPath));
+        }
+    }
+    
+    /**
+     * Copy a cached report to outputPath. Returns false on a miss.
+     */
+    private boolean serve(String key, String outputPath) {
+        Entry entry = index.get(key);
+        if (entry == null) return false;
+        
+        if (entry.isExpired(openPeriodTtlMillis)) {
+            remove(key);
+            return false;
+        }
+        
+        try {
+            Path target = Paths.get(outputPath);
+            Path parent = target.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            
+            if (outputPath.endsWith(".gz")) {
+                // Already compressed - let the kernel copy the bytes
+                try (FileChannel in = FileChannel.open(entry.file, StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                         StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                }
+            } else {
+                try (InputStream in = new GZIPInputStream(Files.newInputStream(entry.file), 64 * 1024)) {
+                    Files.copy(in, target, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            System.out.println("✓ Report served from cache: " + outputPath);
+            return true;
+        
+        } catch (IOException e) {
+            // Damaged or deleted cache file - regenerate
+            System.err.println("⚠ Report cache entry unreadable, regenerating: " + e.getMessage());
+            remove(key);
+            return false;
+        }
+    }
+    
+    /**
+     * Compress a freshly generated report into the cache, unless an
+     * invalidation happened since version was taken
+     */
+    private void store(String key, LocalDate from, LocalDate to, String reportPath, long version) {
+        if (invalidations.get() != version) return;
+        
+        Path file = cacheDir.resolve(key + ".gz");
+        Path temp = cacheDir.resolve(key + ".gz.tmp");
+        try {
+            Files.createDirectories(cacheDir);
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                Files.copy(Paths.get(reportPath), out);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            
+            // Re-check: an attendance write may have landed while compressing
+            if (invalidations.get() != version) {
+                Files.deleteIfExists(file);
+                return;
+            }
+            index.put(key, new Entry(file, from, to, System.currentTimeMillis()));
+        
+        } catch (IOException e) {
+            System.err.println("⚠ Could not cache report " + key + ": " + e.getMessage());
+            try {
+                Files.deleteIfExists(temp);
+            } catch (IOException ignored) {
+                // Nothing else to clean up
+            }
+        }
+    }
+    
+    /**
+     * Drop every cached report whose period covers the given date
+     */
+    public void invalidate(LocalDate date) {
+        invalidate(date, date);
+    }
+    
+    /**
+     * Drop every cached report whose period overlaps [from, to]
+     */
+    public void invalidate(LocalDate from, LocalDate to) {
+        invalidations.incrementAndGet();
+        for (Map.Entry<String, Entry> e : index.entrySet()) {
+            Entry entry = e.getValue();
+            if (!entry.to.isBefore(from) && !entry.from.isAfter(to)) {
+                remove(e.getKey());
+            }
+        }
+    }
+    
+    /**
+     * Drop everything (user, grade or section changes alter every report)
+     */
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        for (String key : index.keySet()) {
+            remove(key);
+        }
+    }
+    
+    private void remove(String key) {
+        Entry entry = index.remove(key);
+        if (entry == null) return;
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            System.err.println("⚠ Could not delete cached report " + entry.file + ": " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Helper: Rebuild the index from the cache directory
+     */
+    private void loadIndex() {
+        if (!Files.isDirectory(cacheDir)) return;
+        
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(cacheDir, "*.gz")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String key = name.substring(0, name.length() - 3);
+                String[] parts = key.split("[_.]");
+                try {
+                    LocalDate from = LocalDate.parse(parts[1]);
+                    LocalDate to = LocalDate.parse(parts[2]);
+                    index.put(key, new Entry(file, from, to, Files.getLastModifiedTime(file).toMillis()));
+                } catch (RuntimeException e) {
+                    // Not one of ours
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("⚠ Could not read report cache directory: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes one uncompressed report to the given path
+     */
+    public interface ReportWriter {
+        void write(String outputPath) throws Exception;
+    }
+    
+    private static class Entry {
+        private final Path file;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final long createdMillis;
+        
+        Entry(Path file, LocalDate from, LocalDate to, long createdMillis) {
+            this.file = file;
+            this.from = from;
+            this.to = to;
+            this.createdMillis = createdMillis;
+        }
+        
+        boolean isExpired(long openPeriodTtlMillis) {
+            if (to.isBefore(LocalDate.now())) return false;
+            return System.currentTimeMillis() - createdMillis > openPeriodTtlMillis;
+        }
+    }
+}
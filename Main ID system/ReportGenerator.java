@@ -1,8 +1,20 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 /**
  * ReportGenerator - Generates various attendance reports
@@ -11,27 +23,52 @@ import java.util.*;
 public class ReportGenerator {
     
     private Connection conn;
+    private final AtomicLong rowsProcessed; // Shared with partition generators
     private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("MMM dd, yyyy");
     
     public ReportGenerator(Connection conn) {
+        this(conn, new AtomicLong());
+    }
+    
+    private ReportGenerator(Connection conn, AtomicLong rowsProcessed) {
         this.conn = conn;
+        this.rowsProcessed = rowsProcessed;
+    }
+    
+    /**
+     * Rows written by this generator (and its partition workers) so far
+     */
+    public long getRowsProcessed() {
+        return rowsProcessed.get();
     }
     
     /**
-     * Generate daily attendance report
+     * Generate daily attendance report (served from ReportCache when unchanged)
      */
     public void generateDailyReport(LocalDate date, String format, String outputPath) throws Exception {
+        ReportCache.getInstance().getOrGenerate(ReportCache.key("daily", date, date, format), date, date,
+            outputPath, path -> generateDailyReport(date, format, path, null));
+    }
+    
+    /**
+     * Generate daily attendance report, optionally limited to one grade/section
+     */
+    private void generateDailyReport(LocalDate date, String format, String outputPath, ReportPartition partition) throws Exception {
         String sql = "SELECT u.full_name, u.rfid_uid, s.grade, s.section, " +
                      "a.time_in, a.time_out, a.is_late, a.status " +
                      "FROM users u " +
                      "LEFT JOIN students s ON u.user_id = s.user_id " +
-                     "LEFT JOIN attendance a ON u.user_id = a.user_id AND a.date = ? " +
+                     "LEFT JOIN " + AttendanceArchiver.source(date, "a") + " ON u.user_id = a.user_id AND a.date = ? " +
                      "WHERE u.role IN ('student', 'teacher') AND u.status = 'active' " +
+                     (partition != null ? "AND s.grade <=> ? AND s.section <=> ? " : "") +
                      "ORDER BY s.grade, s.section, u.full_name";
         
-        PreparedStatement stmt = conn.prepareStatement(sql);
+        PreparedStatement stmt = prepareStreaming(sql);
         stmt.setString(1, date.format(DATE_FORMAT));
+        if (partition != null) {
+            partition.bind(stmt, 2);
+        }
         ResultSet rs = stmt.executeQuery();
         
         switch (format.toLowerCase()) {
@@ -53,11 +90,47 @@ public class ReportGenerator {
     }
     
     /**
-     * Generate monthly attendance summary
+     * Generate monthly attendance summary (served from ReportCache when unchanged)
      */
     public void generateMonthlyReport(int year, int month, String format, String outputPath) throws Exception {
         LocalDate startDate = LocalDate.of(year, month, 1);
         LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        ReportCache.getInstance().getOrGenerate(ReportCache.key("monthly", startDate, endDate, format), startDate, endDate,
+            outputPath, path -> generateMonthlyReport(startDate, endDate, calculateWorkingDays(startDate, endDate), format, path, null));
+    }
+    
+    /**
+     * Generate the monthly summary for part of one month (e.g. month to date);
+     * attendance rates use the working days of that range only
+     */
+    public void generateMonthlyReport(LocalDate startDate, LocalDate endDate, String format, String outputPath) throws Exception {
+        if (startDate.getDayOfMonth() != 1 || !YearMonth.from(startDate).equals(YearMonth.from(endDate))) {
+            throw new IllegalArgumentException("Range must start on the 1st and stay within one month: " +
+                startDate + " - " + endDate);
+        }
+        ReportCache.getInstance().getOrGenerate(ReportCache.key("monthly", startDate, endDate, format), startDate, endDate,
+            outputPath, path -> generateMonthlyReport(startDate, endDate, calculateWorkingDays(startDate, endDate), format, path, null));
+    }
+    
+    /**
+     * Generate monthly attendance summary, optionally limited to one grade/section.
+     * Reads the precomputed monthly rows from attendance_statistics for a whole month
+     * or a range running to today or later (the row only holds days so far). A partial
+     * range ending before today, or a missing statistics table, aggregates raw attendance.
+     */
+    private void generateMonthlyReport(LocalDate startDate, LocalDate endDate, int workingDays, String format,
+                                       String outputPath, ReportPartition partition) throws Exception {
+        String statsSql = "SELECT u.user_id, u.full_name, s.grade, s.section, " +
+                     "COALESCE(st.present_days, 0) as days_present, " +
+                     "COALESCE(st.late_days, 0) as days_late, " +
+                     "ROUND((COALESCE(st.present_days, 0) / ?) * 100, 2) as attendance_rate " +
+                     "FROM users u " +
+                     "LEFT JOIN students s ON u.user_id = s.user_id " +
+                     "LEFT JOIN attendance_statistics st ON u.user_id = st.user_id " +
+                     "    AND st.period_type = 'monthly' AND st.period_start = ? AND st.period_end = LAST_DAY(?) " +
+                     "WHERE u.role = 'student' AND u.status = 'active' " +
+                     (partition != null ? "AND s.grade <=> ? AND s.section <=> ? " : "") +
+                     "ORDER BY s.grade, s.section, u.full_name";
         
         String sql = "SELECT u.user_id, u.full_name, s.grade, s.section, " +
                      "COUNT(DISTINCT a.date) as days_present, " +
@@ -65,19 +138,27 @@ public class ReportGenerator {
                      "ROUND((COUNT(DISTINCT a.date) / ?) * 100, 2) as attendance_rate " +
                      "FROM users u " +
                      "LEFT JOIN students s ON u.user_id = s.user_id " +
-                     "LEFT JOIN attendance a ON u.user_id = a.user_id " +
+                     "LEFT JOIN " + AttendanceArchiver.source(startDate, "a") + " ON u.user_id = a.user_id " +
                      "    AND a.date BETWEEN ? AND ? " +
                      "WHERE u.role = 'student' AND u.status = 'active' " +
+                     (partition != null ? "AND s.grade <=> ? AND s.section <=> ? " : "") +
                      "GROUP BY u.user_id, u.full_name, s.grade, s.section " +
                      "ORDER BY s.grade, s.section, u.full_name";
         
-        int workingDays = calculateWorkingDays(startDate, endDate);
-        
-        PreparedStatement stmt = conn.prepareStatement(sql);
-        stmt.setInt(1, workingDays);
-        stmt.setString(2, startDate.format(DATE_FORMAT));
-        stmt.setString(3, endDate.format(DATE_FORMAT));
-        ResultSet rs = stmt.executeQuery();
+        boolean wholeRow = endDate.getDayOfMonth() == endDate.lengthOfMonth() || !endDate.isBefore(LocalDate.now());
+        PreparedStatement stmt = prepareStreaming(wholeRow ? statsSql : sql);
+        ResultSet rs;
+        try {
+            bindMonthlyParameters(stmt, workingDays, startDate, endDate, partition);
+            rs = stmt.executeQuery();
+        } catch (SQLException e) {
+            if (!wholeRow) throw e;
+            // attendance_statistics not created yet - aggregate raw attendance
+            stmt.close();
+            stmt = prepareStreaming(sql);
+            bindMonthlyParameters(stmt, workingDays, startDate, endDate, partition);
+            rs = stmt.executeQuery();
+        }
         
         switch (format.toLowerCase()) {
             case "csv":
@@ -94,74 +175,450 @@ public class ReportGenerator {
         stmt.close();
     }
     
+    private void bindMonthlyParameters(PreparedStatement stmt, int workingDays, LocalDate startDate,
+                                       LocalDate endDate, ReportPartition partition) throws SQLException {
+        stmt.setInt(1, workingDays);
+        stmt.setString(2, startDate.format(DATE_FORMAT));
+        stmt.setString(3, endDate.format(DATE_FORMAT));
+        if (partition != null) {
+            partition.bind(stmt, 4);
+        }
+    }
+    
+    /**
+     * Generate one daily report file per grade/section, partitions running in parallel.
+     * Returns the generated file paths.
+     */
+    public List<String> generatePartitionedDailyReport(LocalDate date, String format, String outputDir,
+                                                       int parallelism, boolean writeIndex) throws Exception {
+        List<ReportPartition> partitions = loadPartitions("u.role IN ('student', 'teacher')");
+        String prefix = "daily_" + date.format(DATE_FORMAT);
+        
+        List<String> files = runPartitioned(partitions, outputDir, prefix, format, parallelism,
+            (generator, partition, outputPath) ->
+                generator.generateDailyReport(date, format, outputPath, partition));
+        
+        if (writeIndex) {
+            writePartitionIndex(outputDir, prefix, "Daily Attendance - " + date.format(DISPLAY_FORMAT), partitions, files);
+        }
+        return files;
+    }
+    
+    /**
+     * Generate one monthly summary file per grade/section, partitions running in parallel.
+     * Returns the generated file paths.
+     */
+    public List<String> generatePartitionedMonthlyReport(int year, int month, String format, String outputDir,
+                                                         int parallelism, boolean writeIndex) throws Exception {
+        LocalDate startDate = LocalDate.of(year, month, 1);
+        LocalDate endDate = startDate.withDayOfMonth(startDate.lengthOfMonth());
+        int workingDays = calculateWorkingDays(startDate, endDate);
+        
+        List<ReportPartition> partitions = loadPartitions("u.role = 'student'");
+        String prefix = "monthly_" + startDate.format(DateTimeFormatter.ofPattern("yyyy_MM"));
+        
+        List<String> files = runPartitioned(partitions, outputDir, prefix, format, parallelism,
+            (generator, partition, outputPath) ->
+                generator.generateMonthlyReport(startDate, endDate, workingDays, format, outputPath, partition));
+        
+        if (writeIndex) {
+            writePartitionIndex(outputDir, prefix,
+                "Monthly Attendance Summary - " + startDate.format(DateTimeFormatter.ofPattern("MMMM yyyy")),
+                partitions, files);
+        }
+        return files;
+    }
+    
+    /**
+     * Run one report task per partition on a bounded fork-join pool, each with its own pooled connection
+     */
+    private List<String> runPartitioned(List<ReportPartition> partitions, String outputDir, String prefix,
+                                        String format, int parallelism, PartitionTask task) throws Exception {
+        new File(outputDir).mkdirs();
+        int workers = Math.max(1, Math.min(parallelism, partitions.size()));
+        long started = System.nanoTime();
+        
+        List<String> files = new ArrayList<>();
+        for (ReportPartition partition : partitions) {
+            files.add(new File(outputDir, prefix + "_" + partition.fileSuffix() + "." + format.toLowerCase()).getPath());
+        }
+        
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try (ConnectionPool connections = new ConnectionPool(workers)) {
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < partitions.size(); i++) {
+                ReportPartition partition = partitions.get(i);
+                String outputPath = files.get(i);
+                tasks.add(pool.submit(() -> {
+                    try (Connection partitionConn = connections.getConnection()) {
+                        task.run(new ReportGenerator(partitionConn, rowsProcessed), partition, outputPath);
+                    }
+                    return null;
+                }));
+            }
+            for (ForkJoinTask<?> t : tasks) {
+                t.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } finally {
+            pool.shutdown();
+        }
+        
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        System.out.println(String.format("✓ %d partition report(s) generated in %s using %d worker(s) (%.2fs)",
+            partitions.size(), outputDir, workers, seconds));
+        return files;
+    }
+    
+    /**
+     * Helper: Distinct grade/section pairs of active users matching the role filter
+     */
+    private List<ReportPartition> loadPartitions(String roleFilter) throws SQLException {
+        String sql = "SELECT DISTINCT s.grade, s.section FROM users u " +
+                     "LEFT JOIN students s ON u.user_id = s.user_id " +
+                     "WHERE " + roleFilter + " AND u.status = 'active' " +
+                     "ORDER BY s.grade, s.section";
+        
+        List<ReportPartition> partitions = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
+            while (rs.next()) {
+                partitions.add(new ReportPartition(rs.getString("grade"), rs.getString("section")));
+            }
+        }
+        return partitions;
+    }
+    
+    /**
+     * Helper: Combined HTML index page linking every partition file
+     */
+    private void writePartitionIndex(String outputDir, String prefix, String title,
+                                     List<ReportPartition> partitions, List<String> files) throws IOException {
+        String indexPath = new File(outputDir, prefix + "_index.html").getPath();
+        try (Writer html = openWriter(indexPath)) {
+            html.write("<!DOCTYPE html>\n<html>\n<head>\n");
+            html.write("<meta charset='UTF-8'>\n");
+            html.write("<title>" + title + "</title>\n");
+            html.write("<style>\n");
+            html.write("body { font-family: Arial, sans-serif; margin: 20px; }\n");
+            html.write("h1 { color: #2c3e50; }\n");
+            html.write("li { margin: 6px 0; }\n");
+            html.write("</style>\n</head>\n<body>\n");
+            html.write("<h1>📊 " + title + "</h1>\n<ul>\n");
+            for (int i = 0; i < partitions.size(); i++) {
+                html.write("<li><a href='" + new File(files.get(i)).getName() + "'>" +
+                           partitions.get(i).label() + "</a></li>\n");
+            }
+            html.write("</ul>\n");
+            html.write("<p style='margin-top: 30px; color: #7f8c8d; font-size: 12px;'>");
+            html.write("Generated on " + LocalDate.now().format(DISPLAY_FORMAT) + "</p>\n");
+            html.write("</body>\n</html>");
+        }
+        System.out.println("✓ Report index generated: " + indexPath);
+    }
+    
+    /**
+     * Generate per-grade/section attendance summary from the in-memory AttendanceCube
+     * (no GROUP BY over attendance; only the roster is read from MySQL)
+     */
+    public void generateSectionSummaryReport(LocalDate startDate, LocalDate endDate, String format, String outputPath) throws Exception {
+        long started = System.nanoTime();
+        AttendanceCube cube = AttendanceCube.getInstance();
+        cube.refreshIfChanged(conn);
+        
+        int workingDays = calculateWorkingDays(startDate, endDate);
+        String period = startDate.format(DISPLAY_FORMAT) + " - " + endDate.format(DISPLAY_FORMAT);
+        boolean html = "html".equalsIgnoreCase(format);
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!html && !csv && !"txt".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+        
+        int rows = 0;
+        try (Writer writer = openWriter(outputPath)) {
+            if (html) {
+                writer.write("<!DOCTYPE html>\n<html>\n<head>\n<meta charset='UTF-8'>\n");
+                writer.write("<title>Section Attendance Summary - " + period + "</title>\n");
+                writer.write("<style>\n");
+                writer.write("body { font-family: Arial, sans-serif; margin: 20px; }\n");
+                writer.write("table { border-collapse: collapse; width: 100%; margin-top: 20px; }\n");
+                writer.write("th { background-color: #3498db; color: white; padding: 12px; text-align: left; }\n");
+                writer.write("td { border: 1px solid #ddd; padding: 10px; }\n");
+                writer.write("</style>\n</head>\n<body>\n");
+                writer.write("<h1>📊 Section Attendance Summary</h1>\n");
+                writer.write("<p><strong>Period:</strong> " + period + "</p>\n");
+                writer.write("<p><strong>Total Working Days:</strong> " + workingDays + "</p>\n");
+                writer.write("<table>\n<thead>\n<tr>\n");
+                writer.write("<th>Grade</th><th>Section</th><th>Students</th><th>Present (" +
+                             endDate.format(DISPLAY_FORMAT) + ")</th><th>Days Present</th><th>Days Late</th><th>Attendance Rate</th>\n");
+                writer.write("</tr>\n</thead>\n<tbody>\n");
+            } else if (csv) {
+                writer.write("# Section Attendance Summary - " + period + "\n");
+                writer.write("# Total Working Days: " + workingDays + "\n\n");
+                writer.write("Grade,Section,Students,Present On Last Day,Days Present,Days Late,Attendance Rate (%)\n");
+            } else {
+                writer.write("=".repeat(80) + "\n");
+                writer.write("Section Attendance Summary - " + period + "\n");
+                writer.write("Total Working Days: " + workingDays + "\n");
+                writer.write("=".repeat(80) + "\n");
+            }
+            
+            for (String section : cube.getSections(conn)) {
+                int[] totals = cube.sectionTotals(conn, section, startDate, endDate);
+                String[] parts = section.split("\\|", 2);
+                int possible = totals[0] * workingDays;
+                String rate = formatPercent(possible > 0 ? totals[2] * 100.0 / possible : 0);
+                rows++;
+                
+                if (html) {
+                    writer.write("<tr><td>" + parts[0] + "</td><td>" + parts[1] + "</td><td>" + totals[0] +
+                                 "</td><td>" + totals[1] + "</td><td>" + totals[2] + "</td><td>" + totals[3] +
+                                 "</td><td>" + rate + "</td></tr>\n");
+                } else if (csv) {
+                    writer.write(parts[0] + "," + parts[1] + "," + totals[0] + "," + totals[1] + "," +
+                                 totals[2] + "," + totals[3] + "," + rate + "\n");
+                } else {
+                    writePadded(writer, parts[0], 12);
+                    writePadded(writer, parts[1], 12);
+                    writer.write("students " + totals[0] + ", present " + totals[1] + ", days present " +
+                                 totals[2] + ", days late " + totals[3] + ", rate " + rate + "\n");
+                }
+            }
+            
+            if (html) {
+                writer.write("</tbody>\n</table>\n");
+                writer.write("<p style='margin-top: 30px; color: #7f8c8d; font-size: 12px;'>");
+                writer.write("Generated on " + LocalDate.now().format(DISPLAY_FORMAT) + "</p>\n");
+                writer.write("</body>\n</html>");
+            }
+        }
+        
+        logThroughput("Section summary generated", outputPath, rows, started);
+    }
+    
     /**
      * Generate student individual report
      */
     public void generateStudentReport(int userId, LocalDate startDate, LocalDate endDate, String outputPath) throws Exception {
+        // Get student info first - the connection is busy while the attendance rows stream
+        String studentInfo = getStudentInfo(userId);
+        
         String sql = "SELECT a.date, a.time_in, a.time_out, a.is_late, a.status " +
-                     "FROM attendance a " +
+                     "FROM " + AttendanceArchiver.source(startDate, "a") + " " +
                      "WHERE a.user_id = ? AND a.date BETWEEN ? AND ? " +
                      "ORDER BY a.date DESC";
         
-        PreparedStatement stmt = conn.prepareStatement(sql);
+        PreparedStatement stmt = prepareStreaming(sql);
         stmt.setInt(1, userId);
         stmt.setString(2, startDate.format(DATE_FORMAT));
         stmt.setString(3, endDate.format(DATE_FORMAT));
         ResultSet rs = stmt.executeQuery();
         
-        // Get student info
-        String studentInfo = getStudentInfo(userId);
-        
-        StringBuilder report = new StringBuilder();
-        report.append("=== STUDENT ATTENDANCE REPORT ===\n\n");
-        report.append(studentInfo).append("\n");
-        report.append("Period: ").append(startDate.format(DISPLAY_FORMAT))
-              .append(" to ").append(endDate.format(DISPLAY_FORMAT)).append("\n");
-        report.append("=" .repeat(80)).append("\n\n");
-        
-        report.append(String.format("%-15s %-15s %-15s %-10s %-10s\n", 
-                      "Date", "Time In", "Time Out", "Late", "Status"));
-        report.append("-".repeat(80)).append("\n");
-        
+        long started = System.nanoTime();
         int totalDays = 0;
         int lateDays = 0;
         
-        while (rs.next()) {
-            totalDays++;
-            boolean isLate = rs.getBoolean("is_late");
-            if (isLate) lateDays++;
+        try (Writer writer = openWriter(outputPath)) {
+            writeStudentHeader(writer, studentInfo, startDate, endDate);
+            
+            int dateCol = rs.findColumn("date");
+            int timeInCol = rs.findColumn("time_in");
+            int timeOutCol = rs.findColumn("time_out");
+            int lateCol = rs.findColumn("is_late");
+            int statusCol = rs.findColumn("status");
+            
+            while (rs.next()) {
+                totalDays++;
+                boolean isLate = rs.getBoolean(lateCol);
+                if (isLate) lateDays++;
+                
+                writeStudentRow(writer,
+                    rs.getString(dateCol),
+                    orDefault(rs.getString(timeInCol), "N/A"),
+                    orDefault(rs.getString(timeOutCol), "N/A"),
+                    isLate ? "Yes" : "No",
+                    rs.getString(statusCol));
+            }
             
-            report.append(String.format("%-15s %-15s %-15s %-10s %-10s\n",
-                rs.getString("date"),
-                rs.getString("time_in") != null ? rs.getString("time_in") : "N/A",
-                rs.getString("time_out") != null ? rs.getString("time_out") : "N/A",
-                isLate ? "Yes" : "No",
-                rs.getString("status")));
+            writeStudentTrailer(writer, totalDays, lateDays, calculateWorkingDays(startDate, endDate));
+        } finally {
+            rs.close();
+            stmt.close();
         }
         
-        report.append("\n").append("=".repeat(80)).append("\n");
-        report.append(String.format("Total Days Present: %d\n", totalDays));
-        report.append(String.format("Days Late: %d\n", lateDays));
-        
+        logThroughput("Student report generated", outputPath, totalDays, started);
+    }
+    
+    /**
+     * Generate individual reports for every active student from a single attendance query.
+     * Rows arrive ordered by (user_id, date) and are split into one report per student;
+     * rendering runs on a pool of writer threads. With zip=true all reports go into one
+     * student_reports_<start>_<end>.zip in outputDir. Returns the number of reports written.
+     */
+    public int generateBulkStudentReports(LocalDate startDate, LocalDate endDate, String outputDir,
+                                          boolean zip, int parallelism) throws Exception {
+        long started = System.nanoTime();
+        new File(outputDir).mkdirs();
         int workingDays = calculateWorkingDays(startDate, endDate);
-        double attendanceRate = workingDays > 0 ? (totalDays * 100.0 / workingDays) : 0;
-        report.append(String.format("Attendance Rate: %.2f%%\n", attendanceRate));
+        String suffix = "_" + startDate.format(DATE_FORMAT) + "_" + endDate.format(DATE_FORMAT);
         
-        // Write to file
-        try (PrintWriter writer = new PrintWriter(outputPath)) {
-            writer.print(report.toString());
+        String sql = "SELECT u.user_id, u.full_name, u.rfid_uid, s.grade, s.section, u.parent_email, " +
+                     "a.date, a.time_in, a.time_out, a.is_late, a.status " +
+                     "FROM users u " +
+                     "LEFT JOIN students s ON u.user_id = s.user_id " +
+                     "LEFT JOIN " + AttendanceArchiver.source(startDate, "a") + " ON u.user_id = a.user_id AND a.date BETWEEN ? AND ? " +
+                     "WHERE u.role = 'student' AND u.status = 'active' " +
+                     "ORDER BY u.user_id, a.date DESC";
+        
+        int workers = Math.max(1, parallelism);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        Semaphore inFlight = new Semaphore(workers * 4); // Bounds buffered students while the query streams
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        ZipOutputStream zipOut = zip ? new ZipOutputStream(new BufferedOutputStream(
+            new FileOutputStream(new File(outputDir, "student_reports" + suffix + ".zip")), 64 * 1024)) : null;
+        int reports = 0;
+        int rows = 0;
+        
+        try (PreparedStatement stmt = prepareStreaming(sql)) {
+            stmt.setString(1, startDate.format(DATE_FORMAT));
+            stmt.setString(2, endDate.format(DATE_FORMAT));
+            ResultSet rs = stmt.executeQuery();
+            
+            int userIdCol = rs.findColumn("user_id");
+            int nameCol = rs.findColumn("full_name");
+            int rfidCol = rs.findColumn("rfid_uid");
+            int gradeCol = rs.findColumn("grade");
+            int sectionCol = rs.findColumn("section");
+            int emailCol = rs.findColumn("parent_email");
+            int dateCol = rs.findColumn("date");
+            int timeInCol = rs.findColumn("time_in");
+            int timeOutCol = rs.findColumn("time_out");
+            int lateCol = rs.findColumn("is_late");
+            int statusCol = rs.findColumn("status");
+            
+            StudentRows current = null;
+            while (rs.next()) {
+                int userId = rs.getInt(userIdCol);
+                if (current == null || current.userId != userId) {
+                    if (current != null) {
+                        tasks.add(submitStudentReport(pool, inFlight, current, startDate, endDate,
+                            workingDays, outputDir, suffix, zipOut));
+                        reports++;
+                    }
+                    current = new StudentRows(userId, formatStudentInfo(rs.getString(nameCol),
+                        rs.getString(rfidCol), rs.getString(gradeCol), rs.getString(sectionCol),
+                        rs.getString(emailCol)));
+                }
+                String date = rs.getString(dateCol);
+                if (date != null) {
+                    current.add(date, rs.getString(timeInCol), rs.getString(timeOutCol),
+                                rs.getBoolean(lateCol), rs.getString(statusCol));
+                    rows++;
+                }
+            }
+            if (current != null) {
+                tasks.add(submitStudentReport(pool, inFlight, current, startDate, endDate,
+                    workingDays, outputDir, suffix, zipOut));
+                reports++;
+            }
+            rs.close();
+            
+            for (ForkJoinTask<?> t : tasks) {
+                t.get();
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            throw cause instanceof Exception ? (Exception) cause : e;
+        } finally {
+            pool.shutdown();
+            if (zipOut != null) {
+                // Let in-flight entries finish before the archive is closed
+                pool.awaitTermination(1, TimeUnit.MINUTES);
+                zipOut.close();
+            }
         }
         
-        rs.close();
-        stmt.close();
+        rowsProcessed.addAndGet(rows);
+        double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+        System.out.println(String.format("✓ %d student report(s) generated in %s from %d rows using %d writer(s) (%.2fs)",
+            reports, outputDir, rows, workers, seconds));
+        return reports;
+    }
+    
+    /**
+     * Helper: Render one student's report on the pool; zip entries are written one at a time
+     */
+    private ForkJoinTask<?> submitStudentReport(ForkJoinPool pool, Semaphore inFlight, StudentRows student,
+                                                LocalDate startDate, LocalDate endDate, int workingDays,
+                                                String outputDir, String suffix, ZipOutputStream zipOut)
+            throws InterruptedException {
+        inFlight.acquire();
+        String fileName = "student_" + student.userId + suffix + ".txt";
+        return pool.submit(() -> {
+            try {
+                if (zipOut == null) {
+                    try (Writer writer = openWriter(new File(outputDir, fileName).getPath())) {
+                        writeStudentReport(writer, student, startDate, endDate, workingDays);
+                    }
+                } else {
+                    ByteArrayOutputStream buffer = new ByteArrayOutputStream(4096);
+                    try (Writer writer = new OutputStreamWriter(buffer, StandardCharsets.UTF_8)) {
+                        writeStudentReport(writer, student, startDate, endDate, workingDays);
+                    }
+                    synchronized (zipOut) {
+                        zipOut.putNextEntry(new ZipEntry(fileName));
+                        buffer.writeTo(zipOut);
+                        zipOut.closeEntry();
+                    }
+                }
+            } finally {
+                inFlight.release();
+            }
+            return null;
+        });
+    }
+    
+    private void writeStudentReport(Writer writer, StudentRows student, LocalDate startDate,
+                                    LocalDate endDate, int workingDays) throws IOException {
+        writeStudentHeader(writer, student.info, startDate, endDate);
+        int lateDays = 0;
+        for (String[] row : student.rows) {
+            if ("Yes".equals(row[3])) lateDays++;
+            writeStudentRow(writer, row[0], row[1], row[2], row[3], row[4]);
+        }
+        writeStudentTrailer(writer, student.rows.size(), lateDays, workingDays);
+    }
+    
+    private void writeStudentHeader(Writer writer, String studentInfo, LocalDate startDate,
+                                    LocalDate endDate) throws IOException {
+        writer.write("=== STUDENT ATTENDANCE REPORT ===\n\n");
+        writer.write(studentInfo);
+        writer.write("\n");
+        writer.write("Period: " + startDate.format(DISPLAY_FORMAT) + " to " + endDate.format(DISPLAY_FORMAT) + "\n");
+        writer.write("=".repeat(80) + "\n\n");
+        
+        writeStudentRow(writer, "Date", "Time In", "Time Out", "Late", "Status");
+        writer.write("-".repeat(80) + "\n");
+    }
+    
+    private void writeStudentTrailer(Writer writer, int totalDays, int lateDays, int workingDays) throws IOException {
+        writer.write("\n" + "=".repeat(80) + "\n");
+        writer.write("Total Days Present: " + totalDays + "\n");
+        writer.write("Days Late: " + lateDays + "\n");
         
-        System.out.println("✓ Student report generated: " + outputPath);
+        double attendanceRate = workingDays > 0 ? (totalDays * 100.0 / workingDays) : 0;
+        writer.write("Attendance Rate: " + formatPercent(attendanceRate) + "\n");
     }
     
     /**
      * Generate CSV format report
      */
     private void generateCSVReport(ResultSet rs, String outputPath, String title) throws Exception {
+        long started = System.nanoTime();
+        int rows = 0;
+        
         try (PrintWriter writer = new PrintWriter(outputPath)) {
             writer.println("# " + title);
             writer.println();
@@ -178,6 +635,7 @@ public class ReportGenerator {
             
             // Write data
             while (rs.next()) {
+                rows++;
                 for (int i = 1; i <= columnCount; i++) {
                     String value = rs.getString(i);
                     writer.print(value != null ? value : "N/A");
@@ -187,13 +645,16 @@ public class ReportGenerator {
             }
         }
         
-        System.out.println("✓ CSV report generated: " + outputPath);
+        logThroughput("CSV report generated", outputPath, rows, started);
     }
     
     /**
      * Generate monthly CSV report
      */
     private void generateMonthlyCSVReport(ResultSet rs, String outputPath, LocalDate month, int workingDays) throws Exception {
+        long started = System.nanoTime();
+        int rows = 0;
+        
         try (PrintWriter writer = new PrintWriter(outputPath)) {
             writer.println("# Monthly Attendance Summary - " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")));
             writer.println("# Total Working Days: " + workingDays);
@@ -201,160 +662,200 @@ public class ReportGenerator {
             
             writer.println("Full Name,Grade,Section,Days Present,Days Late,Attendance Rate (%)");
             
+            int nameCol = rs.findColumn("full_name");
+            int gradeCol = rs.findColumn("grade");
+            int sectionCol = rs.findColumn("section");
+            int presentCol = rs.findColumn("days_present");
+            int lateCol = rs.findColumn("days_late");
+            int rateCol = rs.findColumn("attendance_rate");
+            
             while (rs.next()) {
-                writer.printf("%s,%s,%s,%d,%d,%.2f%%\n",
-                    rs.getString("full_name"),
-                    rs.getString("grade") != null ? rs.getString("grade") : "N/A",
-                    rs.getString("section") != null ? rs.getString("section") : "N/A",
-                    rs.getInt("days_present"),
-                    rs.getInt("days_late"),
-                    rs.getDouble("attendance_rate"));
+                rows++;
+                writer.print(rs.getString(nameCol));
+                writer.print(',');
+                writer.print(orDefault(rs.getString(gradeCol), "N/A"));
+                writer.print(',');
+                writer.print(orDefault(rs.getString(sectionCol), "N/A"));
+                writer.print(',');
+                writer.print(rs.getInt(presentCol));
+                writer.print(',');
+                writer.print(rs.getInt(lateCol));
+                writer.print(',');
+                writer.print(formatPercent(rs.getDouble(rateCol)));
+                writer.print('\n');
             }
         }
         
-        System.out.println("✓ Monthly CSV report generated: " + outputPath);
+        logThroughput("Monthly CSV report generated", outputPath, rows, started);
     }
     
     /**
-     * Generate HTML daily report
+     * Generate HTML daily report (streamed row by row, summary in the trailer)
      */
     private void generateHTMLDailyReport(ResultSet rs, String outputPath, LocalDate date) throws Exception {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html>\n<html>\n<head>\n");
-        html.append("<meta charset='UTF-8'>\n");
-        html.append("<title>Daily Attendance Report - ").append(date.format(DISPLAY_FORMAT)).append("</title>\n");
-        html.append("<style>\n");
-        html.append("body { font-family: Arial, sans-serif; margin: 20px; }\n");
-        html.append("h1 { color: #2c3e50; }\n");
-        html.append("table { border-collapse: collapse; width: 100%; margin-top: 20px; }\n");
-        html.append("th { background-color: #3498db; color: white; padding: 12px; text-align: left; }\n");
-        html.append("td { border: 1px solid #ddd; padding: 10px; }\n");
-        html.append("tr:nth-child(even) { background-color: #f2f2f2; }\n");
-        html.append(".present { color: green; font-weight: bold; }\n");
-        html.append(".absent { color: red; font-weight: bold; }\n");
-        html.append(".late { color: orange; }\n");
-        html.append(".summary { margin-top: 20px; padding: 15px; background-color: #ecf0f1; border-radius: 5px; }\n");
-        html.append("</style>\n</head>\n<body>\n");
-        
-        html.append("<h1>📊 Daily Attendance Report</h1>\n");
-        html.append("<p><strong>Date:</strong> ").append(date.format(DISPLAY_FORMAT)).append("</p>\n");
-        
-        html.append("<table>\n<thead>\n<tr>\n");
-        html.append("<th>Full Name</th><th>Grade</th><th>Section</th>");
-        html.append("<th>Time In</th><th>Time Out</th><th>Status</th>\n");
-        html.append("</tr>\n</thead>\n<tbody>\n");
-        
+        long started = System.nanoTime();
         int totalPresent = 0;
         int totalAbsent = 0;
         int totalLate = 0;
         
-        while (rs.next()) {
-            String timeIn = rs.getString("time_in");
-            boolean isLate = rs.getBoolean("is_late");
-            String status = timeIn != null ? "Present" : "Absent";
+        try (Writer html = openWriter(outputPath)) {
+            html.write("<!DOCTYPE html>\n<html>\n<head>\n");
+            html.write("<meta charset='UTF-8'>\n");
+            html.write("<title>Daily Attendance Report - " + date.format(DISPLAY_FORMAT) + "</title>\n");
+            html.write("<style>\n");
+            html.write("body { font-family: Arial, sans-serif; margin: 20px; }\n");
+            html.write("h1 { color: #2c3e50; }\n");
+            html.write("table { border-collapse: collapse; width: 100%; margin-top: 20px; }\n");
+            html.write("th { background-color: #3498db; color: white; padding: 12px; text-align: left; }\n");
+            html.write("td { border: 1px solid #ddd; padding: 10px; }\n");
+            html.write("tr:nth-child(even) { background-color: #f2f2f2; }\n");
+            html.write(".present { color: green; font-weight: bold; }\n");
+            html.write(".absent { color: red; font-weight: bold; }\n");
+            html.write(".late { color: orange; }\n");
+            html.write(".summary { margin-top: 20px; padding: 15px; background-color: #ecf0f1; border-radius: 5px; }\n");
+            html.write("</style>\n</head>\n<body>\n");
             
-            if (timeIn != null) {
-                totalPresent++;
-                if (isLate) totalLate++;
-            } else {
-                totalAbsent++;
+            html.write("<h1>📊 Daily Attendance Report</h1>\n");
+            html.write("<p><strong>Date:</strong> " + date.format(DISPLAY_FORMAT) + "</p>\n");
+            
+            html.write("<table>\n<thead>\n<tr>\n");
+            html.write("<th>Full Name</th><th>Grade</th><th>Section</th>");
+            html.write("<th>Time In</th><th>Time Out</th><th>Status</th>\n");
+            html.write("</tr>\n</thead>\n<tbody>\n");
+            
+            int nameCol = rs.findColumn("full_name");
+            int gradeCol = rs.findColumn("grade");
+            int sectionCol = rs.findColumn("section");
+            int timeInCol = rs.findColumn("time_in");
+            int timeOutCol = rs.findColumn("time_out");
+            int lateCol = rs.findColumn("is_late");
+            
+            while (rs.next()) {
+                String timeIn = rs.getString(timeInCol);
+                boolean isLate = rs.getBoolean(lateCol);
+                
+                if (timeIn != null) {
+                    totalPresent++;
+                    if (isLate) totalLate++;
+                } else {
+                    totalAbsent++;
+                }
+                
+                html.write("<tr>\n<td>");
+                html.write(rs.getString(nameCol));
+                html.write("</td><td>");
+                html.write(orDefault(rs.getString(gradeCol), "N/A"));
+                html.write("</td><td>");
+                html.write(orDefault(rs.getString(sectionCol), "N/A"));
+                html.write(isLate ? "</td><td class='late'>" : "</td><td>");
+                html.write(orDefault(timeIn, "N/A"));
+                html.write("</td><td>");
+                html.write(orDefault(rs.getString(timeOutCol), "N/A"));
+                html.write(timeIn != null ? "</td><td class='present'>Present</td>" : "</td><td class='absent'>Absent</td>");
+                html.write("</tr>\n");
             }
             
-            html.append("<tr>\n");
-            html.append("<td>").append(rs.getString("full_name")).append("</td>");
-            html.append("<td>").append(rs.getString("grade") != null ? rs.getString("grade") : "N/A").append("</td>");
-            html.append("<td>").append(rs.getString("section") != null ? rs.getString("section") : "N/A").append("</td>");
-            html.append("<td").append(isLate ? " class='late'" : "").append(">");
-            html.append(timeIn != null ? timeIn : "N/A").append("</td>");
-            html.append("<td>").append(rs.getString("time_out") != null ? rs.getString("time_out") : "N/A").append("</td>");
-            html.append("<td class='").append(timeIn != null ? "present" : "absent").append("'>").append(status).append("</td>");
-            html.append("</tr>\n");
-        }
-        
-        html.append("</tbody>\n</table>\n");
-        
-        // Summary
-        html.append("<div class='summary'>\n");
-        html.append("<h3>📈 Summary</h3>\n");
-        html.append("<p><strong>Total Present:</strong> ").append(totalPresent).append("</p>\n");
-        html.append("<p><strong>Total Absent:</strong> ").append(totalAbsent).append("</p>\n");
-        html.append("<p><strong>Late Arrivals:</strong> ").append(totalLate).append("</p>\n");
-        
-        int total = totalPresent + totalAbsent;
-        double attendanceRate = total > 0 ? (totalPresent * 100.0 / total) : 0;
-        html.append("<p><strong>Attendance Rate:</strong> ").append(String.format("%.2f%%", attendanceRate)).append("</p>\n");
-        html.append("</div>\n");
-        
-        html.append("<p style='margin-top: 30px; color: #7f8c8d; font-size: 12px;'>");
-        html.append("Generated on ").append(LocalDate.now().format(DISPLAY_FORMAT)).append("</p>\n");
-        html.append("</body>\n</html>");
-        
-        try (PrintWriter writer = new PrintWriter(outputPath)) {
-            writer.print(html.toString());
+            html.write("</tbody>\n</table>\n");
+            
+            // Summary
+            html.write("<div class='summary'>\n");
+            html.write("<h3>📈 Summary</h3>\n");
+            html.write("<p><strong>Total Present:</strong> " + totalPresent + "</p>\n");
+            html.write("<p><strong>Total Absent:</strong> " + totalAbsent + "</p>\n");
+            html.write("<p><strong>Late Arrivals:</strong> " + totalLate + "</p>\n");
+            
+            int total = totalPresent + totalAbsent;
+            double attendanceRate = total > 0 ? (totalPresent * 100.0 / total) : 0;
+            html.write("<p><strong>Attendance Rate:</strong> " + formatPercent(attendanceRate) + "</p>\n");
+            html.write("</div>\n");
+            
+            html.write("<p style='margin-top: 30px; color: #7f8c8d; font-size: 12px;'>");
+            html.write("Generated on " + LocalDate.now().format(DISPLAY_FORMAT) + "</p>\n");
+            html.write("</body>\n</html>");
         }
         
-        System.out.println("✓ HTML report generated: " + outputPath);
+        logThroughput("HTML report generated", outputPath, totalPresent + totalAbsent, started);
     }
     
     /**
-     * Generate HTML monthly report
+     * Generate HTML monthly report (streamed row by row)
      */
     private void generateHTMLMonthlyReport(ResultSet rs, String outputPath, LocalDate month, int workingDays) throws Exception {
-        StringBuilder html = new StringBuilder();
-        html.append("<!DOCTYPE html>\n<html>\n<head>\n");
-        html.append("<meta charset='UTF-8'>\n");
-        html.append("<title>Monthly Attendance Report - ").append(month.format(DateTimeFormatter.ofPattern("MMMM yyyy"))).append("</title>\n");
-        html.append("<style>\n");
-        html.append("body { font-family: Arial, sans-serif; margin: 20px; }\n");
-        html.append("h1 { color: #2c3e50; }\n");
-        html.append("table { border-collapse: collapse; width: 100%; margin-top: 20px; }\n");
-        html.append("th { background-color: #2ecc71; color: white; padding: 12px; text-align: left; }\n");
-        html.append("td { border: 1px solid #ddd; padding: 10px; }\n");
-        html.append("tr:nth-child(even) { background-color: #f2f2f2; }\n");
-        html.append(".good { color: green; font-weight: bold; }\n");
-        html.append(".warning { color: orange; font-weight: bold; }\n");
-        html.append(".poor { color: red; font-weight: bold; }\n");
-        html.append("</style>\n</head>\n<body>\n");
-        
-        html.append("<h1>📊 Monthly Attendance Summary</h1>\n");
-        html.append("<p><strong>Month:</strong> ").append(month.format(DateTimeFormatter.ofPattern("MMMM yyyy"))).append("</p>\n");
-        html.append("<p><strong>Total Working Days:</strong> ").append(workingDays).append("</p>\n");
-        
-        html.append("<table>\n<thead>\n<tr>\n");
-        html.append("<th>Full Name</th><th>Grade</th><th>Section</th>");
-        html.append("<th>Days Present</th><th>Days Late</th><th>Attendance Rate</th>\n");
-        html.append("</tr>\n</thead>\n<tbody>\n");
-        
-        while (rs.next()) {
-            double rate = rs.getDouble("attendance_rate");
-            String rateClass = rate >= 90 ? "good" : (rate >= 75 ? "warning" : "poor");
-            
-            html.append("<tr>\n");
-            html.append("<td>").append(rs.getString("full_name")).append("</td>");
-            html.append("<td>").append(rs.getString("grade") != null ? rs.getString("grade") : "N/A").append("</td>");
-            html.append("<td>").append(rs.getString("section") != null ? rs.getString("section") : "N/A").append("</td>");
-            html.append("<td>").append(rs.getInt("days_present")).append("/").append(workingDays).append("</td>");
-            html.append("<td>").append(rs.getInt("days_late")).append("</td>");
-            html.append("<td class='").append(rateClass).append("'>").append(String.format("%.2f%%", rate)).append("</td>");
-            html.append("</tr>\n");
-        }
-        
-        html.append("</tbody>\n</table>\n");
-        html.append("<p style='margin-top: 30px; color: #7f8c8d; font-size: 12px;'>");
-        html.append("Generated on ").append(LocalDate.now().format(DISPLAY_FORMAT)).append("</p>\n");
-        html.append("</body>\n</html>");
+        long started = System.nanoTime();
+        int rows = 0;
         
-        try (PrintWriter writer = new PrintWriter(outputPath)) {
-            writer.print(html.toString());
+        try (Writer html = openWriter(outputPath)) {
+            html.write("<!DOCTYPE html>\n<html>\n<head>\n");
+            html.write("<meta charset='UTF-8'>\n");
+            html.write("<title>Monthly Attendance Report - " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")) + "</title>\n");
+            html.write("<style>\n");
+            html.write("body { font-family: Arial, sans-serif; margin: 20px; }\n");
+            html.write("h1 { color: #2c3e50; }\n");
+            html.write("table { border-collapse: collapse; width: 100%; margin-top: 20px; }\n");
+            html.write("th { background-color: #2ecc71; color: white; padding: 12px; text-align: left; }\n");
+            html.write("td { border: 1px solid #ddd; padding: 10px; }\n");
+            html.write("tr:nth-child(even) { background-color: #f2f2f2; }\n");
+            html.write(".good { color: green; font-weight: bold; }\n");
+            html.write(".warning { color: orange; font-weight: bold; }\n");
+            html.write(".poor { color: red; font-weight: bold; }\n");
+            html.write("</style>\n</head>\n<body>\n");
+            
+            html.write("<h1>📊 Monthly Attendance Summary</h1>\n");
+            html.write("<p><strong>Month:</strong> " + month.format(DateTimeFormatter.ofPattern("MMMM yyyy")) + "</p>\n");
+            html.write("<p><strong>Total Working Days:</strong> " + workingDays + "</p>\n");
+            
+            html.write("<table>\n<thead>\n<tr>\n");
+            html.write("<th>Full Name</th><th>Grade</th><th>Section</th>");
+            html.write("<th>Days Present</th><th>Days Late</th><th>Attendance Rate</th>\n");
+            html.write("</tr>\n</thead>\n<tbody>\n");
+            
+            int nameCol = rs.findColumn("full_name");
+            int gradeCol = rs.findColumn("grade");
+            int sectionCol = rs.findColumn("section");
+            int presentCol = rs.findColumn("days_present");
+            int lateCol = rs.findColumn("days_late");
+            int rateCol = rs.findColumn("attendance_rate");
+            String workingDaysSuffix = "/" + workingDays;
+            
+            while (rs.next()) {
+                rows++;
+                double rate = rs.getDouble(rateCol);
+                String rateClass = rate >= 90 ? "good" : (rate >= 75 ? "warning" : "poor");
+                
+                html.write("<tr>\n<td>");
+                html.write(rs.getString(nameCol));
+                html.write("</td><td>");
+                html.write(orDefault(rs.getString(gradeCol), "N/A"));
+                html.write("</td><td>");
+                html.write(orDefault(rs.getString(sectionCol), "N/A"));
+                html.write("</td><td>");
+                html.write(Integer.toString(rs.getInt(presentCol)));
+                html.write(workingDaysSuffix);
+                html.write("</td><td>");
+                html.write(Integer.toString(rs.getInt(lateCol)));
+                html.write("</td><td class='");
+                html.write(rateClass);
+                html.write("'>");
+                html.write(formatPercent(rate));
+                html.write("</td></tr>\n");
+            }
+            
+            html.write("</tbody>\n</table>\n");
+            html.write("<p style='margin-top: 30px; color: #7f8c8d; font-size: 12px;'>");
+            html.write("Generated on " + LocalDate.now().format(DISPLAY_FORMAT) + "</p>\n");
+            html.write("</body>\n</html>");
         }
         
-        System.out.println("✓ HTML monthly report generated: " + outputPath);
+        logThroughput("HTML monthly report generated", outputPath, rows, started);
     }
     
     /**
      * Generate plain text report
      */
     private void generateTextReport(ResultSet rs, String outputPath, String title) throws Exception {
+        long started = System.nanoTime();
+        int rows = 0;
+        
         try (PrintWriter writer = new PrintWriter(outputPath)) {
             writer.println("=".repeat(80));
             writer.println(title);
@@ -365,6 +866,7 @@ public class ReportGenerator {
             int columnCount = metaData.getColumnCount();
             
             while (rs.next()) {
+                rows++;
                 for (int i = 1; i <= columnCount; i++) {
                     writer.printf("%-25s: %s\n", metaData.getColumnLabel(i), 
                                 rs.getString(i) != null ? rs.getString(i) : "N/A");
@@ -373,7 +875,76 @@ public class ReportGenerator {
             }
         }
         
-        System.out.println("✓ Text report generated: " + outputPath);
+        logThroughput("Text report generated", outputPath, rows, started);
+    }
+    
+    /**
+     * Helper: Prepare a forward-only statement that streams rows from MySQL
+     * instead of buffering the whole result set in memory
+     */
+    private PreparedStatement prepareStreaming(String sql) throws SQLException {
+        PreparedStatement stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(Integer.MIN_VALUE);
+        return stmt;
+    }
+    
+    /**
+     * Helper: Open a buffered UTF-8 writer for a report file
+     */
+    private Writer openWriter(String outputPath) throws IOException {
+        return Files.newBufferedWriter(Paths.get(outputPath), StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Helper: Write one fixed-width row of the student report
+     */
+    private void writeStudentRow(Writer writer, String date, String timeIn, String timeOut,
+                                 String late, String status) throws IOException {
+        writePadded(writer, date, 15);
+        writer.write(' ');
+        writePadded(writer, timeIn, 15);
+        writer.write(' ');
+        writePadded(writer, timeOut, 15);
+        writer.write(' ');
+        writePadded(writer, late, 10);
+        writer.write(' ');
+        writePadded(writer, status, 10);
+        writer.write('\n');
+    }
+    
+    /**
+     * Helper: Left-justify a value in a column (same output as %-Ns)
+     */
+    private void writePadded(Writer writer, String value, int width) throws IOException {
+        if (value == null) value = "null";
+        writer.write(value);
+        for (int i = value.length(); i < width; i++) {
+            writer.write(' ');
+        }
+    }
+    
+    /**
+     * Helper: Format a rate as "12.34%" (same output as %.2f%%)
+     */
+    private static String formatPercent(double rate) {
+        long scaled = Math.round(rate * 100);
+        long whole = scaled / 100;
+        long fraction = Math.abs(scaled % 100);
+        return (scaled < 0 && whole == 0 ? "-" : "") + whole + (fraction < 10 ? ".0" : ".") + fraction + "%";
+    }
+    
+    private static String orDefault(String value, String defaultValue) {
+        return value != null ? value : defaultValue;
+    }
+    
+    /**
+     * Helper: Report output location and throughput
+     */
+    private void logThroughput(String label, String outputPath, int rows, long startedNanos) {
+        rowsProcessed.addAndGet(rows);
+        double seconds = (System.nanoTime() - startedNanos) / 1_000_000_000.0;
+        long rowsPerSec = seconds > 0 ? Math.round(rows / seconds) : rows;
+        System.out.println("✓ " + label + ": " + outputPath + " (" + rows + " rows, " + rowsPerSec + " rows/sec)");
     }
     
     /**
@@ -386,35 +957,81 @@ public class ReportGenerator {
         stmt.setInt(1, userId);
         ResultSet rs = stmt.executeQuery();
         
-        StringBuilder info = new StringBuilder();
+        String info = "";
         if (rs.next()) {
-            info.append("Student Name: ").append(rs.getString("full_name")).append("\n");
-            info.append("Student ID: ").append(rs.getString("rfid_uid")).append("\n");
-            info.append("Grade: ").append(rs.getString("grade") != null ? rs.getString("grade") : "N/A").append("\n");
-            info.append("Section: ").append(rs.getString("section") != null ? rs.getString("section") : "N/A").append("\n");
-            info.append("Parent Email: ").append(rs.getString("parent_email") != null ? rs.getString("parent_email") : "N/A");
+            info = formatStudentInfo(rs.getString("full_name"), rs.getString("rfid_uid"), rs.getString("grade"),
+                                     rs.getString("section"), rs.getString("parent_email"));
         }
         
         rs.close();
         stmt.close();
-        return info.toString();
+        return info;
+    }
+    
+    private static String formatStudentInfo(String fullName, String rfidUid, String grade,
+                                            String section, String parentEmail) {
+        return "Student Name: " + fullName + "\n" +
+               "Student ID: " + rfidUid + "\n" +
+               "Grade: " + orDefault(grade, "N/A") + "\n" +
+               "Section: " + orDefault(section, "N/A") + "\n" +
+               "Parent Email: " + orDefault(parentEmail, "N/A");
     }
     
     /**
-     * Helper: Calculate working days (excluding weekends)
+     * Helper: Calculate working days (excluding weekends and holidays)
      */
-    private int calculateWorkingDays(LocalDate startDate, LocalDate endDate) {
-        int workingDays = 0;
-        LocalDate current = startDate;
-        
-        while (!current.isAfter(endDate)) {
-            // Exclude Saturday and Sunday
-            if (current.getDayOfWeek().getValue() < 6) {
-                workingDays++;
-            }
-            current = current.plusDays(1);
+    static int calculateWorkingDays(LocalDate startDate, LocalDate endDate) {
+        // Weekends and holidays excluded via the precomputed calendar
+        return SchoolCalendar.getInstance().countSchoolDays(startDate, endDate);
+    }
+    
+    /**
+     * Grade/section slice of a report (null values match students without a grade/section and teachers)
+     */
+    private static class ReportPartition {
+        private final String grade;
+        private final String section;
+        
+        ReportPartition(String grade, String section) {
+            this.grade = grade;
+            this.section = section;
         }
         
-        return workingDays;
+        void bind(PreparedStatement stmt, int index) throws SQLException {
+            stmt.setString(index, grade);
+            stmt.setString(index + 1, section);
+        }
+        
+        String label() {
+            if (grade == null && section == null) return "No Grade/Section";
+            return "Grade " + (grade != null ? grade : "N/A") + " - " + (section != null ? section : "N/A");
+        }
+        
+        String fileSuffix() {
+            String suffix = "grade-" + (grade != null ? grade : "none") + "_section-" + (section != null ? section : "none");
+            return suffix.replaceAll("[^A-Za-z0-9_-]", "_");
+        }
+    }
+    
+    /**
+     * One student's buffered attendance rows for bulk rendering (already formatted for display)
+     */
+    private static class StudentRows {
+        private final int userId;
+        private final String info;
+        private final List<String[]> rows = new ArrayList<>();
+        
+        StudentRows(int userId, String info) {
+            this.userId = userId;
+            this.info = info;
+        }
+        
+        void add(String date, String timeIn, String timeOut, boolean late, String status) {
+            rows.add(new String[]{date, orDefault(timeIn, "N/A"), orDefault(timeOut, "N/A"), late ? "Yes" : "No", status});
+        }
+    }
+    
+    private interface PartitionTask {
+        void run(ReportGenerator generator, ReportPartition partition, String outputPath) throws Exception;
     }
 }
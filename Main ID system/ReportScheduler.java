@@ -0,0 +1,195 @@
+import java.io.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * ReportScheduler - Off-peak pre-generation of routine reports
+ * Features: Daily schedule after the afternoon session, low-priority thread, capped DB connections, retention policy
+ *
+ * Each run writes into reports/scheduled/<date>/: the previous day's daily report,
+ * the month-to-date summary and section summary, and the previous day's per-section
+ * reports. Run duration and rows processed are written to audit_logs.
+ */
+public class ReportScheduler {
+    
+    private ConfigManager config;
+    private Timer scheduleTimer;
+    private static final String SCHEDULED_DIR = "scheduled";
+    
+    public ReportScheduler() {
+        this.config = ConfigManager.getInstance();
+    }
+    
+    /**
+     * Start scheduled report generation service
+     */
+    public void startScheduledReports() {
+        if (!Boolean.parseBoolean(config.getProperty("report.schedule.enabled", "true"))) {
+            System.out.println("⚠ Scheduled report generation is disabled in configuration");
+            return;
+        }
+        
+        String runTime = config.getProperty("report.schedule.time", "20:30"); // After the afternoon session
+        
+        scheduleTimer = new Timer("ReportSchedulerTimer", true);
+        
+        long delay = calculateInitialDelay(runTime);
+        long period = 24 * 60 * 60 * 1000; // 24 hours in milliseconds
+        
+        scheduleTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                // Never compete with the kiosk for CPU
+                Thread.currentThread().setPriority(Thread.MIN_PRIORITY);
+                performScheduledRun(LocalDate.now());
+            }
+        }, delay, period);
+        
+        System.out.println("✓ Report pre-generation scheduled for " + runTime + " daily");
+    }
+    
+    /**
+     * Stop scheduled report generation service
+     */
+    public void stopScheduledReports() {
+        if (scheduleTimer != null) {
+            scheduleTimer.cancel();
+            System.out.println("✓ Scheduled report service stopped");
+        }
+    }
+    
+    /**
+     * Pre-render the routine reports for the given run date
+     */
+    public boolean performScheduledRun(LocalDate runDate) {
+        System.out.println("\n=== Starting scheduled report generation ===");
+        
+        LocalDate previousDay = runDate.minusDays(1);
+        LocalDate monthStart = runDate.withDayOfMonth(1);
+        File outputDir = new File(config.getReportOutputDirectory(), SCHEDULED_DIR + File.separator + runDate);
+        outputDir.mkdirs();
+        
+        // Per-section workers (and their connections) on top of the one used for whole-school reports
+        int budget = Math.max(1, Integer.parseInt(config.getProperty("report.schedule.connections", "1")));
+        
+        long started = System.currentTimeMillis();
+        int reports = 0;
+        ReportGenerator generator = null;
+        
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                config.getDatabaseUser(),
+                config.getDatabasePassword())) {
+            generator = new ReportGenerator(conn);
+            
+            generator.generateDailyReport(previousDay, "html",
+                new File(outputDir, "daily_" + previousDay + ".html").getPath());
+            reports++;
+            
+            generator.generateMonthlyReport(monthStart, runDate, "html",
+                new File(outputDir, "monthly_to_date_" + runDate + ".html").getPath());
+            reports++;
+            
+            generator.generateSectionSummaryReport(monthStart, runDate, "html",
+                new File(outputDir, "section_summary_" + monthStart + "_" + runDate + ".html").getPath());
+            reports++;
+            
+            reports += generator.generatePartitionedDailyReport(previousDay, "html",
+                outputDir.getPath(), budget, true).size();
+            
+            cleanOldRuns();
+            
+            long duration = System.currentTimeMillis() - started;
+            System.out.println("✓ Scheduled reports completed: " + reports + " report(s), " +
+                generator.getRowsProcessed() + " rows in " + duration + " ms");
+            logRun(runDate, reports, generator.getRowsProcessed(), duration, null);
+            return true;
+        
+        } catch (Exception e) {
+            long duration = System.currentTimeMillis() - started;
+            long rows = generator != null ? generator.getRowsProcessed() : 0;
+            System.err.println("❌ Scheduled report generation failed: " + e.getMessage());
+            logRun(runDate, reports, rows, duration, e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Delete scheduled run folders older than the retention period
+     */
+    private void cleanOldRuns() {
+        int retentionDays = Integer.parseInt(config.getProperty("report.schedule.retention.days", "14"));
+        LocalDate cutoff = LocalDate.now().minusDays(retentionDays);
+        
+        File[] runs = new File(config.getReportOutputDirectory(), SCHEDULED_DIR).listFiles(File::isDirectory);
+        if (runs == null) return;
+        
+        int deletedCount = 0;
+        for (File run : runs) {
+            LocalDate runDate;
+            try {
+                runDate = LocalDate.parse(run.getName());
+            } catch (RuntimeException e) {
+                continue; // Not a run folder
+            }
+            if (runDate.isBefore(cutoff)) {
+                File[] files = run.listFiles();
+                if (files != null) {
+                    for (File file : files) {
+                        file.delete();
+                    }
+                }
+                if (run.delete()) {
+                    deletedCount++;
+                }
+            }
+        }
+        
+        if (deletedCount > 0) {
+            System.out.println("✓ Cleaned " + deletedCount + " old scheduled report run(s)");
+        }
+    }
+    
+    /**
+     * Log run statistics to database
+     */
+    private void logRun(LocalDate runDate, int reports, long rows, long durationMillis, String error) {
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                config.getDatabaseUser(),
+                config.getDatabasePassword())) {
+            
+            String sql = "INSERT INTO audit_logs (user_id, action, details) VALUES (NULL, ?, ?)";
+            PreparedStatement stmt = conn.prepareStatement(sql);
+            stmt.setString(1, "REPORT_PREGENERATION");
+            stmt.setString(2, "Run date: " + runDate + ", Reports: " + reports + ", Rows: " + rows +
+                ", Duration: " + durationMillis + " ms, Success: " + (error == null) +
+                (error != null ? ", Error: " + error : ""));
+            stmt.executeUpdate();
+            stmt.close();
+        
+        } catch (SQLException e) {
+            // Don't throw exception, just log to console
+            System.err.println("⚠ Could not log report run to database: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Calculate initial delay for the scheduled run
+     */
+    private long calculateInitialDelay(String runTime) {
+        String[] parts = runTime.split(":");
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime next = now.withHour(Integer.parseInt(parts[0]))
+                                .withMinute(Integer.parseInt(parts[1])).withSecond(0);
+        if (next.isBefore(now)) {
+            next = next.plusDays(1);
+        }
+        
+        System.out.println("  Next report run scheduled at: " + next);
+        return java.time.Duration.between(now, next).toMillis();
+    }
+}
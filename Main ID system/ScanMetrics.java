@@ -0,0 +1,186 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * ScanMetrics - Kiosk scan latency, from card read to the result on screen
+ * Features: Lock-free histograms for the whole scan and each stage of it, rolling
+ *           last-minute and last-hour windows, text report, dump to file at shutdown
+ *
+ * The backup throttle reads the last-minute p95 to back off while scans are slowing down.
+ * Stages are timed with System.nanoTime() laps on the scan path; recording one is a
+ * few atomic increments per window.
+ */
+public class ScanMetrics {
+    
+    /**
+     * Parts of a scan, in the order they run
+     */
+    public enum Stage {
+        INPUT_CAPTURE("input capture"),         // first reader keystroke to Enter
+        DB_CONNECT("db connect"),
+        USER_LOOKUP("user lookup"),
+        CLASS_LOOKUP("class lookup"),           // class type and its late threshold
+        ATTENDANCE_UPSERT("attendance upsert"), // today's row read plus time-in/time-out write
+        PROFILE_READ("profile read"),           // grade/section and today's times for display
+        COUNTER_READ("counter read"),
+        PHOTO_LOAD("photo load"),
+        RENDER("render");                       // profile panels built and painted, photo excluded
+        
+        private final String label;
+        
+        Stage(String label) {
+            this.label = label;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+    }
+    
+    /**
+     * Time span a histogram covers
+     */
+    public enum Window {
+        ALL_TIME, LAST_MINUTE, LAST_HOUR
+    }
+    
+    private static final ScanMetrics instance = new ScanMetrics();
+    
+    private final Series scans = new Series();
+    private final Map<Stage, Series> stages = new EnumMap<>(Stage.class);
+    
+    private ScanMetrics() {
+        for (Stage stage : Stage.values()) {
+            stages.put(stage, new Series());
+        }
+    }
+    
+    public static ScanMetrics getInstance() {
+        return instance;
+    }
+    
+    /**
+     * Record one processed scan (System.nanoTime() difference)
+     */
+    public void recordScan(long nanos) {
+        scans.record(nanos);
+    }
+    
+    public void recordStage(Stage stage, long nanos) {
+        stages.get(stage).record(nanos);
+    }
+    
+    /**
+     * Record the stage as ending now; returns now, the start of the next stage
+     */
+    public long lap(Stage stage, long startedNanos) {
+        long now = System.nanoTime();
+        stages.get(stage).record(now - startedNanos);
+        return now;
+    }
+    
+    public LatencyHistogram getScans() {
+        return scans.allTime;
+    }
+    
+    /**
+     * Scans of the last minute
+     */
+    public LatencyHistogram getRecentScans() {
+        return scans.get(Window.LAST_MINUTE);
+    }
+    
+    public LatencyHistogram getScans(Window window) {
+        return scans.get(window);
+    }
+    
+    public LatencyHistogram getStage(Stage stage, Window window) {
+        return stages.get(stage).get(window);
+    }
+    
+    /**
+     * Table of every stage and the whole scan for one window (p50/p95/p99/max in ms)
+     */
+    public String report(Window window) {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-18s %8s %9s %9s %9s %9s%n", window.name().toLowerCase().replace('_', ' '),
+            "count", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        for (Stage stage : Stage.values()) {
+            appendRow(report, stage.getLabel(), getStage(stage, window));
+        }
+        appendRow(report, "whole scan", getScans(window));
+        return report.toString();
+    }
+    
+    /**
+     * Reports for all three windows
+     */
+    public String report() {
+        return report(Window.LAST_MINUTE) + "\n" + report(Window.LAST_HOUR) + "\n" + report(Window.ALL_TIME);
+    }
+    
+    /**
+     * Append the full report to a file (parent directories are created)
+     */
+    public void dumpTo(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8)) {
+            out.write("=== Scan latency at " + LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME) + " ===\n");
+            out.write(report());
+            out.write("\n");
+        }
+    }
+    
+    /**
+     * Dump the report to the file when the JVM exits
+     */
+    public void dumpOnShutdown(File file) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                dumpTo(file);
+                System.out.println("✓ Scan latency report written to " + file.getPath());
+            } catch (IOException e) {
+                System.err.println("⚠ Could not write scan latency report: " + e.getMessage());
+            }
+        }, "scan-metrics-dump"));
+    }
+    
+    private static void appendRow(StringBuilder report, String name, LatencyHistogram histogram) {
+        report.append(String.format("%-18s %8d %9.1f %9.1f %9.1f %9.1f%n", name, histogram.getCount(),
+            histogram.getPercentileMillis(50), histogram.getPercentileMillis(95),
+            histogram.getPercentileMillis(99), histogram.getMaxMicros() / 1000.0));
+    }
+    
+    /**
+     * One measurement: all-time histogram plus minute (6 x 10 s) and hour (12 x 5 min) rings
+     */
+    private static class Series {
+        private final LatencyHistogram allTime = new LatencyHistogram();
+        private final LatencyHistogram.Rolling lastMinute = new LatencyHistogram.Rolling(10_000, 6);
+        private final LatencyHistogram.Rolling lastHour = new LatencyHistogram.Rolling(300_000, 12);
+        
+        void record(long nanos) {
+            allTime.record(nanos);
+            lastMinute.record(nanos);
+            lastHour.record(nanos);
+        }
+        
+        LatencyHistogram get(Window window) {
+            switch (window) {
+                case LAST_MINUTE:
+                    return lastMinute.snapshot();
+                case LAST_HOUR:
+                    return lastHour.snapshot();
+                default:
+                    return allTime;
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+import java.sql.*;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * SchoolCalendar - Compiled calendar of school days and shift times
+ * Features: Per-year school-day bitset with prefix sums, holidays (incl. recurring), shift thresholds, change polling
+ *
+ * Weekends and the holidays table decide which days are school days; the shifts
+ * table supplies late/early-out thresholds per class type (matched by shift_name).
+ * The calendar is rebuilt when CHECKSUM TABLE reports a change to either table.
+ */
+public class SchoolCalendar {
+    
+    private static SchoolCalendar instance;
+    
+    // Used when no active shift matches the class type
+    private static final Shift DEFAULT_MORNING = new Shift(LocalTime.of(7, 30), LocalTime.of(16, 0));
+    private static final Shift DEFAULT_AFTERNOON = new Shift(LocalTime.of(13, 0), LocalTime.of(20, 0));
+    
+    private final ConfigManager config = ConfigManager.getInstance();
+    private volatile Snapshot snapshot;
+    private String checksum;
+    private Timer refreshTimer;
+    
+    private SchoolCalendar() {
+        reload();
+    }
+    
+    public static synchronized SchoolCalendar getInstance() {
+        if (instance == null) {
+            instance = new SchoolCalendar();
+            instance.startRefresh();
+        }
+        return instance;
+    }
+    
+    /**
+     * Number of school days in [startDate, endDate], inclusive
+     */
+    public int countSchoolDays(LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) return 0;
+        
+        Snapshot current = snapshot;
+        int total = 0;
+        for (int year = startDate.getYear(); year <= endDate.getYear(); year++) {
+            YearCalendar cal = current.year(year);
+            int from = year == startDate.getYear() ? startDate.getDayOfYear() : 1;
+            int to = year == endDate.getYear() ? endDate.getDayOfYear() : cal.length;
+            total += cal.prefix[to] - cal.prefix[from - 1];
+        }
+        return total;
+    }
+    
+    public boolean isSchoolDay(LocalDate date) {
+        return snapshot.year(date.getYear()).schoolDays.get(date.getDayOfYear() - 1);
+    }
+    
+    /**
+     * Time after which a time-in counts as late for the class type
+     */
+    public LocalTime getLateThreshold(String classType) {
+        return snapshot.shift(classType).lateAfter;
+    }
+    
+    /**
+     * Time before which a time-out counts as leaving early for the class type
+     */
+    public LocalTime getEarlyOutThreshold(String classType) {
+        return snapshot.shift(classType).earlyBefore;
+    }
+    
+    /**
+     * Rebuild from the holidays and shifts tables (weekends only if they are unavailable)
+     */
+    public synchronized void reload() {
+        Set<LocalDate> holidays = new HashSet<>();
+        Set<MonthDay> recurring = new HashSet<>();
+        Map<String, Shift> shifts = new HashMap<>();
+        
+        try (Connection conn = openConnection();
+             Statement stmt = conn.createStatement()) {
+            checksum = readChecksum(stmt);
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT holiday_date, is_recurring FROM holidays")) {
+                while (rs.next()) {
+                    LocalDate date = rs.getDate("holiday_date").toLocalDate();
+                    if (rs.getBoolean("is_recurring")) {
+                        recurring.add(MonthDay.from(date));
+                    } else {
+                        holidays.add(date);
+                    }
+                }
+            } catch (SQLException e) {
+                System.out.println("Note: holidays table not available, counting weekdays only");
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT shift_name, start_time, end_time, " +
+                    "late_threshold_minutes, early_departure_threshold_minutes FROM shifts WHERE is_active = TRUE")) {
+                while (rs.next()) {
+                    String classType = matchClassType(rs.getString("shift_name"));
+                    if (classType == null || shifts.containsKey(classType)) continue;
+                    LocalTime start = rs.getTime("start_time").toLocalTime();
+                    LocalTime end = rs.getTime("end_time").toLocalTime();
+                    shifts.put(classType, new Shift(start.plusMinutes(rs.getInt("late_threshold_minutes")),
+                                                    end.minusMinutes(rs.getInt("early_departure_threshold_minutes"))));
+                }
+            } catch (SQLException e) {
+                System.out.println("Note: shifts table not available, using default class times");
+            }
+        } catch (SQLException e) {
+            System.err.println("⚠ Could not load school calendar: " + e.getMessage());
+        }
+        
+        snapshot = new Snapshot(holidays, recurring, shifts);
+        System.out.println("✓ School calendar loaded (" + holidays.size() + " holidays, " +
+            recurring.size() + " recurring, " + shifts.size() + " shifts)");
+    }
+    
+    /**
+     * Poll the holidays/shifts checksums and rebuild when they change
+     */
+    private void startRefresh() {
+        int seconds = Integer.parseInt(config.getProperty("calendar.refresh.seconds", "60"));
+        refreshTimer = new Timer("SchoolCalendarRefresh", true);
+        refreshTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                try (Connection conn = openConnection();
+                     Statement stmt = conn.createStatement()) {
+                    if (!readChecksum(stmt).equals(checksum)) {
+                        reload();
+                        // Working-day totals in cached reports are now out of date
+                        ReportCache.getInstance().invalidateAll();
+                    }
+                } catch (SQLException e) {
+                    System.err.println("⚠ School calendar refresh failed: " + e.getMessage());
+                }
+            }
+        }, seconds * 1000L, seconds * 1000L);
+    }
+    
+    private Connection openConnection() throws SQLException {
+        return DriverManager.getConnection(
+            config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+            config.getDatabaseUser(),
+            config.getDatabasePassword());
+    }
+    
+    /**
+     * Helper: Combined checksum of both source tables (missing tables report NULL)
+     */
+    private String readChecksum(Statement stmt) throws SQLException {
+        StringBuilder sb = new StringBuilder();
+        try (ResultSet rs = stmt.executeQuery("CHECKSUM TABLE holidays, shifts")) {
+            while (rs.next()) {
+                sb.append(rs.getString(1)).append('=').append(rs.getString(2)).append(';');
+            }
+        }
+        return sb.toString();
+    }
+    
+    /**
+     * Helper: Map a shift name such as "Morning Class" onto a students.class_type value
+     */
+    private static String matchClassType(String shiftName) {
+        String name = shiftName.toLowerCase();
+        if (name.contains("morning")) return "morning";
+        if (name.contains("afternoon")) return "afternoon";
+        return null;
+    }
+    
+    /**
+     * Immutable calendar state; years are compiled on first use
+     */
+    private static class Snapshot {
+        private final Set<LocalDate> holidays;
+        private final Set<MonthDay> recurring;
+        private final Map<String, Shift> shifts;
+        private final Map<Integer, YearCalendar> years = new ConcurrentHashMap<>();
+        
+        Snapshot(Set<LocalDate> holidays, Set<MonthDay> recurring, Map<String, Shift> shifts) {
+            this.holidays = holidays;
+            this.recurring = recurring;
+            this.shifts = shifts;
+        }
+        
+        YearCalendar year(int year) {
+            return years.computeIfAbsent(year, y -> new YearCalendar(y, holidays, recurring));
+        }
+        
+        Shift shift(String classType) {
+            String key = classType == null ? "morning" : classType.toLowerCase();
+            Shift shift = shifts.get(key);
+            if (shift != null) return shift;
+            return "afternoon".equals(key) ? DEFAULT_AFTERNOON : DEFAULT_MORNING;
+        }
+    }
+    
+    /**
+     * School days of one year as a bitset (bit n = day n+1) plus running totals
+     */
+    private static class YearCalendar {
+        private final int length;
+        private final BitSet schoolDays;
+        private final int[] prefix; // prefix[n] = school days in days 1..n
+        
+        YearCalendar(int year, Set<LocalDate> holidays, Set<MonthDay> recurring) {
+            LocalDate first = LocalDate.of(year, 1, 1);
+            length = first.lengthOfYear();
+            schoolDays = new BitSet(length);
+            prefix = new int[length + 1];
+            
+            LocalDate date = first;
+            for (int day = 1; day <= length; day++) {
+                DayOfWeek dow = date.getDayOfWeek();
+                boolean school = dow != DayOfWeek.SATURDAY && dow != DayOfWeek.SUNDAY
+                    && !holidays.contains(date) && !recurring.contains(MonthDay.from(date));
+                if (school) {
+                    schoolDays.set(day - 1);
+                }
+                prefix[day] = prefix[day - 1] + (school ? 1 : 0);
+                date = date.plusDays(1);
+            }
+        }
+    }
+    
+    private static class Shift {
+        private final LocalTime lateAfter;
+        private final LocalTime earlyBefore;
+        
+        Shift(LocalTime lateAfter, LocalTime earlyBefore) {
+            this.lateAfter = lateAfter;
+            this.earlyBefore = earlyBefore;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+import java.sql.*;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+
+/**
+ * SystemSettings - Settings shared by every kiosk through the system_settings table
+ * Features: Layered over config.properties, merged in-memory view, change-stamp polling,
+ *           write-through for shared keys
+ *
+ * The table's values are merged into ConfigManager's snapshot, so reading a setting
+ * never queries the database. Every few seconds a poll reads one change stamp: the
+ * version counter bumped by every write (and by the triggers in database_enhancement.sql),
+ * plus the row count and last update time for setups without the triggers. Only
+ * when the stamp moves is the table read again. db.* keys always stay local.
+ *
+ * Rows seeded by database_enhancement.sql under older key names are defaults, not
+ * decisions; they only override config.properties once someone has changed them
+ * (updated_by set). Rows under the config keys themselves always apply.
+ */
+public class SystemSettings {
+    
+    // Keys seeded by database_enhancement.sql under older names -> config.properties keys
+    private static final Map<String, String> LEGACY_KEYS = new HashMap<>();
+    
+    static {
+        LEGACY_KEYS.put("attendance.late_threshold", "attendance.late.threshold.minutes");
+        LEGACY_KEYS.put("attendance.early_departure_threshold", "attendance.early.departure.threshold.minutes");
+        LEGACY_KEYS.put("notification.email_enabled", "email.enabled");
+        LEGACY_KEYS.put("theme.dark_mode", "system.dark.mode");
+        LEGACY_KEYS.put("backup.auto_enabled", "system.auto.backup");
+        LEGACY_KEYS.put("backup.time", "system.backup.time");
+        LEGACY_KEYS.put("security.session_timeout", "admin.session.timeout");
+        LEGACY_KEYS.put("security.max_login_attempts", "security.max.login.attempts");
+    }
+    
+    private static volatile String lastStamp;
+    private static volatile Map<String, String> tableKeys = Collections.emptyMap();   // config key -> row key
+    private static Timer pollTimer;
+    private static Connection pollConnection;
+    
+    private Connection conn;
+    
+    public SystemSettings(Connection conn) {
+        this.conn = conn;
+    }
+    
+    /**
+     * Create the settings tables if needed and apply the shared settings
+     */
+    public void initialize() throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS system_settings (" +
+                "setting_key VARCHAR(100) PRIMARY KEY," +
+                "setting_value TEXT," +
+                "description VARCHAR(255)," +
+                "updated_by INT," +
+                "updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP," +
+                "FOREIGN KEY (updated_by) REFERENCES users(user_id) ON DELETE SET NULL" +
+                ")");
+            stmt.executeUpdate("CREATE TABLE IF NOT EXISTS system_settings_version (" +
+                "id TINYINT PRIMARY KEY," +
+                "version BIGINT NOT NULL DEFAULT 0" +
+                ")");
+            stmt.executeUpdate("INSERT IGNORE INTO system_settings_version (id, version) VALUES (1, 0)");
+        }
+        lastStamp = null;
+        refresh();
+        System.out.println("✓ Shared settings loaded (" + tableKeys.size() + " from system_settings)");
+    }
+    
+    /**
+     * Re-read the table if its change stamp moved; returns true if new values were applied
+     */
+    public boolean refresh() throws SQLException {
+        String stamp = readStamp();
+        if (stamp.equals(lastStamp)) {
+            return false;
+        }
+        
+        // Stamp first: a change landing while we read is seen by the next poll
+        Map<String, String> values = new HashMap<>();
+        Map<String, String> keys = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT setting_key, setting_value, updated_by FROM system_settings")) {
+            while (rs.next()) {
+                String rowKey = rs.getString("setting_key");
+                String value = rs.getString("setting_value");
+                String key = LEGACY_KEYS.getOrDefault(rowKey, rowKey);
+                if (value == null || key.startsWith("db.")) continue;
+                // Seeded legacy row nobody has changed - the local file keeps the say
+                if (!rowKey.equals(key) && rs.getObject("updated_by") == null) continue;
+                // A row under the config key itself wins over its legacy name
+                if (!rowKey.equals(key) && keys.containsKey(key)) continue;
+                values.put(key, value.trim());
+                keys.put(key, rowKey);
+            }
+        }
+        tableKeys = keys;
+        lastStamp = stamp;
+        ConfigManager.getInstance().setSharedSettings(values);
+        return true;
+    }
+    
+    private String readStamp() throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT (SELECT version FROM system_settings_version WHERE id = 1) AS version, " +
+                 "COUNT(*) AS row_count, MAX(updated_at) AS last_update FROM system_settings")) {
+            rs.next();
+            return rs.getLong("version") + "/" + rs.getLong("row_count") + "/" + rs.getTimestamp("last_update");
+        }
+    }
+    
+    /**
+     * Change a shared setting for every kiosk (stored under its existing row key, if any)
+     */
+    public void set(String key, String value) throws SQLException {
+        boolean autoCommit = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try {
+            try (PreparedStatement stmt = conn.prepareStatement(
+                    "INSERT INTO system_settings (setting_key, setting_value) VALUES (?, ?) " +
+                    "ON DUPLICATE KEY UPDATE setting_value = VALUES(setting_value)")) {
+                stmt.setString(1, tableKeys.getOrDefault(key, key));
+                stmt.setString(2, value);
+                stmt.executeUpdate();
+            }
+            try (Statement stmt = conn.createStatement()) {
+                stmt.executeUpdate("UPDATE system_settings_version SET version = version + 1 WHERE id = 1");
+            }
+            conn.commit();
+        } catch (SQLException e) {
+            conn.rollback();
+            throw e;
+        } finally {
+            conn.setAutoCommit(autoCommit);
+        }
+    }
+    
+    /**
+     * Write-through used by ConfigManager's setters for keys that come from the table
+     */
+    static boolean save(String key, String value) {
+        ConfigManager config = ConfigManager.getInstance();
+        try (Connection conn = DriverManager.getConnection(
+                config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                config.getDatabaseUser(),
+                config.getDatabasePassword())) {
+            new SystemSettings(conn).set(key, value);
+            return true;
+        } catch (SQLException e) {
+            System.err.println("❌ Could not save shared setting " + key + ": " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Poll the change stamp in the background on one long-lived connection
+     */
+    public static synchronized void startPolling() {
+        ConfigManager config = ConfigManager.getInstance();
+        int seconds = Math.max(1, config.getSettingsPollSeconds());
+        
+        pollTimer = new Timer("SettingsPollTimer", true);
+        pollTimer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                poll(config);
+            }
+        }, seconds * 1000L, seconds * 1000L);
+        
+        System.out.println("✓ Shared settings checked every " + seconds + " s");
+    }
+    
+    /**
+     * Stop polling and release the connection
+     */
+    public static synchronized void stopPolling() {
+        if (pollTimer != null) {
+            pollTimer.cancel();
+            pollTimer = null;
+        }
+        closePollConnection();
+    }
+    
+    private static synchronized void poll(ConfigManager config) {
+        try {
+            if (pollConnection == null || pollConnection.isClosed()) {
+                pollConnection = DriverManager.getConnection(
+                    config.getDatabaseUrl() + "?allowPublicKeyRetrieval=true&useSSL=false",
+                    config.getDatabaseUser(),
+                    config.getDatabasePassword());
+            }
+            if (new SystemSettings(pollConnection).refresh()) {
+                System.out.println("✓ Shared settings changed - applied");
+            }
+        } catch (SQLException e) {
+            // Keep the last known settings; reconnect on the next poll
+            System.err.println("⚠ Shared settings check failed: " + e.getMessage());
+            closePollConnection();
+        }
+    }
+    
+    private static void closePollConnection() {
+        if (pollConnection != null) {
+            try {
+                pollConnection.close();
+            } catch (SQLException ignored) {
+            }
+            pollConnection = null;
+        }
+    }
+}
@@ -72,6 +72,14 @@ CREATE TABLE IF NOT EXISTS system_settings (
     FOREIGN KEY (updated_by) REFERENCES users(user_id) ON DELETE SET NULL
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- Change counter polled by every kiosk (SystemSettings.java); bumped by the triggers below
+CREATE TABLE IF NOT EXISTS system_settings_version (
+    id TINYINT PRIMARY KEY,
+    version BIGINT NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT IGNORE INTO system_settings_version (id, version) VALUES (1, 0);
+
 -- =====================================================
 -- 5. SHIFT SCHEDULES TABLE
 -- =====================================================
@@ -102,6 +110,8 @@ CREATE TABLE IF NOT EXISTS holidays (
 -- =====================================================
 -- 7. ATTENDANCE STATISTICS (Cached/Precomputed)
 -- =====================================================
+-- Maintained per scan by AttendanceStatistics.java (period_type daily/weekly/monthly),
+-- reconciled nightly and backfilled from attendance on first run.
 CREATE TABLE IF NOT EXISTS attendance_statistics (
     id INT PRIMARY KEY AUTO_INCREMENT,
     user_id INT NOT NULL,
@@ -167,6 +177,19 @@ CREATE TABLE IF NOT EXISTS login_attempts (
     INDEX idx_ip (ip_address, attempt_time)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- =====================================================
+-- 11. USER ATTENDANCE COUNTERS (Kiosk "Total Days Present")
+-- =====================================================
+-- Incremented with the first time-in of each day by PresentDayCounter.java
+CREATE TABLE IF NOT EXISTS user_attendance_counters (
+    user_id INT PRIMARY KEY,
+    days_present INT NOT NULL DEFAULT 0,
+    last_present_date DATE,
+    FOREIGN KEY (user_id) REFERENCES users(user_id) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Filled from the full attendance history after the archive section below
+
 -- =====================================================
 -- ENHANCE EXISTING TABLES
 -- =====================================================
@@ -206,10 +229,42 @@ ALTER TABLE students
     ADD COLUMN IF NOT EXISTS enrollment_date DATE AFTER guardian_email,
     ADD COLUMN IF NOT EXISTS graduation_year YEAR AFTER enrollment_date;
 
+-- =====================================================
+-- ATTENDANCE ARCHIVE (Closed school years)
+-- =====================================================
+-- Created after the attendance enhancements above so both tables match.
+-- Filled in small batches by AttendanceArchiver.java; same columns and indexes as attendance.
+-- The live table then only holds the current school year. AttendanceArchiver adds
+-- columns added to attendance later, so the column order of the two may differ.
+CREATE TABLE IF NOT EXISTS attendance_archive LIKE attendance;
+
+-- Full history for ad-hoc queries (columns named, not *, for that reason)
+CREATE OR REPLACE VIEW v_attendance_all AS
+SELECT id, user_id, date, time_in, time_out, status, is_late, is_early_departure, notes, shift_id,
+       late_minutes, early_out_minutes
+FROM attendance
+UNION ALL
+SELECT id, user_id, date, time_in, time_out, status, is_late, is_early_departure, notes, shift_id,
+       late_minutes, early_out_minutes
+FROM attendance_archive;
+
+-- Present-day counters from the full history, archived years included
+-- (re-running recounts from scratch)
+INSERT INTO user_attendance_counters (user_id, days_present, last_present_date)
+SELECT user_id, COUNT(DISTINCT date), MAX(date)
+FROM v_attendance_all
+WHERE time_in IS NOT NULL
+GROUP BY user_id
+ON DUPLICATE KEY UPDATE
+    days_present = VALUES(days_present),
+    last_present_date = VALUES(last_present_date);
+
 -- =====================================================
 -- INSERT DEFAULT SETTINGS
 -- =====================================================
 
+-- Defaults only: the application ignores these rows (config.properties wins) until
+-- they are changed with updated_by set; see SystemSettings.java.
 INSERT IGNORE INTO system_settings (setting_key, setting_value, description) VALUES
 ('system.version', '2.0.0', 'System version number'),
 ('attendance.late_threshold', '15', 'Minutes after start time considered late'),
@@ -226,22 +281,42 @@ INSERT IGNORE INTO system_settings (setting_key, setting_value, description) VAL
 INSERT IGNORE INTO shifts (id, shift_name, start_time, end_time, late_threshold_minutes) VALUES
 (1, 'Regular Day', '08:00:00', '17:00:00', 15);
 
+-- Class shifts used by the kiosk (matched to students.class_type by name)
+INSERT IGNORE INTO shifts (id, shift_name, start_time, end_time, late_threshold_minutes, early_departure_threshold_minutes) VALUES
+(2, 'Morning Class', '07:30:00', '16:00:00', 0, 0),
+(3, 'Afternoon Class', '13:00:00', '20:00:00', 0, 0);
+
 -- =====================================================
 -- CREATE VIEWS FOR COMMON QUERIES
 -- =====================================================
 
--- Daily attendance summary
+-- Materialized daily summary (one row per date and class type)
+-- Kept current by the kiosk on every scan; DailySummary.java rebuilds/repairs days.
+-- total_active_users is the active roster when the day's first scan came in; that scan
+-- creates a row for every class type, so class types with no scans yet still count.
+CREATE TABLE IF NOT EXISTS daily_summary (
+    summary_date DATE NOT NULL,
+    class_type VARCHAR(10) NOT NULL,
+    total_checked_in INT NOT NULL DEFAULT 0,
+    total_late INT NOT NULL DEFAULT 0,
+    total_time_out INT NOT NULL DEFAULT 0,
+    total_active_users INT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (summary_date, class_type)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- Daily attendance summary (primary-key range scan over daily_summary)
 CREATE OR REPLACE VIEW v_daily_attendance_summary AS
 SELECT 
-    a.date,
-    COUNT(DISTINCT a.user_id) as total_checked_in,
-    SUM(CASE WHEN a.time_in IS NOT NULL THEN 1 ELSE 0 END) as total_time_in,
-    SUM(CASE WHEN a.time_out IS NOT NULL THEN 1 ELSE 0 END) as total_time_out,
-    SUM(CASE WHEN a.is_late = TRUE THEN 1 ELSE 0 END) as total_late,
-    (SELECT COUNT(*) FROM users WHERE role IN ('student', 'teacher') AND status = 'active') as total_active_users
-FROM attendance a
-GROUP BY a.date
-ORDER BY a.date DESC;
+    d.summary_date as date,
+    SUM(d.total_checked_in) as total_checked_in,
+    SUM(d.total_checked_in) as total_time_in,
+    SUM(d.total_time_out) as total_time_out,
+    SUM(d.total_late) as total_late,
+    SUM(d.total_active_users) as total_active_users
+FROM daily_summary d
+GROUP BY d.summary_date
+ORDER BY d.summary_date DESC;
 
 -- Student attendance overview
 CREATE OR REPLACE VIEW v_student_attendance_overview AS
@@ -268,20 +343,45 @@ GROUP BY u.user_id, u.full_name, u.rfid_uid, s.grade, s.section, u.last_seen, u.
 DELIMITER //
 
 -- Procedure to get attendance statistics
-CREATE PROCEDURE IF NOT EXISTS sp_get_attendance_stats(
+-- Reads the precomputed attendance_statistics rows (maintained by AttendanceStatistics.java):
+-- whole months from the monthly rows, partial months at either end from the daily rows.
+-- Daily rows only exist for present days, so total_days is counted from the calendar
+-- instead: weekdays that are not holidays, the rule SchoolCalendar.java uses.
+DROP PROCEDURE IF EXISTS sp_get_attendance_stats //
+
+CREATE PROCEDURE sp_get_attendance_stats(
     IN p_user_id INT,
     IN p_start_date DATE,
     IN p_end_date DATE
 )
 BEGIN
+    DECLARE v_day DATE DEFAULT p_start_date;
+    DECLARE v_total_days INT DEFAULT 0;
+    
+    WHILE v_day <= p_end_date DO
+        IF WEEKDAY(v_day) < 5 AND NOT EXISTS (
+            SELECT 1 FROM holidays h
+            WHERE h.holiday_date = v_day
+               OR (h.is_recurring AND MONTH(h.holiday_date) = MONTH(v_day) AND DAY(h.holiday_date) = DAY(v_day))
+        ) THEN
+            SET v_total_days = v_total_days + 1;
+        END IF;
+        SET v_day = v_day + INTERVAL 1 DAY;
+    END WHILE;
+    
     SELECT 
-        COUNT(*) as total_days,
-        SUM(CASE WHEN time_in IS NOT NULL THEN 1 ELSE 0 END) as present_days,
-        SUM(CASE WHEN is_late = TRUE THEN 1 ELSE 0 END) as late_days,
-        ROUND((SUM(CASE WHEN time_in IS NOT NULL THEN 1 ELSE 0 END) / COUNT(*)) * 100, 2) as attendance_rate
-    FROM attendance
+        v_total_days as total_days,
+        COALESCE(SUM(present_days), 0) as present_days,
+        COALESCE(SUM(late_days), 0) as late_days,
+        ROUND((COALESCE(SUM(present_days), 0) / NULLIF(v_total_days, 0)) * 100, 2) as attendance_rate
+    FROM attendance_statistics
     WHERE user_id = p_user_id
-    AND date BETWEEN p_start_date AND p_end_date;
+    AND (
+        (period_type = 'monthly' AND period_start >= p_start_date AND period_end <= p_end_date)
+        OR (period_type = 'daily' AND period_start BETWEEN p_start_date AND p_end_date
+            AND NOT (DATE_FORMAT(period_start, '%Y-%m-01') >= p_start_date
+                     AND LAST_DAY(period_start) <= p_end_date))
+    );
 END //
 
 -- Procedure to mark attendance
@@ -319,35 +419,66 @@ DELIMITER ;
 -- =====================================================
 -- TRIGGERS FOR AUDIT LOGGING
 -- =====================================================
+-- Bulk operations (BulkUserOperations.java) set @audit_suppress = 1 for their
+-- session and write one summarized record instead of one row per user.
+
+DROP TRIGGER IF EXISTS tr_users_after_insert;
+DROP TRIGGER IF EXISTS tr_users_after_update;
+DROP TRIGGER IF EXISTS tr_users_before_delete;
 
 DELIMITER //
 
-CREATE TRIGGER IF NOT EXISTS tr_users_after_insert
+CREATE TRIGGER tr_users_after_insert
 AFTER INSERT ON users
 FOR EACH ROW
 BEGIN
-    INSERT INTO audit_logs (user_id, action, details)
-    VALUES (NEW.user_id, 'USER_CREATED', CONCAT('New user created: ', NEW.full_name));
+    IF @audit_suppress IS NULL THEN
+        INSERT INTO audit_logs (user_id, action, details)
+        VALUES (NEW.user_id, 'USER_CREATED', CONCAT('New user created: ', NEW.full_name));
+    END IF;
 END //
 
-CREATE TRIGGER IF NOT EXISTS tr_users_after_update
+CREATE TRIGGER tr_users_after_update
 AFTER UPDATE ON users
 FOR EACH ROW
 BEGIN
-    INSERT INTO audit_logs (user_id, action, details)
-    VALUES (NEW.user_id, 'USER_UPDATED', CONCAT('User updated: ', NEW.full_name));
+    IF @audit_suppress IS NULL THEN
+        INSERT INTO audit_logs (user_id, action, details)
+        VALUES (NEW.user_id, 'USER_UPDATED', CONCAT('User updated: ', NEW.full_name));
+    END IF;
 END //
 
-CREATE TRIGGER IF NOT EXISTS tr_users_before_delete
+CREATE TRIGGER tr_users_before_delete
 BEFORE DELETE ON users
 FOR EACH ROW
 BEGIN
-    INSERT INTO audit_logs (user_id, action, details)
-    VALUES (OLD.user_id, 'USER_DELETED', CONCAT('User deleted: ', OLD.full_name));
+    IF @audit_suppress IS NULL THEN
+        INSERT INTO audit_logs (user_id, action, details)
+        VALUES (OLD.user_id, 'USER_DELETED', CONCAT('User deleted: ', OLD.full_name));
+    END IF;
 END //
 
 DELIMITER ;
 
+-- =====================================================
+-- TRIGGERS FOR SHARED SETTINGS
+-- =====================================================
+-- Any change to system_settings, including edits by hand, moves the version
+-- the kiosks poll, so they reload the settings within a few seconds.
+
+DROP TRIGGER IF EXISTS tr_settings_after_insert;
+DROP TRIGGER IF EXISTS tr_settings_after_update;
+DROP TRIGGER IF EXISTS tr_settings_after_delete;
+
+CREATE TRIGGER tr_settings_after_insert AFTER INSERT ON system_settings
+FOR EACH ROW UPDATE system_settings_version SET version = version + 1 WHERE id = 1;
+
+CREATE TRIGGER tr_settings_after_update AFTER UPDATE ON system_settings
+FOR EACH ROW UPDATE system_settings_version SET version = version + 1 WHERE id = 1;
+
+CREATE TRIGGER tr_settings_after_delete AFTER DELETE ON system_settings
+FOR EACH ROW UPDATE system_settings_version SET version = version + 1 WHERE id = 1;
+
 -- =====================================================
 -- OPTIMIZE TABLES
 -- =====================================================